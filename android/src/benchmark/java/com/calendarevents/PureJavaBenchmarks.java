@@ -0,0 +1,173 @@
+package com.calendarevents;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Dependency-free microbenchmarks for the module's pure-Java paths (date codec, RRULE
+ * compiler and expansion, interval index, free/busy sweep). As a baseline, the .sdf
+ * runs time SimpleDateFormat with the pattern of the shared static ISO_8601_FORMAT
+ * the codec replaced, held in a ThreadLocal since a shared instance isn't
+ * thread-safe. Each benchmark is warmed up, then run in timed batches; time and, on
+ * HotSpot, allocated bytes are reported per operation.
+ *
+ * Run with ./gradlew :react-native-calendar-events-native:benchmark, optionally with
+ * -PbenchmarkFilter=rrule to run only benchmarks whose name contains the filter.
+ */
+public final class PureJavaBenchmarks {
+    private static final long WARMUP_NANOS = 500_000_000L;
+    private static final long MEASURE_NANOS = 1_000_000_000L;
+
+    interface Benchmark {
+        long run(int iteration);
+    }
+
+    // Consumes results so the JIT can't drop the measured work
+    private static volatile long sink;
+
+    // Stand-in for the module's original shared static formatter, one instance per thread
+    private static final ThreadLocal<SimpleDateFormat> SIMPLE_DATE_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            return format;
+        }
+    };
+
+    private PureJavaBenchmarks() {
+    }
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+
+        final String[] dates = new String[1024];
+        final long[] millis = new long[dates.length];
+        Random random = new Random(42);
+        for (int i = 0; i < dates.length; i++) {
+            millis[i] = 946684800000L + (long) (random.nextDouble() * 1_600_000_000_000L);
+            dates[i] = Iso8601.format(millis[i]);
+        }
+
+        final String[] rules = new String[] {
+            "FREQ=WEEKLY;BYDAY=MO,WE,FR",
+            "FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1",
+            "FREQ=YEARLY;BYMONTH=11;BYDAY=4TH",
+            "FREQ=DAILY;INTERVAL=2;UNTIL=20301231T000000Z"
+        };
+        final TimeZone zone = TimeZone.getTimeZone("Europe/London");
+        final long dtstart = Iso8601.parse("2024-01-01T09:00:00Z");
+
+        final List<long[]> intervals = randomIntervals(random, 10_000);
+        final IntervalTree<long[]> tree = new IntervalTree<>(intervals, LONG_PAIR_BOUNDS);
+
+        run(filter, "iso8601.parse", i -> Iso8601.parse(dates[i & 1023]));
+        run(filter, "iso8601.format", i -> Iso8601.format(millis[i & 1023]).length());
+        run(filter, "iso8601.parse.sdf", i -> {
+            try {
+                return SIMPLE_DATE_FORMAT.get().parse(dates[i & 1023]).getTime();
+            } catch (ParseException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        run(filter, "iso8601.format.sdf", i -> SIMPLE_DATE_FORMAT.get().format(new Date(millis[i & 1023])).length());
+        run(filter, "rrule.compile.cached", i -> RRule.compile(rules[i & 3]).interval);
+        // Distinct INTERVALs outnumber the compile cache, so every call misses it
+        run(filter, "rrule.compile.cold", i -> RRule.compile(rules[i & 3] + ";INTERVAL=" + (i % 1000 + 1)).interval);
+        run(filter, "rrule.expand.100", i -> {
+            RRule.Occurrences occurrences = RRule.compile(rules[i & 3]).expand(dtstart, zone);
+            long last = 0;
+            for (int n = 0; n < 100 && occurrences.hasNext(); n++) {
+                last = occurrences.next();
+            }
+            return last;
+        });
+        run(filter, "intervaltree.build.10k", i -> new IntervalTree<>(intervals, LONG_PAIR_BOUNDS).size());
+        run(filter, "intervaltree.query.10k", i -> {
+            List<long[]> out = new ArrayList<>();
+            long from = (i * 7919L) % 86_400_000L * 30;
+            tree.query(from, from + 3_600_000L, out);
+            return out.size();
+        });
+        run(filter, "freebusy.sweep.10k", i -> {
+            FreeBusy freeBusy = new FreeBusy(0, 30L * 86_400_000L);
+            for (long[] interval : intervals) {
+                freeBusy.add(interval[0], interval[1], (interval[0] & 1) == 0);
+            }
+            List<FreeBusy.Interval> busy = freeBusy.busy();
+            return busy.size() + freeBusy.free(busy, 1_800_000L).size();
+        });
+    }
+
+    private static final IntervalTree.Bounds<long[]> LONG_PAIR_BOUNDS = new IntervalTree.Bounds<long[]>() {
+        @Override
+        public long start(long[] item) {
+            return item[0];
+        }
+
+        @Override
+        public long end(long[] item) {
+            return item[1];
+        }
+    };
+
+    /** Intervals of 15 minutes to 3 hours spread over 30 days. */
+    private static List<long[]> randomIntervals(Random random, int count) {
+        List<long[]> intervals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start = (long) (random.nextDouble() * 30 * 86_400_000L);
+            intervals.add(new long[] { start, start + 900_000L * (1 + random.nextInt(12)) });
+        }
+        return intervals;
+    }
+
+    private static void run(String filter, String name, Benchmark benchmark) {
+        if (!name.contains(filter)) {
+            return;
+        }
+
+        int iteration = 0;
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            sink += benchmark.run(iteration++);
+        }
+
+        long operations = 0;
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 64; i++) {
+                sink += benchmark.run(iteration++);
+            }
+            operations += 64;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        System.out.println(String.format("%-26s %12.1f ns/op %12s", name, (double) elapsed / operations,
+            allocatedBefore < 0 ? "n/a" : String.format("%.1f B/op", (double) allocated / operations)));
+    }
+
+    /** Bytes allocated by this thread so far, or -1 when the JVM can't tell. */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        try {
+            // Extension interface present on HotSpot-based JVMs
+            Method method = Class.forName("com.sun.management.ThreadMXBean")
+                .getMethod("getThreadAllocatedBytes", long.class);
+            return (Long) method.invoke(threads, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.calendarevents;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.provider.CalendarContract;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the provider operations for a list of items and applies them through
+ * ContentResolver.applyBatch in chunks of at most MAX_OPERATIONS operations. An item's
+ * operations never straddle two chunks, so back-references to the item's primary
+ * operation stay valid. Chunks have no yield points, so each one is applied in a
+ * single provider transaction: it either commits completely or not at all. Other
+ * writers get the lock between chunks, and MAX_OPERATIONS bounds how long a chunk
+ * holds it.
+ *
+ * Results are tracked per item: either the ContentProviderResult of the item's
+ * primary operation or an error message. A chunk that fails to apply marks all
+ * of its items as failed, which is accurate because none of them were committed.
+ */
+final class BatchWriter {
+    static final int MAX_OPERATIONS = 250;
+
+    private final ContentResolver cr;
+    private final ContentProviderResult[] results;
+    private final String[] errors;
+
+    private final ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+    private final List<int[]> chunkItems = new ArrayList<>(); // { itemIndex, primary operation offset }
+
+    BatchWriter(ContentResolver cr, int itemCount) {
+        this.cr = cr;
+        this.results = new ContentProviderResult[itemCount];
+        this.errors = new String[itemCount];
+    }
+
+    /**
+     * Adds the primary operation of an item that will be followed by extraOperations
+     * more operations, and returns its index for withValueBackReference.
+     */
+    int startItem(int itemIndex, ContentProviderOperation.Builder primary, int extraOperations) {
+        if (!operations.isEmpty() && operations.size() + 1 + extraOperations > MAX_OPERATIONS) {
+            flush();
+        }
+
+        int offset = operations.size();
+        operations.add(primary.build());
+        chunkItems.add(new int[] { itemIndex, offset });
+        return offset;
+    }
+
+    void add(ContentProviderOperation operation) {
+        operations.add(operation);
+    }
+
+    void fail(int itemIndex, String message) {
+        errors[itemIndex] = message;
+    }
+
+    void finish() {
+        if (!operations.isEmpty()) {
+            flush();
+        }
+    }
+
+    @Nullable
+    ContentProviderResult result(int itemIndex) {
+        return results[itemIndex];
+    }
+
+    @Nullable
+    String error(int itemIndex) {
+        return errors[itemIndex];
+    }
+
+    private void flush() {
+        try {
+            ContentProviderResult[] applied = cr.applyBatch(CalendarContract.AUTHORITY, operations);
+            Metrics.countWrites(operations.size());
+            for (int[] item : chunkItems) {
+                results[item[0]] = applied[item[1]];
+            }
+        } catch (Exception e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            for (int[] item : chunkItems) {
+                errors[item[0]] = message;
+            }
+        } finally {
+            operations.clear();
+            chunkItems.clear();
+        }
+    }
+}
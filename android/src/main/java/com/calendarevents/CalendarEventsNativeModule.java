@@ -1,6 +1,8 @@
 package com.calendarevents;
 
 import android.Manifest;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentResolver;
 import android.content.ContentUris;
 import android.content.ContentValues;
@@ -9,11 +11,16 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.database.Cursor;
 import android.net.Uri;
+import android.os.CancellationSignal;
 import android.provider.CalendarContract;
+import android.provider.CalendarContract.Attendees;
 import android.provider.CalendarContract.Calendars;
 import android.provider.CalendarContract.Events;
+import android.provider.CalendarContract.ExtendedProperties;
+import android.provider.CalendarContract.Instances;
 import android.provider.CalendarContract.Reminders;
 import android.text.TextUtils;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -29,21 +36,94 @@ import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.module.annotations.ReactModule;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 
 @ReactModule(name = CalendarEventsNativeModule.NAME)
 public class CalendarEventsNativeModule extends ReactContextBaseJavaModule {
     public static final String NAME = "CalendarEventsNative";
-    private static final SimpleDateFormat ISO_8601_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+    public static final String EVENTS_CHUNK_EVENT = "CalendarEventsNative_eventsChunk";
+    public static final String EVENTS_CHANGED_EVENT = "CalendarEventsNative_eventsChanged";
+    public static final String ICS_PROGRESS_EVENT = "CalendarEventsNative_icsProgress";
+    // Keeps "IN (...)" selections well below SQLite's bound-argument limit (999 on older devices)
+    private static final int MAX_SELECTION_ARGS = 500;
+    private static final int DEFAULT_PREVIEW_LIMIT = 100;
     
-    static {
-        ISO_8601_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
-    }
+    private static final String[] CONFLICT_PROJECTION = new String[] {
+        Instances._ID,
+        Instances.EVENT_ID,
+        Instances.BEGIN,
+        Instances.END,
+        Instances.ALL_DAY,
+        Instances.AVAILABILITY,
+        Instances.TITLE
+    };
+    // Conflict windows are loaded a week beyond the queried slots so nearby checks reuse them
+    private static final long CONFLICT_WINDOW_PADDING = 7L * 24 * 60 * 60 * 1000;
+
+    private static final String[] FREE_BUSY_PROJECTION = new String[] {
+        Instances.BEGIN,
+        Instances.END,
+        Instances.AVAILABILITY,
+        Instances.ALL_DAY
+    };
+    private static final String[] DAY_COUNT_PROJECTION = new String[] {
+        Instances.BEGIN,
+        Instances.END,
+        Instances.ALL_DAY
+    };
+    private static final String[] UPCOMING_PROJECTION = new String[] {
+        Instances.EVENT_ID,
+        Instances.BEGIN,
+        Instances.END
+    };
+    // fetchUpcomingEvents widens its Instances window through these spans until it has enough occurrences
+    private static final long[] UPCOMING_WINDOW_DAYS = new long[] { 1, 7, 31, 92, 366 };
+    private static final int MAX_UPCOMING_LIMIT = 100;
+    private static final int MAX_PREVIEW_LIMIT = 10000;
+    private static final int MAX_SEARCH_LIMIT = 1000;
+    // Events parsed and written per applyBatch round during .ics import
+    private static final int ICS_IMPORT_CHUNK = 100;
+    private static final int ICS_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String[] INSTANCE_PROJECTION = new String[] {
+        Instances._ID,
+        Instances.EVENT_ID,
+        Instances.BEGIN,
+        Instances.END,
+        Instances.ALL_DAY
+    };
+
+    private final ProviderExecutor executor = new ProviderExecutor();
+    private final EventCache eventCache = new EventCache(EventCache.DEFAULT_MAX_BYTES);
+    private final MonthBuckets monthBuckets = new MonthBuckets(MonthBuckets.DEFAULT_MAX_BYTES);
+    private final CalendarRegistry calendarRegistry = new CalendarRegistry();
+    private final ConflictIndex conflictIndex = new ConflictIndex();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final Metrics metrics = new Metrics();
+    @Nullable private ProviderObserver providerObserver;
+    @Nullable private ProviderObserver calendarObserver;
+    @Nullable private EventChangeFeed changeFeed;
 
     public CalendarEventsNativeModule(ReactApplicationContext reactContext) {
         super(reactContext);
@@ -55,6 +135,24 @@ public class CalendarEventsNativeModule extends ReactContextBaseJavaModule {
         return NAME;
     }
 
+    @Override
+    public void invalidate() {
+        executor.shutdown();
+        monthBuckets.shutdown();
+        synchronized (this) {
+            if (providerObserver != null) {
+                providerObserver.close();
+            }
+            if (calendarObserver != null) {
+                calendarObserver.close();
+            }
+            if (changeFeed != null) {
+                changeFeed.close();
+            }
+        }
+        super.invalidate();
+    }
+
     // Permission methods
     @ReactMethod
     public void requestPermissions(boolean writeOnly, Promise promise) {
@@ -64,7 +162,72 @@ public class CalendarEventsNativeModule extends ReactContextBaseJavaModule {
     }
 
     @ReactMethod
-    public void checkPermissions(boolean writeOnly, Promise promise) {
+    public void checkPermissions(boolean writeOnly, Promise untracked) {
+        final Promise promise = metrics.track("checkPermissions", untracked);
+        promise.resolve(permissionStatus(writeOnly));
+    }
+
+    // Synchronous reads: answered from memory on the JS thread, never touching the provider
+
+    /**
+     * checkPermissions without the promise round trip; permission checks are in-memory
+     * lookups in the package manager.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public String checkPermissionsSync(boolean writeOnly) {
+        return permissionStatus(writeOnly);
+    }
+
+    /**
+     * The calendars fetchAllCalendars would return, or null while the registry is cold
+     * (before the first fetch, or after a calendar change).
+     */
+    @Nullable
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableArray getCachedCalendars() {
+        List<CalendarRegistry.CalendarInfo> calendars = calendarRegistry.cachedCalendars();
+        return calendars != null ? serializeCalendars(calendars) : null;
+    }
+
+    /**
+     * The events fetchAllEvents would resolve with the same arguments, if they can be
+     * served from the window cache (options.cache) or the month buckets
+     * (options.prefetch); null otherwise. Always in the objects format, since
+     * synchronous methods return a single map or array type. Arguments fetchAllEvents
+     * would reject (a malformed date, an unknown field or format) also give null
+     * rather than throwing into JS from a blocking call.
+     */
+    @Nullable
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableArray getCachedEvents(String startDate, String endDate, ReadableArray calendarIds,
+                                  @Nullable ReadableMap options) {
+        long startMillis;
+        long endMillis;
+        EventFields fields;
+        try {
+            startMillis = parseDate(startDate);
+            endMillis = parseDate(endDate);
+            fields = EventFields.from(options);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        String format = hasValue(options, "format") ? options.getString("format") : "objects";
+        if (!"objects".equals(format) && !"columnar".equals(format)) {
+            return null;
+        }
+        String[] ids = toStringArray(calendarIds);
+
+        List<EventRecord> events = null;
+        if (options != null && options.hasKey("cache") && options.getBoolean("cache")) {
+            events = eventCache.get(EventCache.key(startMillis, endMillis, ids, fields.key()));
+        }
+        if (events == null && options != null && options.hasKey("prefetch") && options.getBoolean("prefetch")) {
+            events = monthBuckets.peek(startMillis, endMillis, MonthBuckets.scope(ids, fields));
+        }
+        return events != null ? serializeEvents(events, fields) : null;
+    }
+
+    private String permissionStatus(boolean writeOnly) {
         Context context = getReactApplicationContext();
         boolean hasReadPermission = ContextCompat.checkSelfPermission(context, 
             Manifest.permission.READ_CALENDAR) == PackageManager.PERMISSION_GRANTED;
@@ -72,423 +235,2272 @@ public class CalendarEventsNativeModule extends ReactContextBaseJavaModule {
             Manifest.permission.WRITE_CALENDAR) == PackageManager.PERMISSION_GRANTED;
         
         if (writeOnly) {
-            promise.resolve(hasWritePermission ? "granted" : "denied");
-        } else {
-            promise.resolve(hasReadPermission && hasWritePermission ? "granted" : "denied");
+            return hasWritePermission ? "granted" : "denied";
         }
+        return hasReadPermission && hasWritePermission ? "granted" : "denied";
+    }
+
+    /**
+     * Cancels a pending read started with options.requestId (or a stream's id).
+     * The cancelled call rejects with REQUEST_CANCELLED. Resolves false when the
+     * request has already finished.
+     */
+    @ReactMethod
+    public void cancelRequest(String requestId, Promise untracked) {
+        final Promise promise = metrics.track("cancelRequest", untracked);
+        promise.resolve(executor.cancel(requestId));
+    }
+
+    /**
+     * Starts or stops collecting per-method metrics. Collected metrics are kept when
+     * collection stops.
+     */
+    @ReactMethod
+    public void setMetricsEnabled(boolean enabled, Promise promise) {
+        metrics.setEnabled(enabled);
+        promise.resolve(null);
+    }
+
+    @ReactMethod
+    public void getMetrics(Promise promise) {
+        promise.resolve(metrics.toMap());
+    }
+
+    @ReactMethod
+    public void resetMetrics(Promise promise) {
+        metrics.reset();
+        promise.resolve(null);
     }
 
     // Calendar methods
     @ReactMethod
-    public void fetchAllCalendars(Promise promise) {
-        ContentResolver cr = getReactApplicationContext().getContentResolver();
-        
-        String[] projection = new String[] {
-            Calendars._ID,
-            Calendars.CALENDAR_DISPLAY_NAME,
-            Calendars.ACCOUNT_NAME,
-            Calendars.ACCOUNT_TYPE,
-            Calendars.IS_PRIMARY,
-            Calendars.CALENDAR_COLOR,
-            Calendars.CALENDAR_ACCESS_LEVEL
-        };
-        
-        Cursor cursor = cr.query(Calendars.CONTENT_URI, projection, null, null, null);
-        WritableArray calendars = Arguments.createArray();
-        
-        if (cursor != null) {
-            while (cursor.moveToNext()) {
-                WritableMap calendar = Arguments.createMap();
-                calendar.putString("id", cursor.getString(0));
-                calendar.putString("title", cursor.getString(1));
-                calendar.putString("source", cursor.getString(2));
-                calendar.putString("type", cursor.getString(3));
-                calendar.putBoolean("isPrimary", cursor.getInt(4) == 1);
-                calendar.putString("color", String.format("#%06X", (0xFFFFFF & cursor.getInt(5))));
-                calendar.putBoolean("allowsModifications", 
-                    cursor.getInt(6) >= CalendarContract.Calendars.CAL_ACCESS_CONTRIBUTOR);
+    public void fetchAllCalendars(Promise untracked) {
+        final Promise promise = metrics.track("fetchAllCalendars", untracked);
+        executor.read(null, promise, signal -> {
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            promise.resolve(serializeCalendars(calendarRegistry().calendars(cr, signal)));
+        });
+    }
+
+    @ReactMethod
+    public void findOrCreateCalendar(final ReadableMap calendarMap, Promise untracked) {
+        final Promise promise = metrics.track("findOrCreateCalendar", untracked);
+        write(promise, signal -> {
+            String title = calendarMap.hasKey("title") ? calendarMap.getString("title") : "Calendar";
+
+            // First, try to find existing calendar
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            CalendarRegistry.CalendarInfo existing = calendarRegistry().findByDisplayName(cr, title);
+
+            if (existing != null) {
+                WritableMap result = Arguments.createMap();
+                result.putString("id", String.valueOf(existing.id));
+                result.putString("title", existing.displayName);
+                result.putString("source", "local");
+                result.putString("type", "local");
+                result.putBoolean("isPrimary", false);
+                result.putBoolean("allowsModifications", true);
+
+                promise.resolve(result);
+                return;
+            }
+
+            // Create new calendar
+            ContentValues values = new ContentValues();
+            values.put(Calendars.ACCOUNT_NAME, "CalendarEventsNative");
+            values.put(Calendars.ACCOUNT_TYPE, CalendarContract.ACCOUNT_TYPE_LOCAL);
+            values.put(Calendars.NAME, title);
+            values.put(Calendars.CALENDAR_DISPLAY_NAME, title);
+            values.put(Calendars.CALENDAR_ACCESS_LEVEL, Calendars.CAL_ACCESS_OWNER);
+            values.put(Calendars.OWNER_ACCOUNT, "CalendarEventsNative");
+            values.put(Calendars.VISIBLE, 1);
+            values.put(Calendars.SYNC_EVENTS, 1);
+
+            if (calendarMap.hasKey("color")) {
+                String colorHex = calendarMap.getString("color");
+                int color = (int) Long.parseLong(colorHex.replace("#", ""), 16);
+                values.put(Calendars.CALENDAR_COLOR, color);
+            }
+
+            Uri.Builder builder = Calendars.CONTENT_URI.buildUpon();
+            builder.appendQueryParameter(CalendarContract.CALLER_IS_SYNCADAPTER, "true");
+            builder.appendQueryParameter(Calendars.ACCOUNT_NAME, "CalendarEventsNative");
+            builder.appendQueryParameter(Calendars.ACCOUNT_TYPE, CalendarContract.ACCOUNT_TYPE_LOCAL);
+
+            Uri uri = cr.insert(builder.build(), values);
+            Metrics.countWrites(1);
+            calendarRegistry.invalidate();
+            if (uri != null) {
+                String calendarId = uri.getLastPathSegment();
+
+                WritableMap result = Arguments.createMap();
+                result.putString("id", calendarId);
+                result.putString("title", title);
+                result.putString("source", "local");
+                result.putString("type", "local");
+                result.putBoolean("isPrimary", false);
+                result.putBoolean("allowsModifications", true);
                 
-                WritableArray availabilities = Arguments.createArray();
-                availabilities.pushString("busy");
-                availabilities.pushString("free");
-                calendar.putArray("allowedAvailabilities", availabilities);
+                if (calendarMap.hasKey("color")) {
+                    result.putString("color", calendarMap.getString("color"));
+                }
                 
-                calendars.pushMap(calendar);
+                promise.resolve(result);
+            } else {
+                promise.reject("CALENDAR_CREATION_FAILED", "Failed to create calendar");
+            }
+        });
+    }
+
+    @ReactMethod
+    public void removeCalendar(final String calendarId, Promise untracked) {
+        final Promise promise = metrics.track("removeCalendar", untracked);
+        write(promise, signal -> {
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            Uri uri = ContentUris.withAppendedId(Calendars.CONTENT_URI, Long.parseLong(calendarId));
+            int rows = cr.delete(uri, null, null);
+            Metrics.countWrites(1);
+            calendarRegistry.invalidate();
+            promise.resolve(rows > 0);
+        });
+    }
+
+    // Event methods
+    @ReactMethod
+    public void fetchAllEvents(final String startDate, final String endDate, final ReadableArray calendarIds,
+                               @Nullable final ReadableMap options, Promise untracked) {
+        final Promise promise = metrics.track("fetchAllEvents", untracked);
+        executor.read(requestId(options), promise, signal -> {
+            long startMillis = parseDate(startDate);
+            long endMillis = parseDate(endDate);
+            EventFields fields = EventFields.from(options);
+
+            // options.cache opts into serving repeat windows from memory
+            String cacheKey = null;
+            long cacheGeneration = 0;
+            if (options != null && options.hasKey("cache") && options.getBoolean("cache")) {
+                observeProvider(eventCache);
+                cacheKey = EventCache.key(startMillis, endMillis, toStringArray(calendarIds), fields.key());
+                List<EventRecord> cached = eventCache.get(cacheKey);
+                if (cached != null) {
+                    promise.resolve(serializeResult(cached, fields, options));
+                    return;
+                }
+                cacheGeneration = eventCache.generation();
+            }
+
+            // options.prefetch serves the window from month buckets and loads its neighbours
+            List<EventRecord> events;
+            if (options != null && options.hasKey("prefetch") && options.getBoolean("prefetch")) {
+                observeProvider(monthBuckets);
+                final String[] ids = toStringArray(calendarIds);
+                final EventFields bucketFields = fields.withColumns(EventFields.START_DATE);
+                MonthBuckets.Loader loader = (start, end, loadSignal) -> queryWindow(start, end, ids, bucketFields, loadSignal);
+                String scope = MonthBuckets.scope(ids, fields);
+                events = monthBuckets.get(startMillis, endMillis, scope, loader, signal);
+                monthBuckets.prefetch(startMillis, endMillis, scope, loader);
+            } else {
+                events = queryWindow(startMillis, endMillis, toStringArray(calendarIds), fields, signal);
+            }
+
+            if (cacheKey != null) {
+                eventCache.put(cacheKey, events, cacheGeneration);
+            }
+            promise.resolve(serializeResult(events, fields, options));
+        });
+    }
+
+    /**
+     * Starts reporting changes to the window as EVENTS_CHANGED_EVENT events
+     * ({ subscriptionId, added, changed, removed }) instead of requiring a refetch.
+     * Provider notifications are debounced, then the window is re-read and compared
+     * against per-event fingerprints; only differences are sent. Resolves with the
+     * number of events currently in the window. Reusing an id replaces the old window.
+     */
+    @ReactMethod
+    public void subscribeToChanges(final String subscriptionId, final String startDate, final String endDate,
+                                   final ReadableArray calendarIds, Promise untracked) {
+        final Promise promise = metrics.track("subscribeToChanges", untracked);
+        executor.read(null, promise, signal -> {
+            long startMillis = parseDate(startDate);
+            long endMillis = parseDate(endDate);
+            String[] calendars = toStringArray(calendarIds);
+            if (calendars != null) {
+                // Fail here rather than on every later diff
+                calendarSelection(Events.CALENDAR_ID, calendars);
+            }
+
+            // Register and observe before the initial read so changes made during it still
+            // trigger a diff; the lock keeps a concurrent unsubscribe from seeing an empty feed
+            EventChangeFeed feed;
+            EventChangeFeed.Subscription subscription;
+            synchronized (this) {
+                feed = changeFeed();
+                subscription = feed.add(subscriptionId, startMillis, endMillis, calendars);
+                observeProvider(feed);
+            }
+            try {
+                promise.resolve(feed.load(subscription));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    if (feed.unsubscribe(subscriptionId, subscription)) {
+                        stopObservingIfEmpty(feed);
+                    }
+                }
+                throw e;
+            }
+        });
+    }
+
+    @ReactMethod
+    public void unsubscribeFromChanges(String subscriptionId, Promise untracked) {
+        final Promise promise = metrics.track("unsubscribeFromChanges", untracked);
+        boolean removed;
+        synchronized (this) {
+            removed = changeFeed != null && changeFeed.unsubscribe(subscriptionId);
+            if (removed) {
+                stopObservingIfEmpty(changeFeed);
             }
-            cursor.close();
         }
-        
-        promise.resolve(calendars);
+        promise.resolve(removed);
     }
 
+    /** Call with the module lock held, which subscribeToChanges also registers under. */
+    private void stopObservingIfEmpty(EventChangeFeed feed) {
+        if (feed.isEmpty() && providerObserver != null) {
+            providerObserver.removeListener(feed);
+        }
+    }
+
+    /**
+     * Returns up to pageSize events ordered by (DTSTART, _ID) and a nextPageToken for
+     * the following page, or null once the range is exhausted. The token encodes the
+     * last (DTSTART, _ID) pair, so pages stay stable while rows are added or removed.
+     */
     @ReactMethod
-    public void findOrCreateCalendar(ReadableMap calendarMap, Promise promise) {
-        String title = calendarMap.hasKey("title") ? calendarMap.getString("title") : "Calendar";
-        
-        // First, try to find existing calendar
-        ContentResolver cr = getReactApplicationContext().getContentResolver();
-        String[] projection = new String[] { Calendars._ID, Calendars.CALENDAR_DISPLAY_NAME };
-        Cursor cursor = cr.query(Calendars.CONTENT_URI, projection, 
-            Calendars.CALENDAR_DISPLAY_NAME + " = ?", new String[] { title }, null);
-        
-        if (cursor != null && cursor.moveToFirst()) {
-            String calendarId = cursor.getString(0);
-            String displayName = cursor.getString(1);
-            cursor.close();
-            
-            WritableMap result = Arguments.createMap();
-            result.putString("id", calendarId);
-            result.putString("title", displayName);
-            result.putString("source", "local");
-            result.putString("type", "local");
-            result.putBoolean("isPrimary", false);
-            result.putBoolean("allowsModifications", true);
-            
-            promise.resolve(result);
+    public void fetchEventsPage(final String startDate, final String endDate, final ReadableArray calendarIds,
+                                final int pageSize, @Nullable final String pageToken,
+                                @Nullable final ReadableMap options, Promise untracked) {
+        final Promise promise = metrics.track("fetchEventsPage", untracked);
+        if (pageSize <= 0) {
+            promise.reject("INVALID_PAGE_SIZE", "pageSize must be greater than 0");
             return;
         }
         
-        if (cursor != null) {
-            cursor.close();
+        final long[] position = TextUtils.isEmpty(pageToken) ? null : parsePageToken(pageToken);
+        if (!TextUtils.isEmpty(pageToken) && position == null) {
+            promise.reject("INVALID_PAGE_TOKEN", "Invalid page token: " + pageToken);
+            return;
         }
         
-        // Create new calendar
-        ContentValues values = new ContentValues();
-        values.put(Calendars.ACCOUNT_NAME, "CalendarEventsNative");
-        values.put(Calendars.ACCOUNT_TYPE, CalendarContract.ACCOUNT_TYPE_LOCAL);
-        values.put(Calendars.NAME, title);
-        values.put(Calendars.CALENDAR_DISPLAY_NAME, title);
-        values.put(Calendars.CALENDAR_ACCESS_LEVEL, Calendars.CAL_ACCESS_OWNER);
-        values.put(Calendars.OWNER_ACCOUNT, "CalendarEventsNative");
-        values.put(Calendars.VISIBLE, 1);
-        values.put(Calendars.SYNC_EVENTS, 1);
-        
-        if (calendarMap.hasKey("color")) {
-            String colorHex = calendarMap.getString("color");
-            int color = (int) Long.parseLong(colorHex.replace("#", ""), 16);
-            values.put(Calendars.CALENDAR_COLOR, color);
+        executor.read(requestId(options), promise, signal -> {
+            long startMillis = parseDate(startDate);
+            long endMillis = parseDate(endDate);
+            // The page token needs DTSTART even when startDate wasn't requested
+            EventFields fields = EventFields.from(options).withColumns(EventFields.START_DATE);
+
+            String selection = Events.DTSTART + " >= ? AND " + Events.DTSTART + " <= ?";
+            List<String> selectionArgs = new ArrayList<>(5);
+            selectionArgs.add(String.valueOf(startMillis));
+            selectionArgs.add(String.valueOf(endMillis));
+
+            if (position != null) {
+                selection += " AND (" + Events.DTSTART + " > ? OR (" + Events.DTSTART + " = ? AND "
+                    + Events._ID + " > ?))";
+                selectionArgs.add(String.valueOf(position[0]));
+                selectionArgs.add(String.valueOf(position[0]));
+                selectionArgs.add(String.valueOf(position[1]));
+            }
+
+            String calendarFilter = calendarSelection(Events.CALENDAR_ID, calendarIds);
+            if (calendarFilter != null) {
+                selection += " AND " + calendarFilter;
+            }
+
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            // Read one extra row to know whether another page follows
+            Cursor cursor = Metrics.query(cr, Events.CONTENT_URI, fields.projection, selection,
+                selectionArgs.toArray(new String[0]),
+                Events.DTSTART + " ASC, " + Events._ID + " ASC LIMIT " + (pageSize + 1), signal);
+
+            WritableMap page = Arguments.createMap();
+            String nextPageToken = null;
+
+            if (cursor != null) {
+                try {
+                    page.putArray("events", serializeEvents(readRows(cr, cursor, fields, pageSize, signal), fields));
+                    if (cursor.getCount() > pageSize) {
+                        // The cursor sits on the last row of this page
+                        nextPageToken = cursor.getLong(fields.column(EventFields.START_DATE)) + "_" + cursor.getLong(0);
+                    }
+                } finally {
+                    cursor.close();
+                }
+            } else {
+                page.putArray("events", Arguments.createArray());
+            }
+
+            page.putString("nextPageToken", nextPageToken);
+            promise.resolve(page);
+        });
+    }
+
+    /**
+     * Streams the range to JS as EVENTS_CHUNK_EVENT events of up to chunkSize events
+     * each ({ streamId, events }) while the cursor is read, then resolves with the
+     * total number of events sent. The stream can be stopped with cancelRequest(streamId).
+     */
+    @ReactMethod
+    public void streamEvents(final String streamId, final String startDate, final String endDate,
+                             final ReadableArray calendarIds, final int chunkSize, Promise untracked) {
+        final Promise promise = metrics.track("streamEvents", untracked);
+        if (chunkSize <= 0) {
+            promise.reject("INVALID_CHUNK_SIZE", "chunkSize must be greater than 0");
+            return;
         }
         
-        Uri.Builder builder = Calendars.CONTENT_URI.buildUpon();
-        builder.appendQueryParameter(CalendarContract.CALLER_IS_SYNCADAPTER, "true");
-        builder.appendQueryParameter(Calendars.ACCOUNT_NAME, "CalendarEventsNative");
-        builder.appendQueryParameter(Calendars.ACCOUNT_TYPE, CalendarContract.ACCOUNT_TYPE_LOCAL);
-        
-        Uri uri = cr.insert(builder.build(), values);
-        if (uri != null) {
-            String calendarId = uri.getLastPathSegment();
+        executor.read(streamId, promise, signal -> {
+            long startMillis = parseDate(startDate);
+            long endMillis = parseDate(endDate);
+
+            String selection = Events.DTSTART + " >= ? AND " + Events.DTSTART + " <= ?";
+            String calendarFilter = calendarSelection(Events.CALENDAR_ID, calendarIds);
+            if (calendarFilter != null) {
+                selection += " AND " + calendarFilter;
+            }
+            String[] selectionArgs = new String[] { String.valueOf(startMillis), String.valueOf(endMillis) };
+
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            Cursor cursor = Metrics.query(cr, Events.CONTENT_URI, EventFields.DEFAULT.projection, selection, selectionArgs,
+                Events.DTSTART + " ASC, " + Events._ID + " ASC", signal);
+            int total = 0;
+
+            if (cursor != null) {
+                try {
+                    int size;
+                    do {
+                        WritableArray events = serializeEvents(
+                            readRows(cr, cursor, EventFields.DEFAULT, chunkSize, signal), EventFields.DEFAULT);
+                        size = events.size();
+                        if (size > 0) {
+                            total += size;
+
+                            WritableMap chunk = Arguments.createMap();
+                            chunk.putString("streamId", streamId);
+                            chunk.putArray("events", events);
+                            emit(EVENTS_CHUNK_EVENT, chunk);
+                        }
+                    } while (size == chunkSize);
+                } finally {
+                    cursor.close();
+                }
+            }
+
+            promise.resolve(total);
+        });
+    }
+
+    // Required by NativeEventEmitter
+    @ReactMethod
+    public void addListener(String eventName) {
+    }
+
+    @ReactMethod
+    public void removeListeners(double count) {
+    }
+
+    /**
+     * Expands the window through CalendarContract.Instances, so recurring series that
+     * started before startDate are included. Resolves { occurrences, events }: one
+     * occurrence per instance (id, eventId, startDate, endDate, allDay) and one entry
+     * per parent event, keyed by event id, carrying the shared recurrence and alarms.
+     */
+    @ReactMethod
+    public void fetchEventOccurrences(final String startDate, final String endDate, final ReadableArray calendarIds,
+                                      @Nullable final ReadableMap options, Promise untracked) {
+        final Promise promise = metrics.track("fetchEventOccurrences", untracked);
+        executor.read(requestId(options), promise, signal -> {
+            long startMillis = parseDate(startDate);
+            long endMillis = parseDate(endDate);
+            EventFields fields = EventFields.from(options);
+
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+
+            Uri.Builder builder = Instances.CONTENT_URI.buildUpon();
+            ContentUris.appendId(builder, startMillis);
+            ContentUris.appendId(builder, endMillis);
+
+            Cursor cursor = Metrics.query(cr, builder.build(), INSTANCE_PROJECTION,
+                calendarSelection(Instances.CALENDAR_ID, calendarIds), null,
+                Instances.BEGIN + " ASC, " + Instances.EVENT_ID + " ASC", signal);
+            WritableArray occurrences = Arguments.createArray();
+            List<Long> eventIds = new ArrayList<>();
+
+            if (cursor != null) {
+                try {
+                    Map<Long, Boolean> seen = new HashMap<>();
+                    while (cursor.moveToNext()) {
+                        long eventId = cursor.getLong(1);
+
+                        WritableMap occurrence = Arguments.createMap();
+                        occurrence.putString("id", cursor.getString(0));
+                        occurrence.putString("eventId", String.valueOf(eventId));
+                        occurrence.putString("startDate", formatDate(cursor.getLong(2)));
+                        occurrence.putString("endDate", formatDate(cursor.getLong(3)));
+                        occurrence.putBoolean("allDay", cursor.getInt(4) == 1);
+                        occurrences.pushMap(occurrence);
+
+                        if (seen.put(eventId, Boolean.TRUE) == null) {
+                            eventIds.add(eventId);
+                        }
+                    }
+                } finally {
+                    cursor.close();
+                }
+            }
             
             WritableMap result = Arguments.createMap();
-            result.putString("id", calendarId);
-            result.putString("title", title);
-            result.putString("source", "local");
-            result.putString("type", "local");
-            result.putBoolean("isPrimary", false);
-            result.putBoolean("allowsModifications", true);
+            result.putArray("occurrences", occurrences);
+            result.putMap("events", loadEvents(cr, eventIds, fields, signal));
+            promise.resolve(result);
+        });
+    }
+
+    /**
+     * Merges the busy and tentative time in the window (recurring instances included)
+     * natively and resolves { busy: [{ startDate, endDate, tentative }], free: [{ startDate,
+     * endDate }] }. Only begin, end, availability and all-day flags are read; free and
+     * cancelled events are ignored. options: minFreeMinutes (shortest free slot to
+     * report, default 0), includeAllDay (default false) and requestId.
+     */
+    @ReactMethod
+    public void getFreeBusy(final String startDate, final String endDate, final ReadableArray calendarIds,
+                            @Nullable final ReadableMap options, Promise untracked) {
+        final Promise promise = metrics.track("getFreeBusy", untracked);
+        executor.read(requestId(options), promise, signal -> {
+            long startMillis = parseDate(startDate);
+            long endMillis = parseDate(endDate);
+            long minFreeMillis = hasValue(options, "minFreeMinutes")
+                ? (long) (options.getDouble("minFreeMinutes") * 60000) : 0;
+            boolean includeAllDay = hasValue(options, "includeAllDay") && options.getBoolean("includeAllDay");
             
-            if (calendarMap.hasKey("color")) {
-                result.putString("color", calendarMap.getString("color"));
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            Uri.Builder builder = Instances.CONTENT_URI.buildUpon();
+            ContentUris.appendId(builder, startMillis);
+            ContentUris.appendId(builder, endMillis);
+
+            String selection = Instances.AVAILABILITY + " != " + Events.AVAILABILITY_FREE
+                + " AND (" + Instances.STATUS + " IS NULL OR " + Instances.STATUS + " != " + Events.STATUS_CANCELED + ")";
+            if (!includeAllDay) {
+                selection += " AND " + Instances.ALL_DAY + " = 0";
+            }
+            String calendarFilter = calendarSelection(Instances.CALENDAR_ID, calendarIds);
+            if (calendarFilter != null) {
+                selection += " AND " + calendarFilter;
+            }
+
+            Cursor cursor = Metrics.query(cr, builder.build(), FREE_BUSY_PROJECTION, selection, null,
+                Instances.BEGIN + " ASC", signal);
+            FreeBusy freeBusy = new FreeBusy(startMillis, endMillis);
+
+            if (cursor != null) {
+                try {
+                    TimeZone zone = TimeZone.getDefault();
+                    while (cursor.moveToNext()) {
+                        long begin = cursor.getLong(0);
+                        long end = cursor.getLong(1);
+                        if (cursor.getInt(3) == 1) {
+                            // All-day instances are stored as UTC midnights; block the local day
+                            begin -= zone.getOffset(begin);
+                            end -= zone.getOffset(end);
+                        }
+                        freeBusy.add(begin, end, cursor.getInt(2) == Events.AVAILABILITY_TENTATIVE);
+                    }
+                } finally {
+                    cursor.close();
+                }
             }
             
+            List<FreeBusy.Interval> busy = freeBusy.busy();
+            WritableMap result = Arguments.createMap();
+            result.putArray("busy", serializeIntervals(busy, true));
+            result.putArray("free", serializeIntervals(freeBusy.free(busy, minFreeMillis), false));
             promise.resolve(result);
-        } else {
-            promise.reject("CALENDAR_CREATION_FAILED", "Failed to create calendar");
-        }
+        });
     }
 
+    /**
+     * Resolves the number of event instances (recurring ones included) touching each
+     * local day from startDate to endDate in timeZone (the device zone when null), as a
+     * plain array whose first entry is startDate's day. Only begin, end and the all-day
+     * flag are read, and no events are materialized. options: requestId.
+     */
     @ReactMethod
-    public void removeCalendar(String calendarId, Promise promise) {
-        ContentResolver cr = getReactApplicationContext().getContentResolver();
-        Uri uri = ContentUris.withAppendedId(Calendars.CONTENT_URI, Long.parseLong(calendarId));
-        int rows = cr.delete(uri, null, null);
-        promise.resolve(rows > 0);
+    public void countEventsByDay(final String startDate, final String endDate, final ReadableArray calendarIds,
+                                 @Nullable final String timeZone, @Nullable final ReadableMap options,
+                                 Promise untracked) {
+        final Promise promise = metrics.track("countEventsByDay", untracked);
+        executor.read(requestId(options), promise, signal -> {
+            long startMillis = parseDate(startDate);
+            long endMillis = parseDate(endDate);
+            TimeZone zone = TimeZone.getDefault();
+            if (timeZone != null) {
+                zone = TimeZone.getTimeZone(timeZone);
+                // getTimeZone returns GMT for ids it doesn't know
+                if (!zone.getID().equals(timeZone)) {
+                    throw new IllegalArgumentException("Unknown time zone: " + timeZone);
+                }
+            }
+            DayCounts days = new DayCounts(startMillis, endMillis, zone);
+
+            // Padded by a day so all-day instances, stored as UTC dates, are found in any zone
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            Uri.Builder builder = Instances.CONTENT_URI.buildUpon();
+            ContentUris.appendId(builder, startMillis - 86400000L);
+            ContentUris.appendId(builder, endMillis + 86400000L);
+
+            Cursor cursor = Metrics.query(cr, builder.build(), DAY_COUNT_PROJECTION,
+                calendarSelection(Instances.CALENDAR_ID, calendarIds), null, null, signal);
+            if (cursor != null) {
+                try {
+                    while (cursor.moveToNext()) {
+                        days.add(cursor.getLong(0), cursor.getLong(1), cursor.getInt(2) == 1);
+                    }
+                } finally {
+                    cursor.close();
+                }
+            }
+
+            WritableArray result = Arguments.createArray();
+            for (int count : days.counts()) {
+                result.pushInt(count);
+            }
+            promise.resolve(result);
+        });
     }
 
-    // Event methods
+    /**
+     * Resolves the next limit occurrences (recurring ones included) that have not ended
+     * by from (now when null), ordered by start, as events carrying the occurrence's
+     * dates. Cancelled events are skipped. Instances are queried with LIMIT in windows
+     * of 1, 7, 31, 92 and 366 days; each wider window only reads occurrences starting
+     * after the previous one, and reading stops once limit occurrences are found, so
+     * the cost follows limit rather than the number of events. options: fields, requestId.
+     */
     @ReactMethod
-    public void fetchAllEvents(String startDate, String endDate, ReadableArray calendarIds, Promise promise) {
-        long startMillis = parseDate(startDate);
-        long endMillis = parseDate(endDate);
-        
-        ContentResolver cr = getReactApplicationContext().getContentResolver();
-        
-        String selection = Events.DTSTART + " >= ? AND " + Events.DTSTART + " <= ?";
-        String[] selectionArgs = new String[] { String.valueOf(startMillis), String.valueOf(endMillis) };
-        
-        if (calendarIds != null && calendarIds.size() > 0) {
-            StringBuilder calendarSelection = new StringBuilder(" AND " + Events.CALENDAR_ID + " IN (");
-            for (int i = 0; i < calendarIds.size(); i++) {
-                if (i > 0) calendarSelection.append(",");
-                calendarSelection.append(calendarIds.getString(i));
-            }
-            calendarSelection.append(")");
-            selection += calendarSelection.toString();
+    public void fetchUpcomingEvents(final int limit, @Nullable final String from, final ReadableArray calendarIds,
+                                    @Nullable final ReadableMap options, Promise untracked) {
+        final Promise promise = metrics.track("fetchUpcomingEvents", untracked);
+        if (limit <= 0 || limit > MAX_UPCOMING_LIMIT) {
+            promise.reject("INVALID_LIMIT", "limit must be between 1 and " + MAX_UPCOMING_LIMIT);
+            return;
         }
         
-        String[] projection = new String[] {
-            Events._ID,
-            Events.TITLE,
-            Events.DESCRIPTION,
-            Events.DTSTART,
-            Events.DTEND,
-            Events.ALL_DAY,
-            Events.EVENT_LOCATION,
-            Events.CALENDAR_ID,
-            Events.AVAILABILITY,
-            Events.RRULE,
-            Events.CUSTOM_APP_URI
-        };
-        
-        Cursor cursor = cr.query(Events.CONTENT_URI, projection, selection, selectionArgs, null);
-        WritableArray events = Arguments.createArray();
-        
-        if (cursor != null) {
-            while (cursor.moveToNext()) {
-                WritableMap event = serializeEvent(cursor);
+        executor.read(requestId(options), promise, signal -> {
+            long fromMillis = from != null ? parseDate(from) : System.currentTimeMillis();
+            EventFields fields = EventFields.from(options);
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+
+            String filter = "(" + Instances.STATUS + " IS NULL OR " + Instances.STATUS + " != " + Events.STATUS_CANCELED + ")";
+            String calendarFilter = calendarSelection(Instances.CALENDAR_ID, calendarIds);
+            if (calendarFilter != null) {
+                filter += " AND " + calendarFilter;
+            }
+
+            List<long[]> occurrences = new ArrayList<>(limit); // { eventId, begin, end }
+            long windowStart = fromMillis;
+            for (int step = 0; step < UPCOMING_WINDOW_DAYS.length && occurrences.size() < limit; step++) {
+                long windowEnd = fromMillis + UPCOMING_WINDOW_DAYS[step] * 86400000L;
+                Uri.Builder builder = Instances.CONTENT_URI.buildUpon();
+                ContentUris.appendId(builder, windowStart);
+                ContentUris.appendId(builder, windowEnd);
+
+                // The first window also returns occurrences in progress; later ones only new starts
+                String selection = filter + " AND " + (step == 0
+                    ? Instances.END + " > " + fromMillis
+                    : Instances.BEGIN + " > " + windowStart);
+                int remaining = limit - occurrences.size();
+                Cursor cursor = Metrics.query(cr, builder.build(), UPCOMING_PROJECTION, selection, null,
+                    Instances.BEGIN + " ASC, " + Instances.EVENT_ID + " ASC LIMIT " + remaining, signal);
+                if (cursor != null) {
+                    try {
+                        while (occurrences.size() < limit && cursor.moveToNext()) {
+                            occurrences.add(new long[] { cursor.getLong(0), cursor.getLong(1), cursor.getLong(2) });
+                        }
+                    } finally {
+                        cursor.close();
+                    }
+                }
+                windowStart = windowEnd;
+            }
+
+            Set<Long> unique = new HashSet<>();
+            for (long[] occurrence : occurrences) {
+                unique.add(occurrence[0]);
+            }
+            Map<Long, EventRecord> records = loadRecords(cr, new ArrayList<>(unique), fields, signal);
+
+            WritableArray events = Arguments.createArray();
+            for (long[] occurrence : occurrences) {
+                EventRecord record = records.get(occurrence[0]);
+                if (record == null) {
+                    continue;
+                }
+                WritableMap event = serializeEvent(record, fields);
+                if (fields.has(EventFields.START_DATE)) event.putString("startDate", formatDate(occurrence[1]));
+                if (fields.has(EventFields.END_DATE)) event.putString("endDate", formatDate(occurrence[2]));
                 events.pushMap(event);
             }
-            cursor.close();
+            promise.resolve(events);
+        });
+    }
+
+    /**
+     * Full-text search over event titles, locations and notes, answered from a native
+     * trigram index that is brought up to date incrementally after calendar changes.
+     * Resolves up to limit events active in the range, best matches first; every query
+     * word must match. options: fields, requestId.
+     */
+    @ReactMethod
+    public void searchEvents(final String query, final String startDate, final String endDate,
+                             final ReadableArray calendarIds, final int limit, @Nullable final ReadableMap options,
+                             Promise untracked) {
+        final Promise promise = metrics.track("searchEvents", untracked);
+        if (limit <= 0 || limit > MAX_SEARCH_LIMIT) {
+            promise.reject("INVALID_LIMIT", "limit must be between 1 and " + MAX_SEARCH_LIMIT);
+            return;
         }
-        
-        promise.resolve(events);
+
+        executor.read(requestId(options), promise, signal -> {
+            long startMillis = parseDate(startDate);
+            long endMillis = parseDate(endDate);
+            EventFields fields = EventFields.from(options);
+            Set<Long> calendars = null;
+            if (calendarIds != null && calendarIds.size() > 0) {
+                calendars = new HashSet<>();
+                for (int i = 0; i < calendarIds.size(); i++) {
+                    calendars.add(Long.parseLong(calendarIds.getString(i)));
+                }
+            }
+
+            observeProvider(searchIndex);
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            List<SearchIndex.Match> matches = searchIndex.search(cr, query, startMillis, endMillis, calendars,
+                limit, signal);
+
+            List<Long> ids = new ArrayList<>(matches.size());
+            for (SearchIndex.Match match : matches) {
+                ids.add(match.eventId);
+            }
+            Map<Long, EventRecord> records = loadRecords(cr, ids, fields, signal);
+
+            WritableArray events = Arguments.createArray();
+            for (Long id : ids) {
+                EventRecord record = records.get(id);
+                if (record != null) {
+                    events.pushMap(serializeEvent(record, fields));
+                }
+            }
+            promise.resolve(events);
+        });
     }
 
+    /**
+     * Resolves the occurrences overlapping [startDate, endDate), answered from an
+     * in-memory interval tree over a padded window that is reused by later checks
+     * until the calendar provider changes. options: excludeEventId (the event being
+     * edited), includeFree and includeAllDay (both default false), requestId.
+     */
     @ReactMethod
-    public void findEventById(String eventId, Promise promise) {
-        ContentResolver cr = getReactApplicationContext().getContentResolver();
-        Uri uri = ContentUris.withAppendedId(Events.CONTENT_URI, Long.parseLong(eventId));
-        
-        String[] projection = new String[] {
-            Events._ID,
-            Events.TITLE,
-            Events.DESCRIPTION,
-            Events.DTSTART,
-            Events.DTEND,
-            Events.ALL_DAY,
-            Events.EVENT_LOCATION,
-            Events.CALENDAR_ID,
-            Events.AVAILABILITY,
-            Events.RRULE,
-            Events.CUSTOM_APP_URI
-        };
-        
-        Cursor cursor = cr.query(uri, projection, null, null, null);
-        
-        if (cursor != null && cursor.moveToFirst()) {
-            WritableMap event = serializeEvent(cursor);
-            cursor.close();
+    public void findConflicts(final String startDate, final String endDate, final ReadableArray calendarIds,
+                              @Nullable final ReadableMap options, Promise untracked) {
+        final Promise promise = metrics.track("findConflicts", untracked);
+        executor.read(requestId(options), promise, signal -> {
+            long startMillis = parseDate(startDate);
+            long endMillis = parseDate(endDate);
+            IntervalTree<ConflictIndex.Occurrence> tree =
+                conflictTree(toStringArray(calendarIds), startMillis, endMillis, signal);
+            promise.resolve(conflicts(tree, startMillis, endMillis, options));
+        });
+    }
+
+    /**
+     * findConflicts for many candidate slots ({ startDate, endDate }) at once, loading
+     * a single window. Resolves one array of conflicts per slot, in input order.
+     */
+    @ReactMethod
+    public void findConflictsBatch(final ReadableArray slots, final ReadableArray calendarIds,
+                                   @Nullable final ReadableMap options, Promise untracked) {
+        final Promise promise = metrics.track("findConflictsBatch", untracked);
+        executor.read(requestId(options), promise, signal -> {
+            long[] starts = new long[slots.size()];
+            long[] ends = new long[slots.size()];
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < slots.size(); i++) {
+                ReadableMap slot = slots.getMap(i);
+                starts[i] = parseDate(slot.getString("startDate"));
+                ends[i] = parseDate(slot.getString("endDate"));
+                min = Math.min(min, starts[i]);
+                max = Math.max(max, ends[i]);
+            }
+
+            WritableArray results = Arguments.createArray();
+            if (slots.size() == 0) {
+                promise.resolve(results);
+                return;
+            }
+
+            IntervalTree<ConflictIndex.Occurrence> tree = conflictTree(toStringArray(calendarIds), min, max, signal);
+            for (int i = 0; i < starts.length; i++) {
+                results.pushArray(conflicts(tree, starts[i], ends[i], options));
+            }
+            promise.resolve(results);
+        });
+    }
+
+    /**
+     * Expands an RRULE natively from startDate and resolves the occurrence start dates
+     * that fall inside window ({ startDate?, endDate?, limit?, timeZone? }). Expansion
+     * is lazy and stops at the window's end or after limit occurrences (default 100).
+     */
+    @ReactMethod
+    public void previewOccurrences(final String rule, final String startDate, @Nullable final ReadableMap window,
+                                   Promise untracked) {
+        final Promise promise = metrics.track("previewOccurrences", untracked);
+        executor.read(requestId(window), promise, signal -> {
+            long dtstart = parseDate(startDate);
+            long from = hasValue(window, "startDate") ? parseDate(window.getString("startDate")) : Long.MIN_VALUE;
+            long to = hasValue(window, "endDate") ? parseDate(window.getString("endDate")) : Long.MAX_VALUE;
+            int limit = hasValue(window, "limit") ? window.getInt("limit") : DEFAULT_PREVIEW_LIMIT;
+            if (limit <= 0 || limit > MAX_PREVIEW_LIMIT) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_PREVIEW_LIMIT);
+            }
+            TimeZone zone = TimeZone.getDefault();
+            if (hasValue(window, "timeZone")) {
+                String timeZone = window.getString("timeZone");
+                zone = TimeZone.getTimeZone(timeZone);
+                // getTimeZone returns GMT for ids it doesn't know
+                if (!zone.getID().equals(timeZone)) {
+                    throw new IllegalArgumentException("Unknown time zone: " + timeZone);
+                }
+            }
+
+            RRule.Occurrences occurrences = RRule.compile(rule).expand(dtstart, zone);
+            if (from != Long.MIN_VALUE) {
+                occurrences.skipTo(from);
+            }
+
+            WritableArray dates = Arguments.createArray();
+            int found = 0;
+            while (found < limit && occurrences.hasNext()) {
+                long occurrence = occurrences.next();
+                if (occurrence > to) {
+                    break;
+                }
+                if (occurrence >= from) {
+                    dates.pushString(formatDate(occurrence));
+                    found++;
+                }
+                if ((found & 0xff) == 0) {
+                    signal.throwIfCanceled();
+                }
+            }
+            promise.resolve(dates);
+        });
+    }
+
+    @ReactMethod
+    public void findEventById(final String eventId, @Nullable final ReadableMap options, Promise untracked) {
+        final Promise promise = metrics.track("findEventById", untracked);
+        executor.read(null, promise, signal -> {
+            EventFields fields = EventFields.from(options);
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            Uri uri = ContentUris.withAppendedId(Events.CONTENT_URI, Long.parseLong(eventId));
+
+            Cursor cursor = Metrics.query(cr, uri, fields.projection, null, null, null, signal);
+            if (cursor == null) {
+                promise.resolve(null);
+                return;
+            }
+
+            WritableMap event = null;
+            try {
+                if (cursor.moveToFirst()) {
+                    Map<Long, List<Integer>> reminders = fields.has(EventFields.ALARMS)
+                        ? loadReminders(cr, Collections.singletonList(cursor.getLong(0)), signal)
+                        : Collections.<Long, List<Integer>>emptyMap();
+                    event = serializeEvent(EventRecord.from(cursor, fields, reminders), fields);
+                }
+            } finally {
+                cursor.close();
+            }
             promise.resolve(event);
-        } else {
-            promise.resolve(null);
+        });
+    }
+
+    /**
+     * Looks up many events at once with chunked Events._ID IN (...) queries and one
+     * reminders query per chunk. Resolves one entry per input id, in input order,
+     * with null for ids that match no event.
+     */
+    @ReactMethod
+    public void findEventsByIds(final ReadableArray eventIds, @Nullable final ReadableMap options,
+                                Promise untracked) {
+        final Promise promise = metrics.track("findEventsByIds", untracked);
+        executor.read(requestId(options), promise, signal -> {
+            EventFields fields = EventFields.from(options);
+            long[] ids = new long[eventIds.size()];
+            Set<Long> unique = new HashSet<>();
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = Long.parseLong(eventIds.getString(i));
+                unique.add(ids[i]);
+            }
+
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            Map<Long, EventRecord> records = loadRecords(cr, new ArrayList<>(unique), fields, signal);
+
+            WritableArray events = Arguments.createArray();
+            for (long id : ids) {
+                EventRecord record = records.get(id);
+                if (record != null) {
+                    events.pushMap(serializeEvent(record, fields));
+                } else {
+                    events.pushNull();
+                }
+            }
+            promise.resolve(events);
+        });
+    }
+
+    /**
+     * Reads events with their reminders, attendees and extended properties. Each chunk
+     * of MAX_SELECTION_ARGS ids costs four provider queries whatever its size: the
+     * Events rows, then one EVENT_ID IN (...) query each on Reminders, Attendees and
+     * ExtendedProperties, grouped by event id. Resolves one entry per input id, in
+     * input order, with null for ids that match no event.
+     */
+    @ReactMethod
+    public void findEventDetails(final ReadableArray eventIds, @Nullable final ReadableMap options,
+                                 Promise untracked) {
+        final Promise promise = metrics.track("findEventDetails", untracked);
+        executor.read(requestId(options), promise, signal -> {
+            long[] ids = new long[eventIds.size()];
+            Set<Long> unique = new HashSet<>();
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = Long.parseLong(eventIds.getString(i));
+                unique.add(ids[i]);
+            }
+            List<Long> uniqueIds = new ArrayList<>(unique);
+
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            Map<Long, EventDetails> details = new HashMap<>();
+            for (int from = 0; from < uniqueIds.size(); from += MAX_SELECTION_ARGS) {
+                String[] selectionArgs = idArgs(uniqueIds, from, Math.min(from + MAX_SELECTION_ARGS, uniqueIds.size()));
+
+                Cursor cursor = queryByEventIds(cr, Events.CONTENT_URI, EventDetails.PROJECTION, Events._ID,
+                    selectionArgs, signal);
+                if (cursor == null) {
+                    continue;
+                }
+                try {
+                    while (cursor.moveToNext()) {
+                        EventDetails event = new EventDetails(cursor);
+                        details.put(event.id, event);
+                    }
+                } finally {
+                    cursor.close();
+                }
+
+                cursor = queryByEventIds(cr, Reminders.CONTENT_URI, EventDetails.REMINDER_PROJECTION,
+                    Reminders.EVENT_ID, selectionArgs, signal);
+                if (cursor != null) {
+                    try {
+                        while (cursor.moveToNext()) {
+                            EventDetails event = details.get(cursor.getLong(0));
+                            if (event != null) {
+                                event.addReminder(cursor);
+                            }
+                        }
+                    } finally {
+                        cursor.close();
+                    }
+                }
+
+                cursor = queryByEventIds(cr, Attendees.CONTENT_URI, EventDetails.ATTENDEE_PROJECTION,
+                    Attendees.EVENT_ID, selectionArgs, signal);
+                if (cursor != null) {
+                    try {
+                        while (cursor.moveToNext()) {
+                            EventDetails event = details.get(cursor.getLong(0));
+                            if (event != null) {
+                                event.addAttendee(cursor);
+                            }
+                        }
+                    } finally {
+                        cursor.close();
+                    }
+                }
+
+                cursor = queryByEventIds(cr, ExtendedProperties.CONTENT_URI, EventDetails.PROPERTY_PROJECTION,
+                    ExtendedProperties.EVENT_ID, selectionArgs, signal);
+                if (cursor != null) {
+                    try {
+                        while (cursor.moveToNext()) {
+                            EventDetails event = details.get(cursor.getLong(0));
+                            if (event != null) {
+                                event.addProperty(cursor);
+                            }
+                        }
+                    } finally {
+                        cursor.close();
+                    }
+                }
+            }
+
+            WritableArray events = Arguments.createArray();
+            for (long id : ids) {
+                EventDetails event = details.get(id);
+                if (event != null) {
+                    events.pushMap(serializeDetails(event));
+                } else {
+                    events.pushNull();
+                }
+            }
+            promise.resolve(events);
+        });
+    }
+
+    @Nullable
+    private static Cursor queryByEventIds(ContentResolver cr, Uri uri, String[] projection, String eventIdColumn,
+                                          String[] eventIds, @Nullable CancellationSignal signal) {
+        return Metrics.query(cr, uri, projection,
+            eventIdColumn + " IN (" + placeholders(eventIds.length) + ")",
+            eventIds,
+            null,
+            signal);
+    }
+
+    @ReactMethod
+    public void saveEvent(final ReadableMap eventMap, Promise untracked) {
+        final Promise promise = metrics.track("saveEvent", untracked);
+        write(promise, signal -> {
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            ContentValues values = new ContentValues();
+
+            applyEventProperties(eventMap, values);
+
+            // Set default calendar if not specified
+            if (!values.containsKey(Events.CALENDAR_ID)) {
+                values.put(Events.CALENDAR_ID, getDefaultCalendarId());
+            }
+
+            Uri uri = cr.insert(Events.CONTENT_URI, values);
+            Metrics.countWrites(1);
+            if (uri != null) {
+                String eventId = uri.getLastPathSegment();
+
+                // Add alarms if specified
+                if (eventMap.hasKey("alarms")) {
+                    ReadableArray alarms = eventMap.getArray("alarms");
+                    for (int i = 0; i < alarms.size(); i++) {
+                        ReadableMap alarm = alarms.getMap(i);
+                        addReminder(eventId, alarm);
+                    }
+                }
+
+                promise.resolve(eventId);
+            } else {
+                promise.reject("EVENT_SAVE_FAILED", "Failed to save event");
+            }
+        });
+    }
+
+    @ReactMethod
+    public void updateEvent(final String eventId, final ReadableMap eventMap, Promise untracked) {
+        final Promise promise = metrics.track("updateEvent", untracked);
+        write(promise, signal -> {
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            ContentValues values = new ContentValues();
+
+            applyEventProperties(eventMap, values);
+
+            Uri uri = ContentUris.withAppendedId(Events.CONTENT_URI, Long.parseLong(eventId));
+            int rows = cr.update(uri, values, null, null);
+            Metrics.countWrites(1);
+
+            if (rows > 0) {
+                // Update alarms if specified
+                if (eventMap.hasKey("alarms")) {
+                    // Remove existing reminders
+                    cr.delete(Reminders.CONTENT_URI, Reminders.EVENT_ID + " = ?", new String[] { eventId });
+                    Metrics.countWrites(1);
+
+                    // Add new reminders
+                    ReadableArray alarms = eventMap.getArray("alarms");
+                    for (int i = 0; i < alarms.size(); i++) {
+                        ReadableMap alarm = alarms.getMap(i);
+                        addReminder(eventId, alarm);
+                    }
+                }
+
+                promise.resolve(eventId);
+            } else {
+                promise.reject("EVENT_UPDATE_FAILED", "Failed to update event");
+            }
+        });
+    }
+
+    @ReactMethod
+    public void removeEvent(final String eventId, Promise untracked) {
+        final Promise promise = metrics.track("removeEvent", untracked);
+        write(promise, signal -> {
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            Uri uri = ContentUris.withAppendedId(Events.CONTENT_URI, Long.parseLong(eventId));
+            int rows = cr.delete(uri, null, null);
+            Metrics.countWrites(1);
+            promise.resolve(rows > 0);
+        });
+    }
+
+    /**
+     * Inserts all events (and their alarms) with applyBatch, chunked by BatchWriter.
+     * Resolves one { id, error } entry per input event, in input order.
+     */
+    @ReactMethod
+    public void saveEvents(final ReadableArray events, Promise untracked) {
+        final Promise promise = metrics.track("saveEvents", untracked);
+        write(promise, signal -> {
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            BatchWriter batch = new BatchWriter(cr, events.size());
+            Long defaultCalendarId = null;
+
+            for (int i = 0; i < events.size(); i++) {
+                ReadableMap eventMap = events.getMap(i);
+                ContentValues values = new ContentValues();
+                List<ContentValues> reminders;
+                try {
+                    applyEventProperties(eventMap, values);
+                    reminders = alarmReminders(eventMap);
+                } catch (RuntimeException e) {
+                    batch.fail(i, e.getMessage());
+                    continue;
+                }
+
+                if (!values.containsKey(Events.CALENDAR_ID)) {
+                    if (defaultCalendarId == null) {
+                        defaultCalendarId = getDefaultCalendarId();
+                    }
+                    values.put(Events.CALENDAR_ID, defaultCalendarId);
+                }
+
+                int eventIndex = batch.startItem(i,
+                    ContentProviderOperation.newInsert(Events.CONTENT_URI).withValues(values),
+                    reminders.size());
+                for (ContentValues reminder : reminders) {
+                    batch.add(ContentProviderOperation.newInsert(Reminders.CONTENT_URI)
+                        .withValues(reminder)
+                        .withValueBackReference(Reminders.EVENT_ID, eventIndex)
+                        .build());
+                }
+            }
+            batch.finish();
+
+            WritableArray results = Arguments.createArray();
+            for (int i = 0; i < events.size(); i++) {
+                ContentProviderResult result = batch.result(i);
+                if (result != null && result.uri != null) {
+                    results.pushMap(batchResult(result.uri.getLastPathSegment(), null));
+                } else {
+                    String error = batch.error(i);
+                    results.pushMap(batchResult(null, error != null ? error : "Failed to save event"));
+                }
+            }
+            promise.resolve(results);
+        });
+    }
+
+    /**
+     * Updates all events with applyBatch. Each entry carries the event's id plus the
+     * fields to change; when alarms are given they replace the existing ones.
+     * Resolves one { id, error } entry per input event, in input order.
+     *
+     * Items are validated before any is batched: a malformed entry, or one with alarms
+     * for an event that doesn't exist (whose reminder inserts would abort the whole
+     * chunk), fails on its own.
+     */
+    @ReactMethod
+    public void updateEvents(final ReadableArray events, Promise untracked) {
+        final Promise promise = metrics.track("updateEvents", untracked);
+        write(promise, signal -> {
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            BatchWriter batch = new BatchWriter(cr, events.size());
+
+            long[] eventIds = new long[events.size()];
+            ContentValues[] values = new ContentValues[events.size()];
+            List<List<ContentValues>> reminders = new ArrayList<>(Collections.<List<ContentValues>>nCopies(events.size(), null));
+            List<Long> alarmEventIds = new ArrayList<>();
+            for (int i = 0; i < events.size(); i++) {
+                ReadableMap eventMap = events.getMap(i);
+                try {
+                    eventIds[i] = Long.parseLong(eventMap.getString("id"));
+                    values[i] = new ContentValues();
+                    applyEventProperties(eventMap, values[i]);
+                    if (eventMap.hasKey("alarms")) {
+                        reminders.set(i, alarmReminders(eventMap));
+                        alarmEventIds.add(eventIds[i]);
+                    }
+                } catch (RuntimeException e) {
+                    values[i] = null;
+                    batch.fail(i, e.getMessage());
+                }
+            }
+            Set<Long> existing = alarmEventIds.isEmpty()
+                ? Collections.<Long>emptySet() : existingEventIds(cr, alarmEventIds, signal);
+
+            for (int i = 0; i < events.size(); i++) {
+                if (values[i] == null) {
+                    continue;
+                }
+                long eventId = eventIds[i];
+                List<ContentValues> eventReminders = reminders.get(i);
+                if (eventReminders != null && !existing.contains(eventId)) {
+                    batch.fail(i, "Event not found");
+                    continue;
+                }
+
+                batch.startItem(i,
+                    ContentProviderOperation.newUpdate(ContentUris.withAppendedId(Events.CONTENT_URI, eventId))
+                        .withValues(values[i]),
+                    eventReminders != null ? eventReminders.size() + 1 : 0);
+
+                if (eventReminders != null) {
+                    String[] eventIdArgs = new String[] { String.valueOf(eventId) };
+                    batch.add(ContentProviderOperation.newDelete(Reminders.CONTENT_URI)
+                        .withSelection(Reminders.EVENT_ID + " = ?", eventIdArgs)
+                        .build());
+                    for (ContentValues reminder : eventReminders) {
+                        batch.add(ContentProviderOperation.newInsert(Reminders.CONTENT_URI)
+                            .withValues(reminder)
+                            .withValue(Reminders.EVENT_ID, eventId)
+                            .build());
+                    }
+                }
+            }
+            batch.finish();
+
+            WritableArray results = Arguments.createArray();
+            for (int i = 0; i < events.size(); i++) {
+                ReadableMap eventMap = events.getMap(i);
+                String id = eventMap.hasKey("id") ? eventMap.getString("id") : null;
+                results.pushMap(countedBatchResult(batch, i, id, "Failed to update event"));
+            }
+            promise.resolve(results);
+        });
+    }
+
+    /**
+     * Deletes all events with applyBatch. Resolves one { id, error } entry per input
+     * id, in input order; error is set for ids that matched no event.
+     */
+    @ReactMethod
+    public void removeEvents(final ReadableArray eventIds, Promise untracked) {
+        final Promise promise = metrics.track("removeEvents", untracked);
+        write(promise, signal -> {
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            BatchWriter batch = new BatchWriter(cr, eventIds.size());
+
+            for (int i = 0; i < eventIds.size(); i++) {
+                long eventId;
+                try {
+                    eventId = Long.parseLong(eventIds.getString(i));
+                } catch (RuntimeException e) {
+                    batch.fail(i, e.getMessage());
+                    continue;
+                }
+                batch.startItem(i,
+                    ContentProviderOperation.newDelete(ContentUris.withAppendedId(Events.CONTENT_URI, eventId)), 0);
+            }
+            batch.finish();
+
+            WritableArray results = Arguments.createArray();
+            for (int i = 0; i < eventIds.size(); i++) {
+                results.pushMap(countedBatchResult(batch, i, eventIds.getString(i), "Failed to remove event"));
+            }
+            promise.resolve(results);
+        });
+    }
+
+    /**
+     * Makes calendarId's keyed events match events, where each event carries an
+     * externalId stored in Events.UID_2445 behind EventSync.KEY_PREFIX. The calendar's
+     * existing keys and content hashes are read with one query; only events that are
+     * new or whose hash (or, when given, alarms) differ are written. Keyed events
+     * missing from the input, and extra copies of a key, are deleted only when
+     * options.deleteMissing is true. Events without a prefixed key, including synced
+     * and imported ones with their own UID, are never touched. An event's timeZone is
+     * only compared when given. All writes go through applyBatch.
+     *
+     * Resolves { results, deleted }: one { id, externalId, action, error } entry per
+     * input event, in input order, and one { id, externalId, error } entry per deletion.
+     */
+    @ReactMethod
+    public void syncEvents(final String calendarId, final ReadableArray events, @Nullable final ReadableMap options,
+                           Promise untracked) {
+        final Promise promise = metrics.track("syncEvents", untracked);
+        write(promise, signal -> {
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            long calendar = Long.parseLong(calendarId);
+            boolean deleteMissing = hasValue(options, "deleteMissing") && options.getBoolean("deleteMissing");
+
+            // Stored keyed events: key -> { event id, hash with zone, hash without zone }
+            Map<String, long[]> stored = new HashMap<>();
+            List<Long> deleteIds = new ArrayList<>();
+            List<String> deleteKeys = new ArrayList<>();
+            Cursor cursor = EventSync.queryStored(cr, calendarId, signal);
+            if (cursor != null) {
+                try {
+                    while (cursor.moveToNext()) {
+                        long id = cursor.getLong(0);
+                        String key = EventSync.externalId(cursor.getString(1));
+                        if (!stored.containsKey(key)) {
+                            stored.put(key, EventSync.stored(cursor));
+                        } else if (deleteMissing) {
+                            deleteIds.add(id);
+                            deleteKeys.add(key);
+                        }
+                    }
+                } finally {
+                    cursor.close();
+                }
+            }
+
+            int count = events.size();
+            ContentValues[] values = new ContentValues[count];
+            String[] keys = new String[count];
+            boolean[] zoneGiven = new boolean[count];
+            int[][] alarmMinutes = new int[count][];
+            String[] errors = new String[count];
+            Set<String> seen = new HashSet<>();
+            List<Long> alarmEventIds = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                ReadableMap eventMap = events.getMap(i);
+                try {
+                    String key = hasValue(eventMap, "externalId") ? eventMap.getString("externalId") : null;
+                    if (TextUtils.isEmpty(key)) {
+                        throw new IllegalArgumentException("Missing externalId");
+                    }
+                    keys[i] = key;
+                    if (!seen.add(key)) {
+                        throw new IllegalArgumentException("Duplicate externalId: " + key);
+                    }
+
+                    ContentValues eventValues = new ContentValues();
+                    applyEventProperties(eventMap, eventValues);
+                    eventValues.put(Events.CALENDAR_ID, calendar);
+                    eventValues.put(Events.UID_2445, EventSync.storedKey(key));
+                    if (hasValue(eventMap, "timeZone")) {
+                        String zone = eventMap.getString("timeZone");
+                        // getTimeZone returns GMT for ids it doesn't know
+                        if (!TimeZone.getTimeZone(zone).getID().equals(zone)) {
+                            throw new IllegalArgumentException("Unknown time zone: " + zone);
+                        }
+                        eventValues.put(Events.EVENT_TIMEZONE, zone);
+                        zoneGiven[i] = true;
+                    }
+                    EventSync.complete(eventValues);
+                    values[i] = eventValues;
+
+                    if (eventMap.hasKey("alarms")) {
+                        ReadableArray alarms = eventMap.getArray("alarms");
+                        List<Integer> minutes = new ArrayList<>(alarms.size());
+                        for (int j = 0; j < alarms.size(); j++) {
+                            minutes.add(reminderValues(alarms.getMap(j)).getAsInteger(Reminders.MINUTES));
+                        }
+                        alarmMinutes[i] = EventSync.sortedMinutes(minutes);
+                        long[] match = stored.get(key);
+                        if (match != null) {
+                            alarmEventIds.add(match[0]);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    errors[i] = e.getMessage();
+                }
+            }
+
+            if (deleteMissing) {
+                for (Map.Entry<String, long[]> entry : stored.entrySet()) {
+                    if (!seen.contains(entry.getKey())) {
+                        deleteIds.add(entry.getValue()[0]);
+                        deleteKeys.add(entry.getKey());
+                    }
+                }
+            }
+            Map<Long, List<Integer>> reminders = alarmEventIds.isEmpty()
+                ? Collections.<Long, List<Integer>>emptyMap()
+                : loadReminders(cr, alarmEventIds, signal);
+
+            BatchWriter batch = new BatchWriter(cr, count + deleteIds.size());
+            String[] actions = new String[count];
+            boolean[] rowUpdated = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                if (errors[i] != null) {
+                    batch.fail(i, errors[i]);
+                    continue;
+                }
+                ReadableArray alarms = alarmMinutes[i] != null ? events.getMap(i).getArray("alarms") : null;
+                long[] match = stored.get(keys[i]);
+                if (match == null) {
+                    actions[i] = "inserted";
+                    int eventIndex = batch.startItem(i,
+                        ContentProviderOperation.newInsert(Events.CONTENT_URI).withValues(values[i]),
+                        alarms != null ? alarms.size() : 0);
+                    if (alarms != null) {
+                        for (int j = 0; j < alarms.size(); j++) {
+                            batch.add(ContentProviderOperation.newInsert(Reminders.CONTENT_URI)
+                                .withValues(reminderValues(alarms.getMap(j)))
+                                .withValueBackReference(Reminders.EVENT_ID, eventIndex)
+                                .build());
+                        }
+                    }
+                    continue;
+                }
+
+                long eventId = match[0];
+                boolean columnsChanged = EventSync.changed(match, values[i], zoneGiven[i]);
+                boolean alarmsChanged = alarms != null
+                    && !Arrays.equals(alarmMinutes[i], EventSync.sortedMinutes(reminders.get(eventId)));
+                if (!columnsChanged && !alarmsChanged) {
+                    actions[i] = "unchanged";
+                    continue;
+                }
+
+                actions[i] = "updated";
+                rowUpdated[i] = columnsChanged;
+                String[] eventIdArgs = new String[] { String.valueOf(eventId) };
+                ContentProviderOperation.Builder clearReminders = ContentProviderOperation
+                    .newDelete(Reminders.CONTENT_URI)
+                    .withSelection(Reminders.EVENT_ID + " = ?", eventIdArgs);
+                if (columnsChanged) {
+                    batch.startItem(i,
+                        ContentProviderOperation.newUpdate(ContentUris.withAppendedId(Events.CONTENT_URI, eventId))
+                            .withValues(values[i]),
+                        alarmsChanged ? alarms.size() + 1 : 0);
+                    if (alarmsChanged) {
+                        batch.add(clearReminders.build());
+                    }
+                } else {
+                    batch.startItem(i, clearReminders, alarms.size());
+                }
+                if (alarmsChanged) {
+                    for (int j = 0; j < alarms.size(); j++) {
+                        batch.add(ContentProviderOperation.newInsert(Reminders.CONTENT_URI)
+                            .withValues(reminderValues(alarms.getMap(j)))
+                            .withValue(Reminders.EVENT_ID, eventId)
+                            .build());
+                    }
+                }
+            }
+            for (int j = 0; j < deleteIds.size(); j++) {
+                batch.startItem(count + j,
+                    ContentProviderOperation.newDelete(ContentUris.withAppendedId(Events.CONTENT_URI, deleteIds.get(j))),
+                    0);
+            }
+            batch.finish();
+
+            WritableArray results = Arguments.createArray();
+            for (int i = 0; i < count; i++) {
+                String error = batch.error(i);
+                ContentProviderResult result = batch.result(i);
+                String id = null;
+                if (error == null && "inserted".equals(actions[i])) {
+                    if (result != null && result.uri != null) {
+                        id = result.uri.getLastPathSegment();
+                    } else {
+                        error = "Failed to save event";
+                    }
+                } else if (error == null) {
+                    id = String.valueOf(stored.get(keys[i])[0]);
+                    if (rowUpdated[i] && (result == null || result.count == null || result.count == 0)) {
+                        error = "Event not found";
+                    }
+                }
+
+                WritableMap entry = batchResult(error == null ? id : null, error);
+                entry.putString("externalId", keys[i]);
+                entry.putString("action", error == null ? actions[i] : null);
+                results.pushMap(entry);
+            }
+
+            WritableArray deleted = Arguments.createArray();
+            for (int j = 0; j < deleteIds.size(); j++) {
+                WritableMap entry = countedBatchResult(batch, count + j, String.valueOf(deleteIds.get(j)),
+                    "Failed to remove event");
+                entry.putString("externalId", deleteKeys.get(j));
+                deleted.pushMap(entry);
+            }
+
+            WritableMap summary = Arguments.createMap();
+            summary.putArray("results", results);
+            summary.putArray("deleted", deleted);
+            promise.resolve(summary);
+        });
+    }
+
+    /**
+     * Imports the VEVENTs of an .ics file into calendarId. The file is parsed one event
+     * at a time and written in applyBatch chunks of ICS_IMPORT_CHUNK events, so memory
+     * use doesn't depend on the file size. Sends ICS_PROGRESS_EVENT after each chunk.
+     *
+     * Resolves { imported, failed, errors }, with errors listing the first
+     * MAX_REPORTED_ERRORS failures as { uid, error }.
+     */
+    @ReactMethod
+    public void importIcs(final String path, final String calendarId, Promise untracked) {
+        final Promise promise = metrics.track("importIcs", untracked);
+        write(promise, signal -> {
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            long calendar = Long.parseLong(calendarId);
+            int imported = 0;
+            int failed = 0;
+            WritableArray errors = Arguments.createArray();
+
+            FileInputStream input;
+            try {
+                input = new FileInputStream(filePath(path));
+            } catch (IOException e) {
+                promise.reject("ICS_IO_ERROR", e.getMessage(), e);
+                return;
+            }
+            try {
+                FileChannel channel = input.getChannel();
+                long totalBytes = channel.size();
+                IcsReader reader = new IcsReader(Channels.newReader(channel, "UTF-8"));
+                List<IcsReader.Event> chunk = new ArrayList<>(ICS_IMPORT_CHUNK);
+                IcsReader.Event event;
+                do {
+                    event = reader.next();
+                    if (event != null) {
+                        chunk.add(event);
+                    }
+                    if (chunk.size() == ICS_IMPORT_CHUNK || (event == null && !chunk.isEmpty())) {
+                        signal.throwIfCanceled();
+                        BatchWriter batch = new BatchWriter(cr, chunk.size());
+                        for (int i = 0; i < chunk.size(); i++) {
+                            IcsReader.Event item = chunk.get(i);
+                            ContentValues values;
+                            try {
+                                values = item.toValues(calendar);
+                            } catch (IllegalArgumentException e) {
+                                batch.fail(i, e.getMessage());
+                                continue;
+                            }
+                            int eventIndex = batch.startItem(i,
+                                ContentProviderOperation.newInsert(Events.CONTENT_URI).withValues(values),
+                                item.alarmMinutes.size());
+                            for (int minutes : item.alarmMinutes) {
+                                batch.add(ContentProviderOperation.newInsert(Reminders.CONTENT_URI)
+                                    .withValue(Reminders.METHOD, Reminders.METHOD_ALERT)
+                                    .withValue(Reminders.MINUTES, minutes)
+                                    .withValueBackReference(Reminders.EVENT_ID, eventIndex)
+                                    .build());
+                            }
+                        }
+                        batch.finish();
+
+                        for (int i = 0; i < chunk.size(); i++) {
+                            ContentProviderResult result = batch.result(i);
+                            if (batch.error(i) == null && result != null && result.uri != null) {
+                                imported++;
+                                continue;
+                            }
+                            failed++;
+                            if (errors.size() < MAX_REPORTED_ERRORS) {
+                                WritableMap error = Arguments.createMap();
+                                error.putString("uid", chunk.get(i).text("UID"));
+                                error.putString("error", batch.error(i) != null ? batch.error(i) : "Failed to save event");
+                                errors.pushMap(error);
+                            }
+                        }
+                        chunk.clear();
+                        emitIcsProgress(path, "import", imported + failed, channel.position(), totalBytes);
+                    }
+                } while (event != null);
+            } catch (IOException e) {
+                promise.reject("ICS_IO_ERROR", e.getMessage(), e);
+                return;
+            } finally {
+                input.close();
+            }
+
+            WritableMap summary = Arguments.createMap();
+            summary.putInt("imported", imported);
+            summary.putInt("failed", failed);
+            summary.putArray("errors", errors);
+            promise.resolve(summary);
+        });
+    }
+
+    /**
+     * Exports the events starting in [range.startDate, range.endDate] of the given
+     * calendars (all when empty) to an .ics file, writing straight from the cursor with
+     * reminders loaded per MAX_SELECTION_ARGS rows. The file is written next to path
+     * and renamed into place once complete. Modified single occurrences of recurring
+     * events are not exported. Sends ICS_PROGRESS_EVENT after each chunk and resolves
+     * the number of events written; options.requestId makes the export cancellable.
+     */
+    @ReactMethod
+    public void exportIcs(final String path, final ReadableMap range, final ReadableArray calendarIds,
+                          @Nullable final ReadableMap options, Promise untracked) {
+        final Promise promise = metrics.track("exportIcs", untracked);
+        executor.read(requestId(options), promise, signal -> {
+            long startMillis = parseDate(range.getString("startDate"));
+            long endMillis = parseDate(range.getString("endDate"));
+
+            String selection = Events.DTSTART + " >= ? AND " + Events.DTSTART + " <= ? AND "
+                + Events.DELETED + " = 0 AND " + Events.ORIGINAL_ID + " IS NULL";
+            String calendarFilter = calendarSelection(Events.CALENDAR_ID, calendarIds);
+            if (calendarFilter != null) {
+                selection += " AND " + calendarFilter;
+            }
+            String[] selectionArgs = new String[] { String.valueOf(startMillis), String.valueOf(endMillis) };
+
+            File target = filePath(path);
+            File partial = new File(target.getPath() + ".partial");
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            Cursor cursor = Metrics.query(cr, Events.CONTENT_URI, IcsWriter.PROJECTION, selection, selectionArgs,
+                Events.DTSTART + " ASC, " + Events._ID + " ASC", signal);
+            int written = 0;
+            boolean complete = false;
+
+            try {
+                Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(partial), "UTF-8"),
+                    ICS_BUFFER_SIZE);
+                try {
+                    IcsWriter writer = new IcsWriter(out);
+                    writer.begin();
+                    if (cursor != null) {
+                        List<Long> ids = new ArrayList<>(MAX_SELECTION_ARGS);
+                        while (true) {
+                            signal.throwIfCanceled();
+                            int chunkStart = cursor.getPosition();
+                            ids.clear();
+                            while (ids.size() < MAX_SELECTION_ARGS && cursor.moveToNext()) {
+                                ids.add(cursor.getLong(0));
+                            }
+                            if (ids.isEmpty()) {
+                                break;
+                            }
+                            Map<Long, List<Integer>> reminders = loadReminders(cr, ids, signal);
+
+                            cursor.moveToPosition(chunkStart);
+                            for (Long id : ids) {
+                                cursor.moveToNext();
+                                writer.write(cursor, reminders.get(id));
+                            }
+                            written += ids.size();
+                            emitIcsProgress(path, "export", written, -1, -1);
+                        }
+                    }
+                    writer.end();
+                } finally {
+                    out.close();
+                }
+                if (!partial.renameTo(target)) {
+                    throw new IOException("Could not move the export to " + target);
+                }
+                complete = true;
+            } catch (IOException e) {
+                promise.reject("ICS_IO_ERROR", e.getMessage(), e);
+                return;
+            } finally {
+                if (cursor != null) {
+                    cursor.close();
+                }
+                if (!complete) {
+                    partial.delete();
+                }
+            }
+
+            promise.resolve(written);
+        });
+    }
+
+    @ReactMethod
+    public void openEventInCalendar(String eventId, Promise untracked) {
+        final Promise promise = metrics.track("openEventInCalendar", untracked);
+        // Android doesn't support opening events directly in the calendar app
+        // We can only open the calendar app
+        Intent intent = new Intent(Intent.ACTION_VIEW);
+        intent.setData(Uri.parse("content://com.android.calendar/time"));
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+
+        try {
+            getReactApplicationContext().startActivity(intent);
+            promise.resolve(null);
+        } catch (Exception e) {
+            promise.reject("OPEN_CALENDAR_FAILED", "Failed to open calendar app", e);
+        }
+    }
+
+    // Helper methods
+    private void applyEventProperties(ReadableMap eventMap, ContentValues values) {
+        if (eventMap.hasKey("title")) {
+            values.put(Events.TITLE, eventMap.getString("title"));
+        }
+
+        if (eventMap.hasKey("startDate")) {
+            values.put(Events.DTSTART, parseDate(eventMap.getString("startDate")));
+        }
+
+        if (eventMap.hasKey("endDate")) {
+            values.put(Events.DTEND, parseDate(eventMap.getString("endDate")));
+        }
+
+        if (eventMap.hasKey("location")) {
+            values.put(Events.EVENT_LOCATION, eventMap.getString("location"));
+        }
+
+        if (eventMap.hasKey("notes")) {
+            values.put(Events.DESCRIPTION, eventMap.getString("notes"));
+        }
+
+        if (eventMap.hasKey("url")) {
+            values.put(Events.CUSTOM_APP_URI, eventMap.getString("url"));
+        }
+
+        if (eventMap.hasKey("allDay")) {
+            values.put(Events.ALL_DAY, eventMap.getBoolean("allDay") ? 1 : 0);
+        }
+
+        if (eventMap.hasKey("calendar")) {
+            values.put(Events.CALENDAR_ID, Long.parseLong(eventMap.getString("calendar")));
+        }
+
+        if (eventMap.hasKey("availability")) {
+            String availability = eventMap.getString("availability");
+            int availabilityValue = Events.AVAILABILITY_BUSY;
+            if ("free".equals(availability)) {
+                availabilityValue = Events.AVAILABILITY_FREE;
+            } else if ("tentative".equals(availability)) {
+                availabilityValue = Events.AVAILABILITY_TENTATIVE;
+            }
+            values.put(Events.AVAILABILITY, availabilityValue);
+        }
+
+        if (eventMap.hasKey("recurrence")) {
+            ReadableMap recurrence = eventMap.getMap("recurrence");
+            String rrule = buildRRule(recurrence);
+            if (!TextUtils.isEmpty(rrule)) {
+                values.put(Events.RRULE, rrule);
+                values.put(Events.DURATION, "P3600S"); // Default 1 hour duration for recurring events
+            }
+        }
+
+        values.put(Events.EVENT_TIMEZONE, TimeZone.getDefault().getID());
+    }
+
+    /**
+     * Writes the record's fields selected by the mask; the id is always written.
+     */
+    WritableMap serializeEvent(EventRecord record, EventFields fields) {
+        WritableMap event = Arguments.createMap();
+
+        event.putString("id", String.valueOf(record.id));
+        if (fields.has(EventFields.TITLE)) event.putString("title", record.title);
+        if (fields.has(EventFields.NOTES)) event.putString("notes", record.notes);
+        if (fields.has(EventFields.START_DATE)) event.putString("startDate", formatDate(record.startMillis));
+        if (fields.has(EventFields.END_DATE)) event.putString("endDate", formatDate(record.endMillis));
+        if (fields.has(EventFields.ALL_DAY)) event.putBoolean("allDay", record.allDay);
+        if (fields.has(EventFields.LOCATION)) event.putString("location", record.location);
+        if (fields.has(EventFields.CALENDAR)) event.putString("calendar", String.valueOf(record.calendarId));
+
+        if (fields.has(EventFields.AVAILABILITY)) {
+            String availabilityStr = "busy";
+            if (record.availability == Events.AVAILABILITY_FREE) {
+                availabilityStr = "free";
+            } else if (record.availability == Events.AVAILABILITY_TENTATIVE) {
+                availabilityStr = "tentative";
+            }
+            event.putString("availability", availabilityStr);
+        }
+
+        if (fields.has(EventFields.RECURRENCE) && !TextUtils.isEmpty(record.rrule)) {
+            event.putMap("recurrence", parseRRule(record.rrule));
+        }
+
+        if (fields.has(EventFields.URL)) event.putString("url", record.url);
+
+        // Get alarms
+        if (fields.has(EventFields.ALARMS) && record.alarmMinutes.length > 0) {
+            WritableArray alarms = Arguments.createArray();
+            for (int minutes : record.alarmMinutes) {
+                WritableMap alarm = Arguments.createMap();
+                alarm.putInt("minutes", minutes);
+                alarms.pushMap(alarm);
+            }
+            event.putArray("alarms", alarms);
+        }
+
+        return event;
+    }
+
+    /**
+     * Serializes event details like serializeEvent, plus timeZone, alarms with their
+     * method, attendees and extendedProperties.
+     */
+    private WritableMap serializeDetails(EventDetails details) {
+        WritableMap event = Arguments.createMap();
+
+        event.putString("id", String.valueOf(details.id));
+        event.putString("title", details.title);
+        event.putString("notes", details.notes);
+        event.putString("startDate", formatDate(details.startMillis));
+        event.putString("endDate", formatDate(details.endMillis));
+        event.putBoolean("allDay", details.allDay);
+        event.putString("location", details.location);
+        event.putString("calendar", String.valueOf(details.calendarId));
+        event.putString("url", details.url);
+        event.putString("timeZone", details.timeZone);
+        event.putString("availability", details.availability == Events.AVAILABILITY_FREE ? "free"
+            : details.availability == Events.AVAILABILITY_TENTATIVE ? "tentative" : "busy");
+
+        if (!TextUtils.isEmpty(details.rrule)) {
+            event.putMap("recurrence", parseRRule(details.rrule));
+        }
+
+        WritableArray alarms = Arguments.createArray();
+        for (int[] reminder : details.reminders) {
+            WritableMap alarm = Arguments.createMap();
+            alarm.putInt("minutes", reminder[0]);
+            alarm.putString("method", reminderMethod(reminder[1]));
+            alarms.pushMap(alarm);
+        }
+        event.putArray("alarms", alarms);
+
+        WritableArray attendees = Arguments.createArray();
+        for (EventDetails.Attendee attendee : details.attendees) {
+            WritableMap map = Arguments.createMap();
+            map.putString("name", attendee.name);
+            map.putString("email", attendee.email);
+            map.putString("type", attendeeType(attendee.type));
+            map.putString("status", attendeeStatus(attendee.status));
+            map.putBoolean("organizer", attendee.organizer);
+            attendees.pushMap(map);
+        }
+        event.putArray("attendees", attendees);
+
+        WritableMap extendedProperties = Arguments.createMap();
+        for (Map.Entry<String, String> property : details.extendedProperties.entrySet()) {
+            extendedProperties.putString(property.getKey(), property.getValue());
+        }
+        event.putMap("extendedProperties", extendedProperties);
+
+        return event;
+    }
+
+    private static String reminderMethod(int method) {
+        switch (method) {
+            case Reminders.METHOD_ALERT:
+                return "alert";
+            case Reminders.METHOD_EMAIL:
+                return "email";
+            case Reminders.METHOD_SMS:
+                return "sms";
+            case Reminders.METHOD_ALARM:
+                return "alarm";
+            default:
+                return "default";
+        }
+    }
+
+    private static String attendeeType(int type) {
+        switch (type) {
+            case Attendees.TYPE_REQUIRED:
+                return "required";
+            case Attendees.TYPE_OPTIONAL:
+                return "optional";
+            case Attendees.TYPE_RESOURCE:
+                return "resource";
+            default:
+                return "none";
+        }
+    }
+
+    private static String attendeeStatus(int status) {
+        switch (status) {
+            case Attendees.ATTENDEE_STATUS_ACCEPTED:
+                return "accepted";
+            case Attendees.ATTENDEE_STATUS_DECLINED:
+                return "declined";
+            case Attendees.ATTENDEE_STATUS_INVITED:
+                return "invited";
+            case Attendees.ATTENDEE_STATUS_TENTATIVE:
+                return "tentative";
+            default:
+                return "none";
+        }
+    }
+
+    private WritableArray serializeEvents(List<EventRecord> records, EventFields fields) {
+        WritableArray events = Arguments.createArray();
+        for (EventRecord record : records) {
+            events.pushMap(serializeEvent(record, fields));
+        }
+        return events;
+    }
+
+    /**
+     * Serializes fetchAllEvents results as an array of event maps, or column by
+     * column when options.format is "columnar".
+     */
+    private Object serializeResult(List<EventRecord> records, EventFields fields, @Nullable ReadableMap options) {
+        String format = options != null && options.hasKey("format") && !options.isNull("format")
+            ? options.getString("format") : "objects";
+        if ("columnar".equals(format)) {
+            return serializeColumns(records, fields);
+        }
+        if (!"objects".equals(format)) {
+            throw new IllegalArgumentException("Unknown result format: " + format);
+        }
+        return serializeEvents(records, fields);
+    }
+
+    /**
+     * Columnar encoding: one array per selected field, dates as epoch milliseconds and
+     * calendars as indexes into a calendarIds table, so keys and repeated strings cross
+     * the bridge once instead of once per event. Rows with no recurrence or alarms hold null.
+     */
+    private WritableMap serializeColumns(List<EventRecord> records, EventFields fields) {
+        WritableArray ids = Arguments.createArray();
+        WritableArray titles = Arguments.createArray();
+        WritableArray notes = Arguments.createArray();
+        WritableArray starts = Arguments.createArray();
+        WritableArray ends = Arguments.createArray();
+        WritableArray allDays = Arguments.createArray();
+        WritableArray locations = Arguments.createArray();
+        WritableArray calendars = Arguments.createArray();
+        WritableArray availabilities = Arguments.createArray();
+        WritableArray recurrences = Arguments.createArray();
+        WritableArray urls = Arguments.createArray();
+        WritableArray alarms = Arguments.createArray();
+
+        WritableArray calendarIds = Arguments.createArray();
+        Map<Long, Integer> calendarIndex = new HashMap<>();
+
+        for (EventRecord record : records) {
+            ids.pushString(String.valueOf(record.id));
+            if (fields.has(EventFields.TITLE)) titles.pushString(record.title);
+            if (fields.has(EventFields.NOTES)) notes.pushString(record.notes);
+            if (fields.has(EventFields.START_DATE)) starts.pushDouble(record.startMillis);
+            if (fields.has(EventFields.END_DATE)) ends.pushDouble(record.endMillis);
+            if (fields.has(EventFields.ALL_DAY)) allDays.pushBoolean(record.allDay);
+            if (fields.has(EventFields.LOCATION)) locations.pushString(record.location);
+            if (fields.has(EventFields.CALENDAR)) {
+                Integer index = calendarIndex.get(record.calendarId);
+                if (index == null) {
+                    index = calendarIndex.size();
+                    calendarIndex.put(record.calendarId, index);
+                    calendarIds.pushString(String.valueOf(record.calendarId));
+                }
+                calendars.pushInt(index);
+            }
+            if (fields.has(EventFields.AVAILABILITY)) availabilities.pushInt(record.availability);
+            if (fields.has(EventFields.RECURRENCE)) {
+                if (TextUtils.isEmpty(record.rrule)) {
+                    recurrences.pushNull();
+                } else {
+                    recurrences.pushMap(parseRRule(record.rrule));
+                }
+            }
+            if (fields.has(EventFields.URL)) urls.pushString(record.url);
+            if (fields.has(EventFields.ALARMS)) {
+                if (record.alarmMinutes.length == 0) {
+                    alarms.pushNull();
+                } else {
+                    WritableArray minutes = Arguments.createArray();
+                    for (int value : record.alarmMinutes) {
+                        minutes.pushInt(value);
+                    }
+                    alarms.pushArray(minutes);
+                }
+            }
+        }
+
+        WritableMap columns = Arguments.createMap();
+        columns.putString("format", "columnar");
+        columns.putInt("length", records.size());
+        columns.putArray("id", ids);
+        if (fields.has(EventFields.TITLE)) columns.putArray("title", titles);
+        if (fields.has(EventFields.NOTES)) columns.putArray("notes", notes);
+        if (fields.has(EventFields.START_DATE)) columns.putArray("startDate", starts);
+        if (fields.has(EventFields.END_DATE)) columns.putArray("endDate", ends);
+        if (fields.has(EventFields.ALL_DAY)) columns.putArray("allDay", allDays);
+        if (fields.has(EventFields.LOCATION)) columns.putArray("location", locations);
+        if (fields.has(EventFields.CALENDAR)) {
+            columns.putArray("calendar", calendars);
+            columns.putArray("calendarIds", calendarIds);
+        }
+        // Raw Events.AVAILABILITY values; JS maps them to busy/free/tentative
+        if (fields.has(EventFields.AVAILABILITY)) columns.putArray("availability", availabilities);
+        if (fields.has(EventFields.RECURRENCE)) columns.putArray("recurrence", recurrences);
+        if (fields.has(EventFields.URL)) columns.putArray("url", urls);
+        if (fields.has(EventFields.ALARMS)) columns.putArray("alarms", alarms);
+        return columns;
+    }
+
+    /**
+     * Loads and serializes the given events (with their alarms) into a map keyed by
+     * event id, using chunked Events._ID IN (...) queries.
+     */
+    private WritableMap loadEvents(ContentResolver cr, List<Long> eventIds, EventFields fields,
+                                   @Nullable CancellationSignal signal) {
+        WritableMap events = Arguments.createMap();
+        for (EventRecord record : loadRecords(cr, eventIds, fields, signal).values()) {
+            events.putMap(String.valueOf(record.id), serializeEvent(record, fields));
+        }
+        return events;
+    }
+
+    /**
+     * Loads the given events (with their alarms when fields include them) using chunked
+     * Events._ID IN (...) queries. Ids that match no event are missing from the map.
+     */
+    private Map<Long, EventRecord> loadRecords(ContentResolver cr, List<Long> eventIds, EventFields fields,
+                                               @Nullable CancellationSignal signal) {
+        Map<Long, EventRecord> records = new HashMap<>();
+        Map<Long, List<Integer>> reminders = fields.has(EventFields.ALARMS)
+            ? loadReminders(cr, eventIds, signal)
+            : Collections.<Long, List<Integer>>emptyMap();
+
+        for (int from = 0; from < eventIds.size(); from += MAX_SELECTION_ARGS) {
+            String[] selectionArgs = idArgs(eventIds, from, Math.min(from + MAX_SELECTION_ARGS, eventIds.size()));
+
+            Cursor cursor = Metrics.query(cr, Events.CONTENT_URI, fields.projection,
+                Events._ID + " IN (" + placeholders(selectionArgs.length) + ")",
+                selectionArgs,
+                null,
+                signal);
+
+            if (cursor != null) {
+                try {
+                    while (cursor.moveToNext()) {
+                        EventRecord record = EventRecord.from(cursor, fields, reminders);
+                        records.put(record.id, record);
+                    }
+                } finally {
+                    cursor.close();
+                }
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Loads reminder minutes for all given events with one Reminders query per
+     * MAX_SELECTION_ARGS ids, keyed by event id.
+     */
+    static Map<Long, List<Integer>> loadReminders(ContentResolver cr, List<Long> eventIds,
+                                                  @Nullable CancellationSignal signal) {
+        Map<Long, List<Integer>> reminders = new HashMap<>();
+
+        for (int from = 0; from < eventIds.size(); from += MAX_SELECTION_ARGS) {
+            String[] selectionArgs = idArgs(eventIds, from, Math.min(from + MAX_SELECTION_ARGS, eventIds.size()));
+
+            Cursor cursor = Metrics.query(cr, Reminders.CONTENT_URI,
+                new String[] { Reminders.EVENT_ID, Reminders.MINUTES },
+                Reminders.EVENT_ID + " IN (" + placeholders(selectionArgs.length) + ")",
+                selectionArgs,
+                null,
+                signal);
+
+            if (cursor != null) {
+                try {
+                    while (cursor.moveToNext()) {
+                        long eventId = cursor.getLong(0);
+                        List<Integer> minutes = reminders.get(eventId);
+                        if (minutes == null) {
+                            minutes = new ArrayList<>(2);
+                            reminders.put(eventId, minutes);
+                        }
+                        minutes.add(cursor.getInt(1));
+                    }
+                } finally {
+                    cursor.close();
+                }
+            }
+        }
+
+        return reminders;
+    }
+
+    private static String[] idArgs(List<Long> ids, int from, int to) {
+        String[] args = new String[to - from];
+        for (int i = from; i < to; i++) {
+            args[i - from] = String.valueOf(ids.get(i));
+        }
+        return args;
+    }
+
+    /**
+     * Reads up to maxRows rows following the cursor's current position, leaving the
+     * cursor on the last row read. Reminders for those rows are loaded in one batch
+     * rather than per event, and only when fields include alarms.
+     */
+    static List<EventRecord> readRows(ContentResolver cr, Cursor cursor, EventFields fields, int maxRows,
+                                      @Nullable CancellationSignal signal) {
+        int start = cursor.getPosition();
+
+        List<Long> eventIds = new ArrayList<>(Math.min(maxRows, cursor.getCount()));
+        while (eventIds.size() < maxRows && cursor.moveToNext()) {
+            eventIds.add(cursor.getLong(0));
         }
+        Map<Long, List<Integer>> reminders = fields.has(EventFields.ALARMS)
+            ? loadReminders(cr, eventIds, signal)
+            : Collections.<Long, List<Integer>>emptyMap();
+
+        List<EventRecord> events = new ArrayList<>(eventIds.size());
+        cursor.moveToPosition(start);
+        for (int i = 0; i < eventIds.size() && cursor.moveToNext(); i++) {
+            events.add(EventRecord.from(cursor, fields, reminders));
+        }
+
+        return events;
     }
 
-    @ReactMethod
-    public void saveEvent(ReadableMap eventMap, Promise promise) {
+    /**
+     * Reads every event starting inside [startMillis, endMillis], optionally limited
+     * to the given calendars, with its alarms.
+     */
+    private List<EventRecord> queryWindow(long startMillis, long endMillis, @Nullable String[] calendarIds,
+                                          EventFields fields, @Nullable CancellationSignal signal) {
         ContentResolver cr = getReactApplicationContext().getContentResolver();
-        ContentValues values = new ContentValues();
-        
-        applyEventProperties(eventMap, values);
         
-        // Set default calendar if not specified
-        if (!values.containsKey(Events.CALENDAR_ID)) {
-            values.put(Events.CALENDAR_ID, getDefaultCalendarId());
+        String selection = Events.DTSTART + " >= ? AND " + Events.DTSTART + " <= ?";
+        String calendarFilter = calendarSelection(Events.CALENDAR_ID, calendarIds);
+        if (calendarFilter != null) {
+            selection += " AND " + calendarFilter;
         }
-        
-        Uri uri = cr.insert(Events.CONTENT_URI, values);
-        if (uri != null) {
-            String eventId = uri.getLastPathSegment();
-            
-            // Add alarms if specified
-            if (eventMap.hasKey("alarms")) {
-                ReadableArray alarms = eventMap.getArray("alarms");
-                for (int i = 0; i < alarms.size(); i++) {
-                    ReadableMap alarm = alarms.getMap(i);
-                    addReminder(eventId, alarm);
-                }
-            }
-            
-            promise.resolve(eventId);
-        } else {
-            promise.reject("EVENT_SAVE_FAILED", "Failed to save event");
+        String[] selectionArgs = new String[] { String.valueOf(startMillis), String.valueOf(endMillis) };
+
+        Cursor cursor = Metrics.query(cr, Events.CONTENT_URI, fields.projection, selection, selectionArgs, null, signal);
+        if (cursor == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return readRows(cr, cursor, fields, Integer.MAX_VALUE, signal);
+        } finally {
+            cursor.close();
         }
     }
 
-    @ReactMethod
-    public void updateEvent(String eventId, ReadableMap eventMap, Promise promise) {
+    /**
+     * Loads every non-cancelled occurrence in [startMillis, endMillis) for the conflict
+     * index. All-day occurrences are moved from their UTC midnights to the local day.
+     */
+    private List<ConflictIndex.Occurrence> loadOccurrences(long startMillis, long endMillis,
+                                                           @Nullable String[] calendarIds,
+                                                           @Nullable CancellationSignal signal) {
         ContentResolver cr = getReactApplicationContext().getContentResolver();
-        ContentValues values = new ContentValues();
-        
-        applyEventProperties(eventMap, values);
-        
-        Uri uri = ContentUris.withAppendedId(Events.CONTENT_URI, Long.parseLong(eventId));
-        int rows = cr.update(uri, values, null, null);
+        Uri.Builder builder = Instances.CONTENT_URI.buildUpon();
+        ContentUris.appendId(builder, startMillis);
+        ContentUris.appendId(builder, endMillis);
+
+        String selection = "(" + Instances.STATUS + " IS NULL OR " + Instances.STATUS + " != " + Events.STATUS_CANCELED + ")";
+        String calendarFilter = calendarSelection(Instances.CALENDAR_ID, calendarIds);
+        if (calendarFilter != null) {
+            selection += " AND " + calendarFilter;
+        }
         
-        if (rows > 0) {
-            // Update alarms if specified
-            if (eventMap.hasKey("alarms")) {
-                // Remove existing reminders
-                cr.delete(Reminders.CONTENT_URI, Reminders.EVENT_ID + " = ?", new String[] { eventId });
-                
-                // Add new reminders
-                ReadableArray alarms = eventMap.getArray("alarms");
-                for (int i = 0; i < alarms.size(); i++) {
-                    ReadableMap alarm = alarms.getMap(i);
-                    addReminder(eventId, alarm);
+        Cursor cursor = Metrics.query(cr, builder.build(), CONFLICT_PROJECTION, selection, null, null, signal);
+        List<ConflictIndex.Occurrence> occurrences = new ArrayList<>();
+        if (cursor == null) {
+            return occurrences;
+        }
+        try {
+            TimeZone zone = TimeZone.getDefault();
+            while (cursor.moveToNext()) {
+                long begin = cursor.getLong(2);
+                long end = cursor.getLong(3);
+                boolean allDay = cursor.getInt(4) == 1;
+                if (allDay) {
+                    begin -= zone.getOffset(begin);
+                    end -= zone.getOffset(end);
                 }
+                occurrences.add(new ConflictIndex.Occurrence(cursor.getLong(0), cursor.getLong(1), begin, end,
+                    allDay, cursor.getInt(5), cursor.getString(6)));
             }
-            
-            promise.resolve(eventId);
-        } else {
-            promise.reject("EVENT_UPDATE_FAILED", "Failed to update event");
+        } finally {
+            cursor.close();
         }
+        return occurrences;
     }
 
-    @ReactMethod
-    public void removeEvent(String eventId, Promise promise) {
-        ContentResolver cr = getReactApplicationContext().getContentResolver();
-        Uri uri = ContentUris.withAppendedId(Events.CONTENT_URI, Long.parseLong(eventId));
-        int rows = cr.delete(uri, null, null);
-        promise.resolve(rows > 0);
+    /**
+     * Runs a provider write on the write lane. Cached windows are bypassed while it
+     * runs and dropped once it finishes, so a caller never reads results older than
+     * its own write, even before the provider's change notification arrives. The
+     * calendar registry instead ignores the write's notification; writes to Calendars
+     * invalidate it themselves.
+     */
+    private void write(Promise promise, ProviderExecutor.Task task) {
+        executor.write(promise, signal -> {
+            eventCache.beginWrite();
+            monthBuckets.beginWrite();
+            conflictIndex.beginWrite();
+            calendarRegistry.beginWrite();
+            try {
+                task.run(signal);
+            } finally {
+                eventCache.endWrite();
+                monthBuckets.endWrite();
+                conflictIndex.endWrite();
+                calendarRegistry.endWrite();
+            }
+        });
     }
 
-    @ReactMethod
-    public void openEventInCalendar(String eventId, Promise promise) {
-        // Android doesn't support opening events directly in the calendar app
-        // We can only open the calendar app
-        Intent intent = new Intent(Intent.ACTION_VIEW);
-        intent.setData(Uri.parse("content://com.android.calendar/time"));
-        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
-        
-        try {
-            getReactApplicationContext().startActivity(intent);
-            promise.resolve(null);
-        } catch (Exception e) {
-            promise.reject("OPEN_CALENDAR_FAILED", "Failed to open calendar app", e);
+    /**
+     * Subscribes a listener to Events, Reminders and Calendars changes, registering
+     * the shared observer on first use.
+     */
+    private synchronized void observeProvider(ProviderObserver.Listener listener) {
+        if (providerObserver == null) {
+            providerObserver = new ProviderObserver(getReactApplicationContext().getContentResolver(),
+                Events.CONTENT_URI, Reminders.CONTENT_URI, Calendars.CONTENT_URI);
         }
+        providerObserver.addListener(listener);
     }
 
-    // Helper methods
-    private void applyEventProperties(ReadableMap eventMap, ContentValues values) {
-        if (eventMap.hasKey("title")) {
-            values.put(Events.TITLE, eventMap.getString("title"));
-        }
-        
-        if (eventMap.hasKey("startDate")) {
-            values.put(Events.DTSTART, parseDate(eventMap.getString("startDate")));
-        }
-        
-        if (eventMap.hasKey("endDate")) {
-            values.put(Events.DTEND, parseDate(eventMap.getString("endDate")));
-        }
-        
-        if (eventMap.hasKey("location")) {
-            values.put(Events.EVENT_LOCATION, eventMap.getString("location"));
+    private synchronized EventChangeFeed changeFeed() {
+        if (changeFeed == null) {
+            changeFeed = new EventChangeFeed(
+                (startMillis, endMillis, calendarIds) -> queryWindow(startMillis, endMillis, calendarIds, EventFields.DEFAULT, null),
+                (subscriptionId, added, changed, removed) -> {
+                    WritableArray removedIds = Arguments.createArray();
+                    for (long id : removed) {
+                        removedIds.pushString(String.valueOf(id));
+                    }
+
+                    WritableMap payload = Arguments.createMap();
+                    payload.putString("subscriptionId", subscriptionId);
+                    payload.putArray("added", serializeEvents(added, EventFields.DEFAULT));
+                    payload.putArray("changed", serializeEvents(changed, EventFields.DEFAULT));
+                    payload.putArray("removed", removedIds);
+                    emit(EVENTS_CHANGED_EVENT, payload);
+                });
         }
-        
-        if (eventMap.hasKey("notes")) {
-            values.put(Events.DESCRIPTION, eventMap.getString("notes"));
+        return changeFeed;
+    }
+
+    @Nullable
+    private static String[] toStringArray(@Nullable ReadableArray array) {
+        if (array == null) {
+            return null;
         }
-        
-        if (eventMap.hasKey("url")) {
-            values.put(Events.CUSTOM_APP_URI, eventMap.getString("url"));
+        String[] strings = new String[array.size()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = array.getString(i);
         }
-        
-        if (eventMap.hasKey("allDay")) {
-            values.put(Events.ALL_DAY, eventMap.getBoolean("allDay") ? 1 : 0);
+        return strings;
+    }
+
+    private static boolean hasValue(@Nullable ReadableMap map, String key) {
+        return map != null && map.hasKey(key) && !map.isNull(key);
+    }
+
+    @Nullable
+    private static String requestId(@Nullable ReadableMap options) {
+        if (options == null || !options.hasKey("requestId") || options.isNull("requestId")) {
+            return null;
         }
-        
-        if (eventMap.hasKey("calendar")) {
-            values.put(Events.CALENDAR_ID, Long.parseLong(eventMap.getString("calendar")));
+        return options.getString("requestId");
+    }
+
+    @Nullable
+    private static long[] parsePageToken(String pageToken) {
+        int separator = pageToken.indexOf('_');
+        if (separator <= 0) {
+            return null;
         }
-        
-        if (eventMap.hasKey("availability")) {
-            String availability = eventMap.getString("availability");
-            int availabilityValue = Events.AVAILABILITY_BUSY;
-            if ("free".equals(availability)) {
-                availabilityValue = Events.AVAILABILITY_FREE;
-            } else if ("tentative".equals(availability)) {
-                availabilityValue = Events.AVAILABILITY_TENTATIVE;
-            }
-            values.put(Events.AVAILABILITY, availabilityValue);
+        try {
+            return new long[] {
+                Long.parseLong(pageToken.substring(0, separator)),
+                Long.parseLong(pageToken.substring(separator + 1))
+            };
+        } catch (NumberFormatException e) {
+            return null;
         }
-        
-        if (eventMap.hasKey("recurrence")) {
-            ReadableMap recurrence = eventMap.getMap("recurrence");
-            String rrule = buildRRule(recurrence);
-            if (!TextUtils.isEmpty(rrule)) {
-                values.put(Events.RRULE, rrule);
-                values.put(Events.DURATION, "P3600S"); // Default 1 hour duration for recurring events
-            }
+    }
+
+    private void emitIcsProgress(String path, String operation, int events, long bytes, long totalBytes) {
+        WritableMap progress = Arguments.createMap();
+        progress.putString("path", path);
+        progress.putString("operation", operation);
+        progress.putInt("events", events);
+        if (totalBytes >= 0) {
+            progress.putDouble("bytes", bytes);
+            progress.putDouble("totalBytes", totalBytes);
         }
-        
-        values.put(Events.EVENT_TIMEZONE, TimeZone.getDefault().getID());
+        emit(ICS_PROGRESS_EVENT, progress);
     }
 
-    private WritableMap serializeEvent(Cursor cursor) {
-        WritableMap event = Arguments.createMap();
-        
-        event.putString("id", cursor.getString(0));
-        event.putString("title", cursor.getString(1));
-        event.putString("notes", cursor.getString(2));
-        event.putString("startDate", formatDate(cursor.getLong(3)));
-        event.putString("endDate", formatDate(cursor.getLong(4)));
-        event.putBoolean("allDay", cursor.getInt(5) == 1);
-        event.putString("location", cursor.getString(6));
-        event.putString("calendar", cursor.getString(7));
-        
-        int availability = cursor.getInt(8);
-        String availabilityStr = "busy";
-        if (availability == Events.AVAILABILITY_FREE) {
-            availabilityStr = "free";
-        } else if (availability == Events.AVAILABILITY_TENTATIVE) {
-            availabilityStr = "tentative";
-        }
-        event.putString("availability", availabilityStr);
-        
-        String rrule = cursor.getString(9);
-        if (!TextUtils.isEmpty(rrule)) {
-            event.putMap("recurrence", parseRRule(rrule));
+    /** Accepts plain paths and file:// URIs. */
+    private static File filePath(String path) {
+        return new File(path.startsWith("file://") ? Uri.parse(path).getPath() : path);
+    }
+
+    private void emit(String eventName, Object payload) {
+        getReactApplicationContext()
+            .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+            .emit(eventName, payload);
+    }
+
+    /**
+     * Returns "column IN (...)" for the requested calendars, or null when no calendar
+     * filter was given.
+     */
+    @Nullable
+    private static String calendarSelection(String column, @Nullable ReadableArray calendarIds) {
+        return calendarSelection(column, toStringArray(calendarIds));
+    }
+
+    @Nullable
+    private static String calendarSelection(String column, @Nullable String[] calendarIds) {
+        if (calendarIds == null || calendarIds.length == 0) {
+            return null;
         }
         
-        event.putString("url", cursor.getString(10));
-        
-        // Get alarms
-        WritableArray alarms = getEventReminders(cursor.getString(0));
-        if (alarms.size() > 0) {
-            event.putArray("alarms", alarms);
+        StringBuilder selection = new StringBuilder(column + " IN (");
+        for (int i = 0; i < calendarIds.length; i++) {
+            if (i > 0) selection.append(",");
+            selection.append(Long.parseLong(calendarIds[i]));
         }
-        
-        return event;
+        selection.append(")");
+        return selection.toString();
     }
 
-    private WritableArray getEventReminders(String eventId) {
-        WritableArray alarms = Arguments.createArray();
-        ContentResolver cr = getReactApplicationContext().getContentResolver();
-        
-        Cursor cursor = cr.query(Reminders.CONTENT_URI,
-            new String[] { Reminders.MINUTES },
-            Reminders.EVENT_ID + " = ?",
-            new String[] { eventId },
-            null);
-        
-        if (cursor != null) {
-            while (cursor.moveToNext()) {
-                WritableMap alarm = Arguments.createMap();
-                alarm.putInt("minutes", cursor.getInt(0));
-                alarms.pushMap(alarm);
-            }
-            cursor.close();
+    private static String placeholders(int count) {
+        StringBuilder builder = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) builder.append(",");
+            builder.append("?");
         }
-        
-        return alarms;
+        return builder.toString();
     }
 
     private void addReminder(String eventId, ReadableMap alarm) {
         ContentResolver cr = getReactApplicationContext().getContentResolver();
-        ContentValues values = new ContentValues();
-        
+        ContentValues values = reminderValues(alarm);
         values.put(Reminders.EVENT_ID, Long.parseLong(eventId));
+
+        cr.insert(Reminders.CONTENT_URI, values);
+        Metrics.countWrites(1);
+    }
+
+    private static ContentValues reminderValues(ReadableMap alarm) {
+        ContentValues values = new ContentValues();
         values.put(Reminders.METHOD, Reminders.METHOD_ALERT);
         
         if (alarm.hasKey("minutes")) {
@@ -497,7 +2509,68 @@ public class CalendarEventsNativeModule extends ReactContextBaseJavaModule {
             values.put(Reminders.MINUTES, 15); // Default 15 minutes
         }
         
-        cr.insert(Reminders.CONTENT_URI, values);
+        return values;
+    }
+
+    /** Reminder rows for eventMap.alarms, empty when absent; throws on malformed alarms. */
+    private static List<ContentValues> alarmReminders(ReadableMap eventMap) {
+        ReadableArray alarms = eventMap.hasKey("alarms") && !eventMap.isNull("alarms")
+            ? eventMap.getArray("alarms") : null;
+        if (alarms == null) {
+            return Collections.emptyList();
+        }
+        List<ContentValues> reminders = new ArrayList<>(alarms.size());
+        for (int i = 0; i < alarms.size(); i++) {
+            reminders.add(reminderValues(alarms.getMap(i)));
+        }
+        return reminders;
+    }
+
+    /** The given event ids that exist, with one Events query per MAX_SELECTION_ARGS ids. */
+    private static Set<Long> existingEventIds(ContentResolver cr, List<Long> eventIds,
+                                              @Nullable CancellationSignal signal) {
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < eventIds.size(); from += MAX_SELECTION_ARGS) {
+            String[] selectionArgs = idArgs(eventIds, from, Math.min(from + MAX_SELECTION_ARGS, eventIds.size()));
+            Cursor cursor = Metrics.query(cr, Events.CONTENT_URI, new String[] { Events._ID },
+                Events._ID + " IN (" + placeholders(selectionArgs.length) + ")",
+                selectionArgs,
+                null,
+                signal);
+            if (cursor != null) {
+                try {
+                    while (cursor.moveToNext()) {
+                        existing.add(cursor.getLong(0));
+                    }
+                } finally {
+                    cursor.close();
+                }
+            }
+        }
+        return existing;
+    }
+
+    private static WritableMap batchResult(@Nullable String id, @Nullable String error) {
+        WritableMap result = Arguments.createMap();
+        result.putString("id", id);
+        result.putString("error", error);
+        return result;
+    }
+
+    /**
+     * Result for an update/delete item: succeeds when its primary operation touched
+     * at least one row.
+     */
+    private static WritableMap countedBatchResult(BatchWriter batch, int index, @Nullable String id,
+                                                  String defaultError) {
+        ContentProviderResult result = batch.result(index);
+        if (batch.error(index) != null) {
+            return batchResult(id, batch.error(index));
+        }
+        if (result == null || result.count == null) {
+            return batchResult(id, defaultError);
+        }
+        return batchResult(id, result.count > 0 ? null : "Event not found");
     }
 
     private String buildRRule(ReadableMap recurrence) {
@@ -522,154 +2595,347 @@ public class CalendarEventsNativeModule extends ReactContextBaseJavaModule {
         
         if (recurrence.hasKey("endDate")) {
             long endMillis = parseDate(recurrence.getString("endDate"));
-            SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd'T'HHmmss'Z'", Locale.US);
-            format.setTimeZone(TimeZone.getTimeZone("UTC"));
-            rrule.append(";UNTIL=").append(format.format(new Date(endMillis)));
+            rrule.append(";UNTIL=").append(Iso8601.formatBasic(endMillis));
         } else if (recurrence.hasKey("occurrence")) {
             rrule.append(";COUNT=").append(recurrence.getInt("occurrence"));
         }
         
+        if (recurrence.hasKey("daysOfWeek")) {
+            ReadableArray days = recurrence.getArray("daysOfWeek");
+            StringBuilder byDay = new StringBuilder();
+            for (int i = 0; i < days.size(); i++) {
+                ReadableMap day = days.getMap(i);
+                int dayOfWeek = day.getInt("dayOfWeek");
+                if (dayOfWeek < 1 || dayOfWeek > 7) {
+                    throw new IllegalArgumentException("dayOfWeek must be 1 (Sunday) to 7 (Saturday)");
+                }
+                if (i > 0) byDay.append(",");
+                if (day.hasKey("weekNumber") && day.getInt("weekNumber") != 0) {
+                    byDay.append(day.getInt("weekNumber"));
+                }
+                byDay.append(RRule.weekdayCode((dayOfWeek + 5) % 7));
+            }
+            rrule.append(";BYDAY=").append(byDay);
+        }
+
+        appendRRuleList(rrule, "BYMONTHDAY", recurrence, "daysOfMonth");
+        appendRRuleList(rrule, "BYMONTH", recurrence, "monthsOfYear");
+        appendRRuleList(rrule, "BYYEARDAY", recurrence, "daysOfYear");
+        appendRRuleList(rrule, "BYWEEKNO", recurrence, "weeksOfYear");
+        appendRRuleList(rrule, "BYSETPOS", recurrence, "setPositions");
+
+        // Reject rules the provider would store but no client could expand
+        if (rrule.length() > 0) {
+            RRule.compile(rrule.toString());
+        }
         return rrule.toString();
     }
 
+    private static void appendRRuleList(StringBuilder rrule, String part, ReadableMap recurrence, String key) {
+        if (!recurrence.hasKey(key) || recurrence.isNull(key)) {
+            return;
+        }
+        ReadableArray values = recurrence.getArray(key);
+        if (values.size() == 0) {
+            return;
+        }
+        rrule.append(";").append(part).append("=");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) rrule.append(",");
+            rrule.append(values.getInt(i));
+        }
+    }
+
+    /**
+     * Maps an RRULE onto the recurrence object. Weekdays use 1 (Sunday) to 7 (Saturday),
+     * as in EventKit. Rules RRule can't compile fall back to simpleRecurrence.
+     */
     private WritableMap parseRRule(String rrule) {
+        RRule rule;
+        try {
+            rule = RRule.compile(rrule);
+        } catch (IllegalArgumentException e) {
+            Log.w(NAME, "Reading only FREQ, INTERVAL, COUNT and UNTIL of " + rrule, e);
+            return simpleRecurrence(rrule);
+        }
+
         WritableMap recurrence = Arguments.createMap();
+        recurrence.putString("frequency", RRule.frequencyName(rule.frequency).toLowerCase(Locale.ROOT));
+        if (rule.hasInterval) {
+            recurrence.putInt("interval", rule.interval);
+        }
+        if (rule.count > 0) {
+            recurrence.putInt("occurrence", rule.count);
+        }
+        if (rule.until != Long.MAX_VALUE) {
+            recurrence.putString("endDate", formatDate(rule.untilMillis(TimeZone.getDefault())));
+        }
         
-        String[] parts = rrule.split(";");
-        for (String part : parts) {
-            String[] keyValue = part.split("=");
-            if (keyValue.length == 2) {
-                String key = keyValue[0];
-                String value = keyValue[1];
-                
-                if ("FREQ".equals(key)) {
-                    String frequency = "daily";
-                    if ("WEEKLY".equals(value)) {
-                        frequency = "weekly";
-                    } else if ("MONTHLY".equals(value)) {
-                        frequency = "monthly";
-                    } else if ("YEARLY".equals(value)) {
-                        frequency = "yearly";
-                    }
-                    recurrence.putString("frequency", frequency);
-                } else if ("INTERVAL".equals(key)) {
-                    recurrence.putInt("interval", Integer.parseInt(value));
-                } else if ("COUNT".equals(key)) {
-                    recurrence.putInt("occurrence", Integer.parseInt(value));
+        if (rule.byDayWeekday.length > 0) {
+            WritableArray days = Arguments.createArray();
+            for (int i = 0; i < rule.byDayWeekday.length; i++) {
+                WritableMap day = Arguments.createMap();
+                day.putInt("dayOfWeek", (rule.byDayWeekday[i] + 1) % 7 + 1);
+                if (rule.byDayOrdinal[i] != 0) {
+                    day.putInt("weekNumber", rule.byDayOrdinal[i]);
                 }
+                days.pushMap(day);
             }
+            recurrence.putArray("daysOfWeek", days);
         }
+        putIntArray(recurrence, "daysOfMonth", rule.byMonthDay);
+        putIntArray(recurrence, "monthsOfYear", rule.byMonth);
+        putIntArray(recurrence, "daysOfYear", rule.byYearDay);
+        putIntArray(recurrence, "weeksOfYear", rule.byWeekNo);
+        putIntArray(recurrence, "setPositions", rule.bySetPos);
         
         return recurrence;
     }
 
-    private long parseDate(String dateString) {
-        try {
-            return ISO_8601_FORMAT.parse(dateString).getTime();
-        } catch (ParseException e) {
-            return System.currentTimeMillis();
+    /**
+     * FREQ, INTERVAL, COUNT and UNTIL read part by part, as before rules were compiled.
+     * Unknown frequencies read as daily; parts that can't be read are left out.
+     */
+    private WritableMap simpleRecurrence(String rrule) {
+        WritableMap recurrence = Arguments.createMap();
+        String rule = rrule.startsWith("RRULE:") ? rrule.substring(6) : rrule;
+        for (String part : rule.split(";")) {
+            String[] keyValue = part.split("=");
+            if (keyValue.length != 2) {
+                continue;
+            }
+            String key = keyValue[0].toUpperCase(Locale.ROOT);
+            String value = keyValue[1].toUpperCase(Locale.ROOT);
+            try {
+                switch (key) {
+                    case "FREQ":
+                        boolean known = "WEEKLY".equals(value) || "MONTHLY".equals(value) || "YEARLY".equals(value);
+                        recurrence.putString("frequency", known ? value.toLowerCase(Locale.ROOT) : "daily");
+                        break;
+                    case "INTERVAL":
+                        recurrence.putInt("interval", Integer.parseInt(value));
+                        break;
+                    case "COUNT":
+                        recurrence.putInt("occurrence", Integer.parseInt(value));
+                        break;
+                    case "UNTIL":
+                        recurrence.putString("endDate", formatDate(RRule.parseUntilMillis(value, TimeZone.getDefault())));
+                        break;
+                    default:
+                        break;
+                }
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException included; skip the part
+            }
+        }
+        return recurrence;
+    }
+
+    private IntervalTree<ConflictIndex.Occurrence> conflictTree(@Nullable final String[] calendarIds,
+                                                                long startMillis, long endMillis,
+                                                                @Nullable final CancellationSignal signal) {
+        if (calendarIds != null) {
+            // Fail before any load on malformed ids
+            calendarSelection(Instances.CALENDAR_ID, calendarIds);
+        }
+        observeProvider(conflictIndex);
+        return conflictIndex.tree(EventCache.calendarKey(calendarIds), startMillis, endMillis,
+            startMillis - CONFLICT_WINDOW_PADDING, endMillis + CONFLICT_WINDOW_PADDING,
+            (loadStart, loadEnd) -> loadOccurrences(loadStart, loadEnd, calendarIds, signal));
+    }
+
+    private static WritableArray conflicts(IntervalTree<ConflictIndex.Occurrence> tree, long startMillis,
+                                           long endMillis, @Nullable ReadableMap options) {
+        long excludeEventId = hasValue(options, "excludeEventId")
+            ? Long.parseLong(options.getString("excludeEventId")) : -1;
+        boolean includeFree = hasValue(options, "includeFree") && options.getBoolean("includeFree");
+        boolean includeAllDay = hasValue(options, "includeAllDay") && options.getBoolean("includeAllDay");
+
+        List<ConflictIndex.Occurrence> overlapping = new ArrayList<>();
+        tree.query(startMillis, endMillis, overlapping);
+
+        WritableArray conflicts = Arguments.createArray();
+        for (ConflictIndex.Occurrence occurrence : overlapping) {
+            if (occurrence.eventId == excludeEventId
+                || (!includeFree && occurrence.availability == Events.AVAILABILITY_FREE)
+                || (!includeAllDay && occurrence.allDay)) {
+                continue;
+            }
+            WritableMap conflict = Arguments.createMap();
+            conflict.putString("id", String.valueOf(occurrence.instanceId));
+            conflict.putString("eventId", String.valueOf(occurrence.eventId));
+            conflict.putString("title", occurrence.title);
+            conflict.putString("startDate", formatDate(occurrence.begin));
+            conflict.putString("endDate", formatDate(occurrence.end));
+            conflict.putBoolean("allDay", occurrence.allDay);
+            conflicts.pushMap(conflict);
+        }
+        return conflicts;
+    }
+
+    private static WritableArray serializeIntervals(List<FreeBusy.Interval> intervals, boolean withTentative) {
+        WritableArray array = Arguments.createArray();
+        for (FreeBusy.Interval interval : intervals) {
+            WritableMap map = Arguments.createMap();
+            map.putString("startDate", formatDate(interval.start));
+            map.putString("endDate", formatDate(interval.end));
+            if (withTentative) {
+                map.putBoolean("tentative", interval.tentative);
+            }
+            array.pushMap(map);
+        }
+        return array;
+    }
+
+    private static void putIntArray(WritableMap map, String key, int[] values) {
+        if (values.length == 0) {
+            return;
+        }
+        WritableArray array = Arguments.createArray();
+        for (int value : values) {
+            array.pushInt(value);
         }
+        map.putArray(key, array);
     }
 
-    private String formatDate(long millis) {
-        return ISO_8601_FORMAT.format(new Date(millis));
+    /**
+     * Parses an ISO-8601 date; throws IllegalArgumentException for malformed input,
+     * which provider tasks surface as INVALID_ARGUMENT.
+     */
+    private static long parseDate(String dateString) {
+        return Iso8601.parse(dateString);
+    }
+
+    private static String formatDate(long millis) {
+        return Iso8601.format(millis);
     }
 
     private long getDefaultCalendarId() {
+        // Primary calendar, else the first one, else 1
         ContentResolver cr = getReactApplicationContext().getContentResolver();
-        Cursor cursor = cr.query(Calendars.CONTENT_URI,
-            new String[] { Calendars._ID },
-            Calendars.IS_PRIMARY + " = 1",
-            null, null);
-        
-        if (cursor != null && cursor.moveToFirst()) {
-            long id = cursor.getLong(0);
-            cursor.close();
-            return id;
+        return calendarRegistry().defaultCalendarId(cr);
+    }
+
+    /**
+     * The calendar registry, with its change observer registered before first use.
+     * The platform notifies event changes on the root URI, which this observer
+     * receives too; the registry skips those caused by the module's own writes.
+     */
+    private CalendarRegistry calendarRegistry() {
+        synchronized (this) {
+            if (calendarObserver == null) {
+                calendarObserver = new ProviderObserver(getReactApplicationContext().getContentResolver(),
+                    Calendars.CONTENT_URI);
+            }
+            calendarObserver.addListener(calendarRegistry);
         }
+        return calendarRegistry;
+    }
+
+    private WritableArray serializeCalendars(List<CalendarRegistry.CalendarInfo> infos) {
+        WritableArray calendars = Arguments.createArray();
         
-        // If no primary calendar, get the first one
-        cursor = cr.query(Calendars.CONTENT_URI,
-            new String[] { Calendars._ID },
-            null, null, null);
-        
-        if (cursor != null && cursor.moveToFirst()) {
-            long id = cursor.getLong(0);
-            cursor.close();
-            return id;
+        for (CalendarRegistry.CalendarInfo info : infos) {
+            WritableMap calendar = Arguments.createMap();
+            calendar.putString("id", String.valueOf(info.id));
+            calendar.putString("title", info.displayName);
+            calendar.putString("source", info.accountName);
+            calendar.putString("type", info.accountType);
+            calendar.putBoolean("isPrimary", info.primary);
+            calendar.putString("color", String.format("#%06X", (0xFFFFFF & info.color)));
+            calendar.putBoolean("allowsModifications",
+                info.accessLevel >= CalendarContract.Calendars.CAL_ACCESS_CONTRIBUTOR);
+
+            WritableArray availabilities = Arguments.createArray();
+            availabilities.pushString("busy");
+            availabilities.pushString("free");
+            calendar.putArray("allowedAvailabilities", availabilities);
+
+            calendars.pushMap(calendar);
         }
         
-        return 1; // Default fallback
+        return calendars;
     }
 
     @ReactMethod
-    public void saveEvent(String title, String startDate, String endDate, 
-                         String location, String notes, String calendarId, Promise promise) {
-        ContentResolver cr = getReactApplicationContext().getContentResolver();
-        
-        ContentValues values = new ContentValues();
-        values.put(Events.TITLE, title);
-        values.put(Events.DESCRIPTION, notes);
-        values.put(Events.EVENT_LOCATION, location);
-        
-        try {
-            long startMillis = ISO_8601_FORMAT.parse(startDate).getTime();
-            long endMillis = ISO_8601_FORMAT.parse(endDate).getTime();
+    public void saveEvent(final String title, final String startDate, final String endDate,
+                         final String location, final String notes, final String calendarId, Promise untracked) {
+        final Promise promise = metrics.track("saveEvent", untracked);
+        write(promise, signal -> {
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
             
-            values.put(Events.DTSTART, startMillis);
-            values.put(Events.DTEND, endMillis);
-            values.put(Events.EVENT_TIMEZONE, TimeZone.getDefault().getID());
+            ContentValues values = new ContentValues();
+            values.put(Events.TITLE, title);
+            values.put(Events.DESCRIPTION, notes);
+            values.put(Events.EVENT_LOCATION, location);
             
-            // Use provided calendar or default
-            long calId = TextUtils.isEmpty(calendarId) ? getDefaultCalendarId() : Long.parseLong(calendarId);
-            values.put(Events.CALENDAR_ID, calId);
+            long startMillis;
+            long endMillis;
+            try {
+                startMillis = parseDate(startDate);
+                endMillis = parseDate(endDate);
+            } catch (IllegalArgumentException e) {
+                promise.reject("date_parse_error", "Invalid date format", e);
+                return;
+            }
             
-            Uri uri = cr.insert(Events.CONTENT_URI, values);
-            if (uri != null) {
-                String eventId = uri.getLastPathSegment();
-                promise.resolve(eventId);
-            } else {
-                promise.reject("event_save_failed", "Failed to save event");
+            try {
+                values.put(Events.DTSTART, startMillis);
+                values.put(Events.DTEND, endMillis);
+                values.put(Events.EVENT_TIMEZONE, TimeZone.getDefault().getID());
+
+                // Use provided calendar or default
+                long calId = TextUtils.isEmpty(calendarId) ? getDefaultCalendarId() : Long.parseLong(calendarId);
+                values.put(Events.CALENDAR_ID, calId);
+
+                Uri uri = cr.insert(Events.CONTENT_URI, values);
+                Metrics.countWrites(1);
+                if (uri != null) {
+                    String eventId = uri.getLastPathSegment();
+                    promise.resolve(eventId);
+                } else {
+                    promise.reject("event_save_failed", "Failed to save event");
+                }
+            } catch (Exception e) {
+                promise.reject("event_save_failed", "Failed to save event", e);
             }
-        } catch (ParseException e) {
-            promise.reject("date_parse_error", "Invalid date format", e);
-        } catch (Exception e) {
-            promise.reject("event_save_failed", "Failed to save event", e);
-        }
+        });
     }
 
     @ReactMethod
-    public void updateEvent(String eventId, String title, String startDate, String endDate,
-                           String location, String notes, String calendarId, Promise promise) {
-        ContentResolver cr = getReactApplicationContext().getContentResolver();
-        Uri uri = ContentUris.withAppendedId(Events.CONTENT_URI, Long.parseLong(eventId));
-        
-        ContentValues values = new ContentValues();
-        if (!TextUtils.isEmpty(title)) values.put(Events.TITLE, title);
-        if (!TextUtils.isEmpty(notes)) values.put(Events.DESCRIPTION, notes);
-        if (!TextUtils.isEmpty(location)) values.put(Events.EVENT_LOCATION, location);
-        
-        try {
-            if (!TextUtils.isEmpty(startDate)) {
-                long startMillis = ISO_8601_FORMAT.parse(startDate).getTime();
-                values.put(Events.DTSTART, startMillis);
-            }
-            if (!TextUtils.isEmpty(endDate)) {
-                long endMillis = ISO_8601_FORMAT.parse(endDate).getTime();
-                values.put(Events.DTEND, endMillis);
-            }
-            if (!TextUtils.isEmpty(calendarId)) {
-                values.put(Events.CALENDAR_ID, Long.parseLong(calendarId));
-            }
+    public void updateEvent(final String eventId, final String title, final String startDate, final String endDate,
+                           final String location, final String notes, final String calendarId, Promise untracked) {
+        final Promise promise = metrics.track("updateEvent", untracked);
+        write(promise, signal -> {
+            ContentResolver cr = getReactApplicationContext().getContentResolver();
+            Uri uri = ContentUris.withAppendedId(Events.CONTENT_URI, Long.parseLong(eventId));
             
-            int rowsUpdated = cr.update(uri, values, null, null);
-            if (rowsUpdated > 0) {
-                promise.resolve(eventId);
-            } else {
-                promise.reject("event_update_failed", "No rows updated");
+            ContentValues values = new ContentValues();
+            if (!TextUtils.isEmpty(title)) values.put(Events.TITLE, title);
+            if (!TextUtils.isEmpty(notes)) values.put(Events.DESCRIPTION, notes);
+            if (!TextUtils.isEmpty(location)) values.put(Events.EVENT_LOCATION, location);
+
+            try {
+                if (!TextUtils.isEmpty(startDate)) {
+                    values.put(Events.DTSTART, parseDate(startDate));
+                }
+                if (!TextUtils.isEmpty(endDate)) {
+                    values.put(Events.DTEND, parseDate(endDate));
+                }
+                if (!TextUtils.isEmpty(calendarId)) {
+                    values.put(Events.CALENDAR_ID, Long.parseLong(calendarId));
+                }
+
+                int rowsUpdated = cr.update(uri, values, null, null);
+                Metrics.countWrites(1);
+                if (rowsUpdated > 0) {
+                    promise.resolve(eventId);
+                } else {
+                    promise.reject("event_update_failed", "No rows updated");
+                }
+            } catch (Exception e) {
+                promise.reject("event_update_failed", "Failed to update event", e);
             }
-        } catch (Exception e) {
-            promise.reject("event_update_failed", "Failed to update event", e);
-        }
+        });
     }
 }
\ No newline at end of file
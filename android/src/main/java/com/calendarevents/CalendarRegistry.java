@@ -0,0 +1,156 @@
+package com.calendarevents;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import android.os.SystemClock;
+import android.provider.CalendarContract.Calendars;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * In-memory copy of the Calendars table. It is loaded lazily with one query and
+ * dropped on provider change notifications, so calendar lookups, default calendar
+ * resolution and fetchAllCalendars normally cost no provider round trip.
+ *
+ * The platform provider notifies every change on its root URI, which reaches this
+ * registry's Calendars-only observer too, so notifications can't tell calendar
+ * changes from event ones. Notifications arriving while one of the module's own
+ * writes runs, or within OWN_WRITE_QUIET_MS after it, are taken to be that write's
+ * and ignored; writes that touch Calendars invalidate explicitly instead. A calendar
+ * change from another app inside that window is only picked up on the next change.
+ */
+final class CalendarRegistry implements ProviderObserver.Listener {
+    static final String[] PROJECTION = new String[] {
+        Calendars._ID,
+        Calendars.CALENDAR_DISPLAY_NAME,
+        Calendars.ACCOUNT_NAME,
+        Calendars.ACCOUNT_TYPE,
+        Calendars.IS_PRIMARY,
+        Calendars.CALENDAR_COLOR,
+        Calendars.CALENDAR_ACCESS_LEVEL
+    };
+
+    static final class CalendarInfo {
+        final long id;
+        @Nullable final String displayName;
+        @Nullable final String accountName;
+        @Nullable final String accountType;
+        final boolean primary;
+        final int color;
+        final int accessLevel;
+
+        CalendarInfo(Cursor cursor) {
+            this.id = cursor.getLong(0);
+            this.displayName = cursor.getString(1);
+            this.accountName = cursor.getString(2);
+            this.accountType = cursor.getString(3);
+            this.primary = cursor.getInt(4) == 1;
+            this.color = cursor.getInt(5);
+            this.accessLevel = cursor.getInt(6);
+        }
+    }
+
+    // Notifications are delivered asynchronously, shortly after the write returns
+    static final long OWN_WRITE_QUIET_MS = 1000;
+
+    @Nullable private volatile List<CalendarInfo> calendars;
+    private long generation;
+    private int writesInFlight;
+    private long lastWriteEndMillis = -OWN_WRITE_QUIET_MS;
+
+    /**
+     * All calendars, loading them first if the registry is cold.
+     */
+    List<CalendarInfo> calendars(ContentResolver cr, @Nullable CancellationSignal signal) {
+        List<CalendarInfo> snapshot = calendars;
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+
+        List<CalendarInfo> loaded = new ArrayList<>();
+        Cursor cursor = Metrics.query(cr, Calendars.CONTENT_URI, PROJECTION, null, null, null, signal);
+        if (cursor != null) {
+            try {
+                while (cursor.moveToNext()) {
+                    loaded.add(new CalendarInfo(cursor));
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        loaded = Collections.unmodifiableList(loaded);
+
+        synchronized (this) {
+            // A change that arrived mid-load leaves the registry cold
+            if (loadGeneration == generation) {
+                calendars = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * The cached calendars, or null when the registry is cold.
+     */
+    @Nullable
+    List<CalendarInfo> cachedCalendars() {
+        return calendars;
+    }
+
+    @Nullable
+    CalendarInfo findByDisplayName(ContentResolver cr, String displayName) {
+        for (CalendarInfo calendar : calendars(cr, null)) {
+            if (displayName.equals(calendar.displayName)) {
+                return calendar;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The primary calendar, else the first calendar, else 1.
+     */
+    long defaultCalendarId(ContentResolver cr) {
+        List<CalendarInfo> all = calendars(cr, null);
+        for (CalendarInfo calendar : all) {
+            if (calendar.primary) {
+                return calendar.id;
+            }
+        }
+        return all.isEmpty() ? 1 : all.get(0).id;
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        calendars = null;
+    }
+
+    synchronized void beginWrite() {
+        writesInFlight++;
+    }
+
+    synchronized void endWrite() {
+        writesInFlight--;
+        lastWriteEndMillis = SystemClock.uptimeMillis();
+    }
+
+    @Override
+    public void onProviderChange() {
+        synchronized (this) {
+            if (writesInFlight > 0 || SystemClock.uptimeMillis() - lastWriteEndMillis < OWN_WRITE_QUIET_MS) {
+                return;
+            }
+        }
+        invalidate();
+    }
+}
@@ -0,0 +1,127 @@
+package com.calendarevents;
+
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interval trees over loaded occurrence windows, so repeated conflict checks are
+ * answered in memory instead of with one provider query each. Windows are kept per
+ * calendar filter (a few at most, least recently used first out) and reused for any
+ * query they cover.
+ *
+ * Like EventCache, it is cleared on every provider change and while the module's own
+ * writes are in flight, and a generation counter keeps a load that raced with a
+ * change from being stored.
+ */
+final class ConflictIndex implements ProviderObserver.Listener {
+    private static final int MAX_WINDOWS = 4;
+
+    /** One occurrence as loaded from Instances. */
+    static final class Occurrence {
+        final long instanceId;
+        final long eventId;
+        final long begin;
+        final long end;
+        final boolean allDay;
+        final int availability;
+        @Nullable final String title;
+
+        Occurrence(long instanceId, long eventId, long begin, long end, boolean allDay, int availability,
+                   @Nullable String title) {
+            this.instanceId = instanceId;
+            this.eventId = eventId;
+            this.begin = begin;
+            this.end = end;
+            this.allDay = allDay;
+            this.availability = availability;
+            this.title = title;
+        }
+    }
+
+    static final IntervalTree.Bounds<Occurrence> BOUNDS = new IntervalTree.Bounds<Occurrence>() {
+        @Override
+        public long start(Occurrence item) {
+            return item.begin;
+        }
+
+        @Override
+        public long end(Occurrence item) {
+            // Zero-length events still conflict with a slot around them
+            return Math.max(item.end, item.begin + 1);
+        }
+    };
+
+    interface Loader {
+        List<Occurrence> load(long startMillis, long endMillis);
+    }
+
+    private static final class Window {
+        final long startMillis;
+        final long endMillis;
+        final IntervalTree<Occurrence> tree;
+
+        Window(long startMillis, long endMillis, IntervalTree<Occurrence> tree) {
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.tree = tree;
+        }
+    }
+
+    private final LinkedHashMap<String, Window> windows = new LinkedHashMap<>(MAX_WINDOWS, 0.75f, true);
+    private long generation;
+    private int writesInFlight;
+
+    /**
+     * Returns a tree covering [startMillis, endMillis) for the calendar filter, loading
+     * [loadStart, loadEnd) through the loader when no cached window covers the range.
+     */
+    IntervalTree<Occurrence> tree(String calendarKey, long startMillis, long endMillis,
+                                  long loadStart, long loadEnd, Loader loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Window window = writesInFlight > 0 ? null : windows.get(calendarKey);
+            if (window != null && window.startMillis <= startMillis && window.endMillis >= endMillis) {
+                return window.tree;
+            }
+            loadGeneration = generation;
+        }
+
+        IntervalTree<Occurrence> tree = new IntervalTree<>(loader.load(loadStart, loadEnd), BOUNDS);
+
+        synchronized (this) {
+            if (loadGeneration == generation && writesInFlight == 0) {
+                windows.put(calendarKey, new Window(loadStart, loadEnd, tree));
+                Iterator<Map.Entry<String, Window>> eldest = windows.entrySet().iterator();
+                while (windows.size() > MAX_WINDOWS && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        return tree;
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        windows.clear();
+    }
+
+    synchronized void beginWrite() {
+        writesInFlight++;
+        invalidate();
+    }
+
+    synchronized void endWrite() {
+        writesInFlight--;
+        invalidate();
+    }
+
+    @Override
+    public void onProviderChange() {
+        invalidate();
+    }
+}
@@ -0,0 +1,72 @@
+package com.calendarevents;
+
+import java.util.TimeZone;
+
+/**
+ * Counts the events touching each local day of a range in a primitive array. Each
+ * event adds a +1/-1 pair to a difference array, so multi-day events cost the same
+ * as single-day ones, and a prefix sum yields the counts. Plain Java, no provider
+ * access.
+ */
+final class DayCounts {
+    static final int MAX_DAYS = 3660;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private final TimeZone zone;
+    private final long firstDay;
+    private final int[] deltas;
+
+    /**
+     * Days from the local day of startMillis through the one holding the last millisecond
+     * before endMillis. Throws IllegalArgumentException for ranges longer than MAX_DAYS.
+     */
+    DayCounts(long startMillis, long endMillis, TimeZone zone) {
+        this.zone = zone;
+        this.firstDay = localDay(startMillis, zone);
+        long lastDay = localDay(Math.max(endMillis - 1, startMillis), zone);
+        if (lastDay - firstDay >= MAX_DAYS) {
+            throw new IllegalArgumentException("Range must span at most " + MAX_DAYS + " days");
+        }
+        this.deltas = new int[(int) (lastDay - firstDay) + 2];
+    }
+
+    /**
+     * Adds an event to every day it overlaps. All-day events are the UTC midnights the
+     * provider stores and count on those dates whatever the zone; an event without a
+     * duration counts on the day it starts.
+     */
+    void add(long begin, long end, boolean allDay) {
+        long first;
+        long last;
+        if (allDay) {
+            first = Iso8601.floorDiv(begin, MILLIS_PER_DAY);
+            last = Math.max(Iso8601.floorDiv(end, MILLIS_PER_DAY) - 1, first);
+        } else {
+            first = localDay(begin, zone);
+            last = localDay(Math.max(end - 1, begin), zone);
+        }
+        first = Math.max(first - firstDay, 0);
+        last = Math.min(last - firstDay, deltas.length - 2);
+        if (last >= first) {
+            deltas[(int) first]++;
+            deltas[(int) last + 1]--;
+        }
+    }
+
+    /** Event count per day, index 0 being the first day of the range. */
+    int[] counts() {
+        int[] counts = new int[deltas.length - 1];
+        int running = 0;
+        for (int i = 0; i < counts.length; i++) {
+            running += deltas[i];
+            counts[i] = running;
+        }
+        return counts;
+    }
+
+    /** Days since 1970-01-01 of the local date of millis. */
+    static long localDay(long millis, TimeZone zone) {
+        return Iso8601.floorDiv(millis + zone.getOffset(millis), MILLIS_PER_DAY);
+    }
+}
@@ -0,0 +1,122 @@
+package com.calendarevents;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU cache of fetched event windows keyed by (range, calendar ids, projection) and
+ * bounded by the estimated size of the cached records.
+ *
+ * Any provider change clears it (it listens to a ProviderObserver over Events,
+ * Reminders and Calendars). A generation counter guards against a query that
+ * started before a change storing its now-stale result after the clear, and
+ * lookups miss while one of the module's own writes is in flight.
+ */
+final class EventCache implements ProviderObserver.Listener {
+    static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+    private static final class Entry {
+        final List<EventRecord> events;
+        final long sizeBytes;
+
+        Entry(List<EventRecord> events, long sizeBytes) {
+            this.events = events;
+            this.sizeBytes = sizeBytes;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+    private long generation;
+    private int writesInFlight;
+
+    EventCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    static String key(long startMillis, long endMillis, @Nullable String[] calendarIds, String projection) {
+        return startMillis + "|" + endMillis + "|" + calendarKey(calendarIds) + "|" + projection;
+    }
+
+    /**
+     * Order-independent key for a calendar filter; "*" for all calendars.
+     */
+    static String calendarKey(@Nullable String[] calendarIds) {
+        if (calendarIds == null || calendarIds.length == 0) {
+            return "*";
+        }
+        String[] sorted = calendarIds.clone();
+        Arrays.sort(sorted);
+        return Arrays.toString(sorted);
+    }
+
+    @Nullable
+    synchronized List<EventRecord> get(String key) {
+        if (writesInFlight > 0) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        return entry != null ? entry.events : null;
+    }
+
+    /**
+     * The generation to pass to put for a query that is about to start.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    synchronized void put(String key, List<EventRecord> events, long queryGeneration) {
+        if (queryGeneration != generation || writesInFlight > 0) {
+            return;
+        }
+
+        long size = 64 + 2L * key.length();
+        for (EventRecord event : events) {
+            size += event.estimateSize();
+        }
+        if (size > maxBytes) {
+            return;
+        }
+
+        Entry previous = entries.put(key, new Entry(Collections.unmodifiableList(events), size));
+        if (previous != null) {
+            sizeBytes -= previous.sizeBytes;
+        }
+        sizeBytes += size;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (sizeBytes > maxBytes && eldest.hasNext()) {
+            sizeBytes -= eldest.next().getValue().sizeBytes;
+            eldest.remove();
+        }
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        entries.clear();
+        sizeBytes = 0;
+    }
+
+    synchronized void beginWrite() {
+        writesInFlight++;
+        invalidate();
+    }
+
+    synchronized void endWrite() {
+        writesInFlight--;
+        invalidate();
+    }
+
+    @Override
+    public void onProviderChange() {
+        invalidate();
+    }
+}
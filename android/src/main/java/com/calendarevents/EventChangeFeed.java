@@ -0,0 +1,212 @@
+package com.calendarevents;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches subscribed windows for provider changes and reports only what changed.
+ *
+ * Each subscription keeps a compact fingerprint of its window: sorted event ids and
+ * their EventRecord fingerprints in two parallel long arrays. Provider notifications
+ * are debounced into one re-read of every subscribed window, which is merge-walked
+ * against the previous fingerprints to produce added, changed and removed events.
+ */
+final class EventChangeFeed implements ProviderObserver.Listener {
+    static final long DEBOUNCE_MS = 300;
+    private static final String TAG = "CalendarEventsNative";
+
+    interface WindowLoader {
+        List<EventRecord> load(long startMillis, long endMillis, @Nullable String[] calendarIds);
+    }
+
+    interface Listener {
+        void onChanges(String subscriptionId, List<EventRecord> added, List<EventRecord> changed, long[] removed);
+    }
+
+    /** A subscribed window; ids and fingerprints stay null until its initial load. */
+    static final class Subscription {
+        final long startMillis;
+        final long endMillis;
+        @Nullable final String[] calendarIds;
+        @Nullable long[] ids;
+        @Nullable long[] fingerprints;
+        // A diff ran before the initial load finished
+        boolean missedDiff;
+
+        Subscription(long startMillis, long endMillis, @Nullable String[] calendarIds) {
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.calendarIds = calendarIds;
+        }
+    }
+
+    private static final Comparator<EventRecord> BY_ID = new Comparator<EventRecord>() {
+        @Override
+        public int compare(EventRecord a, EventRecord b) {
+            return a.id < b.id ? -1 : (a.id == b.id ? 0 : 1);
+        }
+    };
+
+    private final WindowLoader loader;
+    private final Listener listener;
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        ProviderExecutor.threadFactory("changes"));
+    @Nullable private ScheduledFuture<?> pendingDiff;
+
+    EventChangeFeed(WindowLoader loader, Listener listener) {
+        this.loader = loader;
+        this.listener = listener;
+    }
+
+    /**
+     * Registers the window without fingerprints, so the feed counts as non-empty and
+     * notifications during the initial load are noticed. Follow with load.
+     */
+    Subscription add(String subscriptionId, long startMillis, long endMillis, @Nullable String[] calendarIds) {
+        Subscription subscription = new Subscription(startMillis, endMillis, calendarIds);
+        subscriptions.put(subscriptionId, subscription);
+        return subscription;
+    }
+
+    /**
+     * Loads the window's initial fingerprints (on the calling thread); a diff that ran
+     * meanwhile is scheduled again. Returns the number of events currently in the window.
+     */
+    int load(Subscription subscription) {
+        List<EventRecord> events = sortedById(
+            loader.load(subscription.startMillis, subscription.endMillis, subscription.calendarIds));
+        boolean missedDiff;
+        synchronized (subscription) {
+            snapshot(subscription, events);
+            missedDiff = subscription.missedDiff;
+        }
+        if (missedDiff) {
+            onProviderChange();
+        }
+        return events.size();
+    }
+
+    boolean unsubscribe(String subscriptionId) {
+        return subscriptions.remove(subscriptionId) != null;
+    }
+
+    /** Removes the subscription unless the id has been reused since. */
+    boolean unsubscribe(String subscriptionId, Subscription subscription) {
+        return subscriptions.remove(subscriptionId, subscription);
+    }
+
+    boolean isEmpty() {
+        return subscriptions.isEmpty();
+    }
+
+    void close() {
+        subscriptions.clear();
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public synchronized void onProviderChange() {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        if (pendingDiff != null) {
+            pendingDiff.cancel(false);
+        }
+        pendingDiff = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                diffAll();
+            }
+        }, DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void diffAll() {
+        for (Map.Entry<String, Subscription> entry : subscriptions.entrySet()) {
+            try {
+                diff(entry.getKey(), entry.getValue());
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Failed to diff subscription " + entry.getKey(), e);
+            }
+        }
+    }
+
+    private void diff(String subscriptionId, Subscription subscription) {
+        synchronized (subscription) {
+            if (subscription.ids == null) {
+                // Still loading; load diffs again once it has a snapshot
+                subscription.missedDiff = true;
+                return;
+            }
+        }
+        List<EventRecord> events = sortedById(
+            loader.load(subscription.startMillis, subscription.endMillis, subscription.calendarIds));
+        long[] oldIds;
+        long[] oldFingerprints;
+        synchronized (subscription) {
+            oldIds = subscription.ids;
+            oldFingerprints = subscription.fingerprints;
+        }
+
+        List<EventRecord> added = new ArrayList<>();
+        List<EventRecord> changed = new ArrayList<>();
+        long[] removed = new long[oldIds.length];
+        int removedCount = 0;
+
+        int o = 0;
+        for (EventRecord event : events) {
+            while (o < oldIds.length && oldIds[o] < event.id) {
+                removed[removedCount++] = oldIds[o++];
+            }
+            if (o < oldIds.length && oldIds[o] == event.id) {
+                if (oldFingerprints[o] != event.fingerprint()) {
+                    changed.add(event);
+                }
+                o++;
+            } else {
+                added.add(event);
+            }
+        }
+        while (o < oldIds.length) {
+            removed[removedCount++] = oldIds[o++];
+        }
+
+        synchronized (subscription) {
+            snapshot(subscription, events);
+        }
+        if (!added.isEmpty() || !changed.isEmpty() || removedCount > 0) {
+            listener.onChanges(subscriptionId, added, changed, Arrays.copyOf(removed, removedCount));
+        }
+    }
+
+    private static void snapshot(Subscription subscription, List<EventRecord> sortedEvents) {
+        long[] ids = new long[sortedEvents.size()];
+        long[] fingerprints = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            EventRecord event = sortedEvents.get(i);
+            ids[i] = event.id;
+            fingerprints[i] = event.fingerprint();
+        }
+        subscription.ids = ids;
+        subscription.fingerprints = fingerprints;
+    }
+
+    private static List<EventRecord> sortedById(List<EventRecord> events) {
+        List<EventRecord> sorted = new ArrayList<>(events);
+        Collections.sort(sorted, BY_ID);
+        return sorted;
+    }
+}
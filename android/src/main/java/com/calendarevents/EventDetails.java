@@ -0,0 +1,138 @@
+package com.calendarevents;
+
+import android.database.Cursor;
+import android.provider.CalendarContract.Attendees;
+import android.provider.CalendarContract.Events;
+import android.provider.CalendarContract.ExtendedProperties;
+import android.provider.CalendarContract.Reminders;
+import android.text.TextUtils;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One event with its reminders, attendees and extended properties, as read by
+ * findEventDetails. The event row is read with PROJECTION; child rows are added from
+ * per-table queries whose first column is the event id.
+ */
+final class EventDetails {
+    static final String[] PROJECTION = new String[] {
+        Events._ID,
+        Events.TITLE,
+        Events.DESCRIPTION,
+        Events.DTSTART,
+        Events.DTEND,
+        Events.DURATION,
+        Events.ALL_DAY,
+        Events.EVENT_LOCATION,
+        Events.CALENDAR_ID,
+        Events.CUSTOM_APP_URI,
+        Events.EVENT_TIMEZONE,
+        Events.AVAILABILITY,
+        Events.RRULE
+    };
+    static final String[] REMINDER_PROJECTION = new String[] {
+        Reminders.EVENT_ID,
+        Reminders.MINUTES,
+        Reminders.METHOD
+    };
+    static final String[] ATTENDEE_PROJECTION = new String[] {
+        Attendees.EVENT_ID,
+        Attendees.ATTENDEE_NAME,
+        Attendees.ATTENDEE_EMAIL,
+        Attendees.ATTENDEE_TYPE,
+        Attendees.ATTENDEE_STATUS,
+        Attendees.ATTENDEE_RELATIONSHIP
+    };
+    static final String[] PROPERTY_PROJECTION = new String[] {
+        ExtendedProperties.EVENT_ID,
+        ExtendedProperties.NAME,
+        ExtendedProperties.VALUE
+    };
+
+    static final class Attendee {
+        @Nullable final String name;
+        @Nullable final String email;
+        final int type;
+        final int status;
+        final boolean organizer;
+
+        Attendee(Cursor row) {
+            this.name = row.getString(1);
+            this.email = row.getString(2);
+            this.type = row.getInt(3);
+            this.status = row.getInt(4);
+            this.organizer = row.getInt(5) == Attendees.RELATIONSHIP_ORGANIZER;
+        }
+    }
+
+    final long id;
+    @Nullable final String title;
+    @Nullable final String notes;
+    final long startMillis;
+    final long endMillis;
+    final boolean allDay;
+    @Nullable final String location;
+    final long calendarId;
+    @Nullable final String url;
+    @Nullable final String timeZone;
+    final int availability;
+    @Nullable final String rrule;
+
+    final List<int[]> reminders = new ArrayList<>(2); // { minutes, method }
+    final List<Attendee> attendees = new ArrayList<>();
+    final Map<String, String> extendedProperties = new LinkedHashMap<>();
+
+    EventDetails(Cursor cursor) {
+        this.id = cursor.getLong(0);
+        this.title = cursor.getString(1);
+        this.notes = cursor.getString(2);
+        this.startMillis = cursor.getLong(3);
+        this.endMillis = endMillis(cursor, startMillis);
+        this.allDay = cursor.getInt(6) == 1;
+        this.location = cursor.getString(7);
+        this.calendarId = cursor.getLong(8);
+        this.url = cursor.getString(9);
+        this.timeZone = cursor.getString(10);
+        this.availability = cursor.isNull(11) ? Events.AVAILABILITY_BUSY : cursor.getInt(11);
+        this.rrule = cursor.getString(12);
+    }
+
+    /** Adds a row read with REMINDER_PROJECTION. */
+    void addReminder(Cursor row) {
+        reminders.add(new int[] { row.getInt(1), row.isNull(2) ? Reminders.METHOD_DEFAULT : row.getInt(2) });
+    }
+
+    /** Adds a row read with ATTENDEE_PROJECTION. */
+    void addAttendee(Cursor row) {
+        attendees.add(new Attendee(row));
+    }
+
+    /** Adds a row read with PROPERTY_PROJECTION. */
+    void addProperty(Cursor row) {
+        String name = row.getString(1);
+        if (name != null) {
+            extendedProperties.put(name, row.getString(2));
+        }
+    }
+
+    /** DTEND, or DTSTART plus DURATION for recurring events, which store no DTEND. */
+    private static long endMillis(Cursor cursor, long startMillis) {
+        if (!cursor.isNull(4)) {
+            return cursor.getLong(4);
+        }
+        String duration = cursor.getString(5);
+        if (!TextUtils.isEmpty(duration)) {
+            try {
+                return startMillis + IcsReader.durationMillis(duration);
+            } catch (IllegalArgumentException e) {
+                // Unreadable durations fall back to a zero-length event
+            }
+        }
+        return startMillis;
+    }
+}
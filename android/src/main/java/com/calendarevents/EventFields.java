@@ -0,0 +1,117 @@
+package com.calendarevents;
+
+import android.provider.CalendarContract.Events;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The event fields a caller asked for (options.fields), as a bit mask over the
+ * serialized keys. The mask drives the Events projection, which keys serializeEvent
+ * writes, and whether reminders are loaded at all. The event id is always included.
+ */
+final class EventFields {
+    static final int ID = 1;
+    static final int TITLE = 1 << 1;
+    static final int NOTES = 1 << 2;
+    static final int START_DATE = 1 << 3;
+    static final int END_DATE = 1 << 4;
+    static final int ALL_DAY = 1 << 5;
+    static final int LOCATION = 1 << 6;
+    static final int CALENDAR = 1 << 7;
+    static final int AVAILABILITY = 1 << 8;
+    static final int RECURRENCE = 1 << 9;
+    static final int URL = 1 << 10;
+    static final int ALARMS = 1 << 11;
+    static final int ALL = (1 << 12) - 1;
+
+    // Serialized key and Events column per field bit; alarms come from Reminders
+    private static final String[] NAMES = new String[] {
+        "id", "title", "notes", "startDate", "endDate", "allDay",
+        "location", "calendar", "availability", "recurrence", "url", "alarms"
+    };
+    private static final String[] COLUMNS = new String[] {
+        Events._ID, Events.TITLE, Events.DESCRIPTION, Events.DTSTART, Events.DTEND, Events.ALL_DAY,
+        Events.EVENT_LOCATION, Events.CALENDAR_ID, Events.AVAILABILITY, Events.RRULE, Events.CUSTOM_APP_URI, null
+    };
+
+    static final EventFields DEFAULT = new EventFields(ALL, ALL);
+
+    /** Fields serialized to JS. */
+    final int mask;
+    /** Events columns queried, in cursor order; a superset of mask. */
+    final String[] projection;
+    private final int columns;
+    private final int[] columnIndex = new int[NAMES.length];
+
+    private EventFields(int mask, int columns) {
+        this.mask = mask | ID;
+        this.columns = columns | this.mask;
+
+        List<String> projected = new ArrayList<>(COLUMNS.length);
+        for (int bit = 0; bit < COLUMNS.length; bit++) {
+            columnIndex[bit] = -1;
+            if ((this.columns & (1 << bit)) != 0 && COLUMNS[bit] != null) {
+                columnIndex[bit] = projected.size();
+                projected.add(COLUMNS[bit]);
+            }
+        }
+        this.projection = projected.toArray(new String[0]);
+    }
+
+    /**
+     * Reads options.fields; absent or null means every field. Unknown names throw
+     * IllegalArgumentException.
+     */
+    static EventFields from(@Nullable ReadableMap options) {
+        if (options == null || !options.hasKey("fields") || options.isNull("fields")) {
+            return DEFAULT;
+        }
+        ReadableArray names = options.getArray("fields");
+        int mask = 0;
+        for (int i = 0; i < names.size(); i++) {
+            mask |= bit(names.getString(i));
+        }
+        return mask == ALL ? DEFAULT : new EventFields(mask, mask);
+    }
+
+    /**
+     * The same serialized fields, additionally projecting the given columns (such
+     * as DTSTART for page tokens).
+     */
+    EventFields withColumns(int fields) {
+        return (columns & fields) == fields ? this : new EventFields(mask, columns | fields);
+    }
+
+    boolean has(int field) {
+        return (mask & field) != 0;
+    }
+
+    /**
+     * Cursor column index of a single field bit, or -1 when it isn't projected.
+     */
+    int column(int field) {
+        return columnIndex[Integer.numberOfTrailingZeros(field)];
+    }
+
+    /**
+     * Stable identifier for cache keys.
+     */
+    String key() {
+        return Integer.toHexString(mask) + "/" + Integer.toHexString(columns);
+    }
+
+    private static int bit(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) {
+                return 1 << i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown event field: " + name);
+    }
+}
@@ -0,0 +1,126 @@
+package com.calendarevents;
+
+import android.database.Cursor;
+
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One Events row as read from the provider, kept as plain Java values so results can
+ * be cached and re-serialized; a WritableMap can only be sent across the bridge once.
+ * Columns left out of the query's EventFields projection read as null or 0.
+ */
+final class EventRecord {
+    private static final int[] NO_ALARMS = new int[0];
+
+    final long id;
+    @Nullable final String title;
+    @Nullable final String notes;
+    final long startMillis;
+    final long endMillis;
+    final boolean allDay;
+    @Nullable final String location;
+    final long calendarId;
+    final int availability;
+    @Nullable final String rrule;
+    @Nullable final String url;
+    final int[] alarmMinutes;
+
+    private EventRecord(Cursor cursor, EventFields fields, int[] alarmMinutes) {
+        this.id = cursor.getLong(0);
+        this.title = string(cursor, fields.column(EventFields.TITLE));
+        this.notes = string(cursor, fields.column(EventFields.NOTES));
+        this.startMillis = number(cursor, fields.column(EventFields.START_DATE));
+        this.endMillis = number(cursor, fields.column(EventFields.END_DATE));
+        this.allDay = number(cursor, fields.column(EventFields.ALL_DAY)) == 1;
+        this.location = string(cursor, fields.column(EventFields.LOCATION));
+        this.calendarId = number(cursor, fields.column(EventFields.CALENDAR));
+        this.availability = (int) number(cursor, fields.column(EventFields.AVAILABILITY));
+        this.rrule = string(cursor, fields.column(EventFields.RECURRENCE));
+        this.url = string(cursor, fields.column(EventFields.URL));
+        this.alarmMinutes = alarmMinutes;
+    }
+
+    /**
+     * Reads the current row of a cursor over fields.projection, taking alarms from
+     * the batch-loaded reminders map.
+     */
+    static EventRecord from(Cursor cursor, EventFields fields, Map<Long, List<Integer>> reminders) {
+        List<Integer> minutes = reminders.get(cursor.getLong(0));
+        int[] alarms = NO_ALARMS;
+        if (minutes != null && !minutes.isEmpty()) {
+            alarms = new int[minutes.size()];
+            for (int i = 0; i < alarms.length; i++) {
+                alarms[i] = minutes.get(i);
+            }
+        }
+        return new EventRecord(cursor, fields, alarms);
+    }
+
+    @Nullable
+    private static String string(Cursor cursor, int column) {
+        return column >= 0 ? cursor.getString(column) : null;
+    }
+
+    private static long number(Cursor cursor, int column) {
+        return column >= 0 ? cursor.getLong(column) : 0;
+    }
+
+    /**
+     * 64-bit FNV-1a hash over every serialized column and the alarm minutes, so two
+     * records with equal fingerprints serialize identically (barring collisions).
+     */
+    long fingerprint() {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, startMillis);
+        hash = mix(hash, endMillis);
+        hash = mix(hash, allDay ? 1 : 0);
+        hash = mix(hash, calendarId);
+        hash = mix(hash, availability);
+        hash = mix(hash, title);
+        hash = mix(hash, notes);
+        hash = mix(hash, location);
+        hash = mix(hash, rrule);
+        hash = mix(hash, url);
+        for (int minutes : alarmMinutes) {
+            hash = mix(hash, minutes);
+        }
+        return hash;
+    }
+
+    static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static long mix(long hash, @Nullable String value) {
+        if (value == null) {
+            return mix(hash, -1L);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash ^= c & 0xff;
+            hash *= 0x100000001b3L;
+            hash ^= c >>> 8;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash, value.length());
+    }
+
+    /**
+     * Rough retained size in bytes, used to bound caches.
+     */
+    int estimateSize() {
+        return 96 + 4 * alarmMinutes.length
+            + sizeOf(title) + sizeOf(notes) + sizeOf(location) + sizeOf(rrule) + sizeOf(url);
+    }
+
+    private static int sizeOf(@Nullable String value) {
+        return value == null ? 0 : 40 + 2 * value.length();
+    }
+}
@@ -0,0 +1,204 @@
+package com.calendarevents;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import android.provider.CalendarContract.Events;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keys and content hashing for syncEvents. A synced event is described by the columns
+ * in PROJECTION after its id and key; hashing the values about to be written and the
+ * row already stored the same way tells whether the row needs an update without
+ * comparing field by field. Alarms are compared separately, as sorted minute lists.
+ *
+ * External keys are stored in UID_2445 behind KEY_PREFIX. Sync adapters and .ics
+ * imports fill UID_2445 with their own UIDs, so only prefixed values mark events that
+ * syncEvents wrote; everything else in the calendar is left alone.
+ */
+final class EventSync {
+    static final String KEY_PREFIX = "calendarevents-sync:";
+    // Every prefixed key sorts in [KEY_PREFIX, KEY_END): ';' follows ':'
+    static final String KEY_END = "calendarevents-sync;";
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private static final String[] STRING_COLUMNS = new String[] {
+        Events.TITLE,
+        Events.EVENT_LOCATION,
+        Events.DESCRIPTION,
+        Events.CUSTOM_APP_URI,
+        Events.RRULE,
+        Events.DURATION,
+        Events.EVENT_TIMEZONE
+    };
+    private static final String[] NUMBER_COLUMNS = new String[] {
+        Events.DTSTART,
+        Events.DTEND,
+        Events.ALL_DAY,
+        Events.AVAILABILITY
+    };
+
+    /** _ID, UID_2445, then the string columns and the number columns. */
+    static final String[] PROJECTION;
+
+    static {
+        PROJECTION = new String[2 + STRING_COLUMNS.length + NUMBER_COLUMNS.length];
+        PROJECTION[0] = Events._ID;
+        PROJECTION[1] = Events.UID_2445;
+        System.arraycopy(STRING_COLUMNS, 0, PROJECTION, 2, STRING_COLUMNS.length);
+        System.arraycopy(NUMBER_COLUMNS, 0, PROJECTION, 2 + STRING_COLUMNS.length, NUMBER_COLUMNS.length);
+    }
+
+    private EventSync() {
+    }
+
+    /**
+     * Fills in every hashed column the event left out, so a sync replaces the stored
+     * event as a whole instead of merging into it. Recurring events keep their length
+     * in DURATION with no DTEND, the form the provider stores them in.
+     *
+     * All-day events are put in the form the provider rewrites them to, so their
+     * stored rows hash the same as the input: start and end move back to UTC midnight,
+     * the zone becomes UTC and the DURATION of recurring ones is rounded up to whole
+     * days (P<n>D, as IcsReader writes it).
+     */
+    static void complete(ContentValues values) {
+        for (String column : STRING_COLUMNS) {
+            if (!values.containsKey(column)) {
+                values.putNull(column);
+            }
+        }
+        if (!values.containsKey(Events.ALL_DAY)) {
+            values.put(Events.ALL_DAY, 0);
+        }
+        if (!values.containsKey(Events.AVAILABILITY)) {
+            values.put(Events.AVAILABILITY, Events.AVAILABILITY_BUSY);
+        }
+
+        Long start = values.getAsLong(Events.DTSTART);
+        Long end = values.getAsLong(Events.DTEND);
+        if (values.getAsString(Events.RRULE) != null) {
+            if (start != null && end != null && end >= start) {
+                values.put(Events.DURATION, "P" + (end - start) / 1000 + "S");
+            }
+            values.putNull(Events.DTEND);
+        } else {
+            values.putNull(Events.DURATION);
+            if (!values.containsKey(Events.DTEND)) {
+                values.putNull(Events.DTEND);
+            }
+        }
+
+        if (values.getAsInteger(Events.ALL_DAY) == 1) {
+            if (start != null) {
+                values.put(Events.DTSTART, utcMidnight(start));
+            }
+            Long storedEnd = values.getAsLong(Events.DTEND);
+            if (storedEnd != null) {
+                values.put(Events.DTEND, utcMidnight(storedEnd));
+            }
+            values.put(Events.DURATION, wholeDays(values.getAsString(Events.DURATION)));
+            values.put(Events.EVENT_TIMEZONE, "UTC");
+        }
+    }
+
+    private static long utcMidnight(long millis) {
+        return Iso8601.floorDiv(millis, MILLIS_PER_DAY) * MILLIS_PER_DAY;
+    }
+
+    /** P<n>S rounded up to whole days, as the provider does for all-day events. */
+    @Nullable
+    private static String wholeDays(@Nullable String duration) {
+        if (duration == null || !duration.startsWith("P") || !duration.endsWith("S")) {
+            return duration;
+        }
+        long seconds = Long.parseLong(duration.substring(1, duration.length() - 1));
+        return "P" + (seconds + MILLIS_PER_DAY / 1000 - 1) / (MILLIS_PER_DAY / 1000) + "D";
+    }
+
+    /**
+     * The calendar's keyed events, modified occurrences excluded, ordered by _ID and
+     * read with PROJECTION.
+     */
+    @Nullable
+    static Cursor queryStored(ContentResolver cr, String calendarId, @Nullable CancellationSignal signal) {
+        return Metrics.query(cr, Events.CONTENT_URI, PROJECTION,
+            Events.CALENDAR_ID + " = ? AND " + Events.DELETED + " = 0 AND "
+                + Events.UID_2445 + " >= ? AND " + Events.UID_2445 + " < ? AND " + Events.ORIGINAL_ID + " IS NULL",
+            new String[] { calendarId, KEY_PREFIX, KEY_END },
+            Events._ID,
+            signal);
+    }
+
+    /** { event id, hash with zone, hash without zone } of the cursor's current row. */
+    static long[] stored(Cursor cursor) {
+        return new long[] { cursor.getLong(0), hash(cursor, true), hash(cursor, false) };
+    }
+
+    /**
+     * Whether values, filled in by complete, differ from a stored entry. The zone is
+     * only compared when the caller gave one.
+     */
+    static boolean changed(long[] stored, ContentValues values, boolean zoneGiven) {
+        return stored[zoneGiven ? 1 : 2] != hash(values, zoneGiven);
+    }
+
+    static String storedKey(String externalId) {
+        return KEY_PREFIX + externalId;
+    }
+
+    static String externalId(String storedKey) {
+        return storedKey.substring(KEY_PREFIX.length());
+    }
+
+    /**
+     * Hash of values filled in by complete. withZone leaves EVENT_TIMEZONE out when the
+     * caller didn't choose a zone, so a device zone change doesn't count as an edit.
+     */
+    static long hash(ContentValues values, boolean withZone) {
+        long hash = 0xcbf29ce484222325L;
+        for (String column : STRING_COLUMNS) {
+            if (withZone || !column.equals(Events.EVENT_TIMEZONE)) {
+                hash = EventRecord.mix(hash, values.getAsString(column));
+            }
+        }
+        for (String column : NUMBER_COLUMNS) {
+            Long value = values.getAsLong(column);
+            hash = EventRecord.mix(hash, value != null ? value : Long.MIN_VALUE);
+        }
+        return hash;
+    }
+
+    /** Hash of a row read with PROJECTION, comparable to hash(ContentValues, boolean). */
+    static long hash(Cursor cursor, boolean withZone) {
+        long hash = 0xcbf29ce484222325L;
+        int column = 2;
+        for (int i = 0; i < STRING_COLUMNS.length; i++, column++) {
+            if (withZone || !STRING_COLUMNS[i].equals(Events.EVENT_TIMEZONE)) {
+                hash = EventRecord.mix(hash, cursor.getString(column));
+            }
+        }
+        for (int i = 0; i < NUMBER_COLUMNS.length; i++, column++) {
+            hash = EventRecord.mix(hash, cursor.isNull(column) ? Long.MIN_VALUE : cursor.getLong(column));
+        }
+        return hash;
+    }
+
+    /** Sorted copy of reminder minutes, so alarm order doesn't count as a change. */
+    static int[] sortedMinutes(@Nullable List<Integer> minutes) {
+        if (minutes == null) {
+            return new int[0];
+        }
+        int[] sorted = new int[minutes.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = minutes.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
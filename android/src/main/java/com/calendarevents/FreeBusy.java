@@ -0,0 +1,99 @@
+package com.calendarevents;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Merges busy and tentative intervals inside a window with a sort-and-sweep pass
+ * and derives the free slots between them. Plain Java, no provider access.
+ */
+final class FreeBusy {
+    static final class Interval {
+        final long start;
+        final long end;
+        /** True when every merged source interval was tentative. */
+        final boolean tentative;
+
+        Interval(long start, long end, boolean tentative) {
+            this.start = start;
+            this.end = end;
+            this.tentative = tentative;
+        }
+    }
+
+    private static final Comparator<Interval> BY_START = new Comparator<Interval>() {
+        @Override
+        public int compare(Interval a, Interval b) {
+            return a.start < b.start ? -1 : (a.start == b.start ? 0 : 1);
+        }
+    };
+
+    private final long windowStart;
+    private final long windowEnd;
+    private final List<Interval> intervals = new ArrayList<>();
+
+    FreeBusy(long windowStart, long windowEnd) {
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+    }
+
+    /**
+     * Adds an interval, clipped to the window; empty or outside intervals are ignored.
+     */
+    void add(long start, long end, boolean tentative) {
+        start = Math.max(start, windowStart);
+        end = Math.min(end, windowEnd);
+        if (end > start) {
+            intervals.add(new Interval(start, end, tentative));
+        }
+    }
+
+    /**
+     * Sorts by start and merges overlapping or touching intervals. A merged interval is
+     * tentative only if all of its parts were.
+     */
+    List<Interval> busy() {
+        // TimSort is linear on input that is already ordered by start
+        Collections.sort(intervals, BY_START);
+
+        List<Interval> merged = new ArrayList<>();
+        Interval current = null;
+        for (Interval interval : intervals) {
+            if (current != null && interval.start <= current.end) {
+                current = new Interval(current.start, Math.max(current.end, interval.end),
+                    current.tentative && interval.tentative);
+            } else {
+                if (current != null) {
+                    merged.add(current);
+                }
+                current = interval;
+            }
+        }
+        if (current != null) {
+            merged.add(current);
+        }
+        return merged;
+    }
+
+    /**
+     * Gaps of at least minLength milliseconds between the merged busy intervals.
+     */
+    List<Interval> free(List<Interval> busy, long minLength) {
+        List<Interval> free = new ArrayList<>();
+        long cursor = windowStart;
+        for (Interval interval : busy) {
+            addFree(free, cursor, interval.start, minLength);
+            cursor = interval.end;
+        }
+        addFree(free, cursor, windowEnd, minLength);
+        return free;
+    }
+
+    private static void addFree(List<Interval> free, long start, long end, long minLength) {
+        if (end > start && end - start >= minLength) {
+            free.add(new Interval(start, end, false));
+        }
+    }
+}
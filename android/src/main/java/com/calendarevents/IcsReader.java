@@ -0,0 +1,399 @@
+package com.calendarevents;
+
+import android.content.ContentValues;
+import android.provider.CalendarContract.Events;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Streaming RFC 5545 reader that yields one VEVENT at a time, so memory use doesn't
+ * grow with the size of the file. Folded lines are unfolded, and text values are
+ * unescaped. Everything outside VEVENTs is skipped, as is everything inside them
+ * but their properties and the TRIGGERs of their VALARMs. VTIMEZONE definitions are
+ * not read: a TZID is resolved as a time zone id and falls back to the device zone.
+ */
+final class IcsReader {
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    static final class Property {
+        final String value;
+        final Map<String, String> params;
+
+        Property(String value, Map<String, String> params) {
+            this.value = value;
+            this.params = params;
+        }
+
+        @Nullable
+        String param(String name) {
+            return params.get(name);
+        }
+    }
+
+    /** One VEVENT: its first value for each property, and its alarm offsets. */
+    static final class Event {
+        final Map<String, Property> properties = new HashMap<>();
+        final List<Integer> alarmMinutes = new ArrayList<>(2);
+
+        @Nullable
+        String text(String name) {
+            Property property = properties.get(name);
+            return property != null ? unescape(property.value) : null;
+        }
+
+        /**
+         * Event columns for the calendar. Throws IllegalArgumentException when DTSTART
+         * is missing or a date can't be read.
+         */
+        ContentValues toValues(long calendarId) {
+            Property start = properties.get("DTSTART");
+            if (start == null) {
+                throw new IllegalArgumentException("VEVENT without DTSTART");
+            }
+            boolean allDay = isDate(start);
+            long startMillis = dateTime(start);
+            long endMillis;
+            Property end = properties.get("DTEND");
+            Property duration = properties.get("DURATION");
+            if (end != null) {
+                endMillis = dateTime(end);
+            } else if (duration != null) {
+                endMillis = startMillis + durationMillis(duration.value);
+            } else {
+                // RFC 5545: a date lasts one day, a date-time no time at all
+                endMillis = allDay ? startMillis + MILLIS_PER_DAY : startMillis;
+            }
+
+            ContentValues values = new ContentValues();
+            values.put(Events.CALENDAR_ID, calendarId);
+            values.put(Events.TITLE, text("SUMMARY"));
+            values.put(Events.DESCRIPTION, text("DESCRIPTION"));
+            values.put(Events.EVENT_LOCATION, text("LOCATION"));
+            values.put(Events.CUSTOM_APP_URI, text("URL"));
+            values.put(Events.UID_2445, text("UID"));
+            values.put(Events.DTSTART, startMillis);
+            values.put(Events.ALL_DAY, allDay ? 1 : 0);
+            String zone = start.param("TZID");
+            if (allDay || (zone == null && start.value.trim().toUpperCase(Locale.ROOT).endsWith("Z"))) {
+                values.put(Events.EVENT_TIMEZONE, "UTC");
+            } else {
+                values.put(Events.EVENT_TIMEZONE, zone != null ? timeZone(zone).getID() : TimeZone.getDefault().getID());
+            }
+
+            Property transparency = properties.get("TRANSP");
+            values.put(Events.AVAILABILITY, transparency != null && "TRANSPARENT".equalsIgnoreCase(transparency.value)
+                ? Events.AVAILABILITY_FREE : Events.AVAILABILITY_BUSY);
+            Property status = properties.get("STATUS");
+            if (status != null) {
+                String value = status.value.toUpperCase(Locale.ROOT);
+                if (value.equals("TENTATIVE")) {
+                    values.put(Events.STATUS, Events.STATUS_TENTATIVE);
+                } else if (value.equals("CONFIRMED")) {
+                    values.put(Events.STATUS, Events.STATUS_CONFIRMED);
+                } else if (value.equals("CANCELLED")) {
+                    values.put(Events.STATUS, Events.STATUS_CANCELED);
+                }
+            }
+
+            Property rrule = properties.get("RRULE");
+            if (rrule != null) {
+                // The provider keeps recurring events' length in DURATION, without DTEND
+                values.put(Events.RRULE, rrule.value);
+                long length = Math.max(endMillis - startMillis, 0);
+                values.put(Events.DURATION, allDay && length % MILLIS_PER_DAY == 0
+                    ? "P" + length / MILLIS_PER_DAY + "D" : "P" + length / 1000 + "S");
+                Property exdate = properties.get("EXDATE");
+                if (exdate != null) {
+                    values.put(Events.EXDATE, utcDateList(exdate));
+                }
+            } else {
+                values.put(Events.DTEND, endMillis);
+            }
+            return values;
+        }
+    }
+
+    private final BufferedReader reader;
+    @Nullable private String pending;
+
+    IcsReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Reads up to and including the next VEVENT, or returns null at the end of input.
+     */
+    @Nullable
+    Event next() throws IOException {
+        Event event = null;
+        int nested = 0;
+        boolean inAlarm = false;
+        String line;
+        while ((line = nextLine()) != null) {
+            int colon = valueStart(line);
+            if (colon < 0) {
+                continue;
+            }
+            String head = line.substring(0, colon);
+            String value = line.substring(colon + 1);
+            int semicolon = head.indexOf(';');
+            String name = (semicolon >= 0 ? head.substring(0, semicolon) : head).toUpperCase(Locale.ROOT);
+
+            if (name.equals("BEGIN")) {
+                String component = value.trim().toUpperCase(Locale.ROOT);
+                if (event == null) {
+                    if (component.equals("VEVENT")) {
+                        event = new Event();
+                    }
+                } else if (component.equals("VALARM") && nested == 0) {
+                    inAlarm = true;
+                    nested++;
+                } else {
+                    nested++;
+                }
+            } else if (name.equals("END")) {
+                if (event == null) {
+                    continue;
+                }
+                if (nested > 0) {
+                    nested--;
+                    inAlarm = false;
+                } else {
+                    return event;
+                }
+            } else if (event != null) {
+                Property property = new Property(value, params(head, semicolon));
+                if (inAlarm) {
+                    if (name.equals("TRIGGER") && !"DATE-TIME".equalsIgnoreCase(property.param("VALUE"))
+                        && !"END".equalsIgnoreCase(property.param("RELATED"))) {
+                        addAlarm(event, value);
+                    }
+                } else if (nested == 0 && !event.properties.containsKey(name)) {
+                    event.properties.put(name, property);
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Adds a TRIGGER before the start as reminder minutes; other triggers are dropped. */
+    private static void addAlarm(Event event, String trigger) {
+        long offset;
+        try {
+            offset = durationMillis(trigger);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        if (offset <= 0) {
+            event.alarmMinutes.add((int) (-offset / 60000));
+        }
+    }
+
+    /** Next logical line, with continuation lines joined onto it. */
+    @Nullable
+    private String nextLine() throws IOException {
+        String line = pending != null ? pending : reader.readLine();
+        pending = null;
+        if (line == null) {
+            return null;
+        }
+        StringBuilder unfolded = null;
+        String next;
+        while ((next = reader.readLine()) != null && !next.isEmpty()
+            && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+            if (unfolded == null) {
+                unfolded = new StringBuilder(line);
+            }
+            unfolded.append(next, 1, next.length());
+        }
+        pending = next;
+        return unfolded != null ? unfolded.toString() : line;
+    }
+
+    /** Index of the colon ending the name and parameters; quoted parameter values may contain colons. */
+    private static int valueStart(String line) {
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ':' && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Map<String, String> params(String head, int semicolon) {
+        Map<String, String> params = new HashMap<>();
+        while (semicolon >= 0) {
+            int next = head.indexOf(';', semicolon + 1);
+            String param = head.substring(semicolon + 1, next >= 0 ? next : head.length());
+            int equals = param.indexOf('=');
+            if (equals > 0) {
+                String value = param.substring(equals + 1);
+                if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+                    value = value.substring(1, value.length() - 1);
+                }
+                params.put(param.substring(0, equals).toUpperCase(Locale.ROOT), value);
+            }
+            semicolon = next;
+        }
+        return params;
+    }
+
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                out.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean isDate(Property property) {
+        return "DATE".equalsIgnoreCase(property.param("VALUE")) || property.value.trim().length() == 8;
+    }
+
+    /**
+     * Epoch millis of a DATE or DATE-TIME value. Dates are UTC midnights, as the
+     * provider stores all-day events; local times use the TZID or the device zone.
+     */
+    private static long dateTime(Property property) {
+        String zone = property.param("TZID");
+        return parseDateTime(property.value.trim(), zone != null ? timeZone(zone) : TimeZone.getDefault());
+    }
+
+    static long parseDateTime(String value, TimeZone zone) {
+        if (value.length() < 8) {
+            throw invalid(value);
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 4, 2);
+        int day = digits(value, 6, 2);
+        if (month < 1 || month > 12 || day < 1 || day > Iso8601.daysInMonth(year, month)) {
+            throw invalid(value);
+        }
+        long millis = Iso8601.daysFromCivil(year, month, day) * MILLIS_PER_DAY;
+        if (value.length() == 8) {
+            return millis;
+        }
+        if (value.length() < 15 || value.charAt(8) != 'T') {
+            throw invalid(value);
+        }
+        millis += ((digits(value, 9, 2) * 60L + digits(value, 11, 2)) * 60L + digits(value, 13, 2)) * 1000L;
+        if (value.length() == 16 && (value.charAt(15) == 'Z' || value.charAt(15) == 'z')) {
+            return millis;
+        }
+        if (value.length() != 15) {
+            throw invalid(value);
+        }
+        return RRule.toUtc(millis, zone);
+    }
+
+    /**
+     * Signed RFC 5545 duration ([+-]P[nW][nD][T[nH][nM][nS]]) in millis.
+     */
+    static long durationMillis(String value) {
+        String duration = value.trim().toUpperCase(Locale.ROOT);
+        int pos = 0;
+        int sign = 1;
+        if (pos < duration.length() && (duration.charAt(pos) == '+' || duration.charAt(pos) == '-')) {
+            sign = duration.charAt(pos) == '-' ? -1 : 1;
+            pos++;
+        }
+        if (pos >= duration.length() || duration.charAt(pos) != 'P') {
+            throw new IllegalArgumentException("Invalid duration: " + value);
+        }
+        pos++;
+        long seconds = 0;
+        boolean time = false;
+        long number = -1;
+        for (; pos < duration.length(); pos++) {
+            char c = duration.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                number = (number < 0 ? 0 : number * 10) + (c - '0');
+                continue;
+            }
+            if (c == 'T') {
+                time = true;
+                continue;
+            }
+            if (number < 0) {
+                throw new IllegalArgumentException("Invalid duration: " + value);
+            }
+            if (c == 'W' && !time) {
+                seconds += number * 7 * 86400;
+            } else if (c == 'D' && !time) {
+                seconds += number * 86400;
+            } else if (c == 'H' && time) {
+                seconds += number * 3600;
+            } else if (c == 'M' && time) {
+                seconds += number * 60;
+            } else if (c == 'S' && time) {
+                seconds += number;
+            } else {
+                throw new IllegalArgumentException("Invalid duration: " + value);
+            }
+            number = -1;
+        }
+        if (number >= 0) {
+            throw new IllegalArgumentException("Invalid duration: " + value);
+        }
+        return sign * seconds * 1000;
+    }
+
+    /** EXDATE values as the comma-separated UTC list the provider stores. */
+    private static String utcDateList(Property property) {
+        String zone = property.param("TZID");
+        TimeZone timeZone = zone != null ? timeZone(zone) : TimeZone.getDefault();
+        StringBuilder out = new StringBuilder();
+        for (String value : property.value.split(",")) {
+            if (out.length() > 0) {
+                out.append(',');
+            }
+            out.append(Iso8601.formatBasic(parseDateTime(value.trim(), timeZone)));
+        }
+        return out.toString();
+    }
+
+    private static TimeZone timeZone(String id) {
+        TimeZone zone = TimeZone.getTimeZone(id);
+        // getTimeZone returns GMT for ids it doesn't know
+        return zone.getID().equals(id) ? zone : TimeZone.getDefault();
+    }
+
+    private static int digits(String value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalid(value);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static IllegalArgumentException invalid(String value) {
+        return new IllegalArgumentException("Invalid iCalendar date: " + value);
+    }
+}
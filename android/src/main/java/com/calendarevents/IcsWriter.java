@@ -0,0 +1,183 @@
+package com.calendarevents;
+
+import android.database.Cursor;
+import android.provider.CalendarContract.Events;
+import android.text.TextUtils;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Writes provider event rows as an RFC 5545 VCALENDAR, one VEVENT per row, straight
+ * to the underlying writer. Times are written in UTC, except for recurring events in
+ * a named zone, which keep their TZID so the rule repeats at the same wall-clock time
+ * across DST changes. Lines are folded at 75 octets.
+ */
+final class IcsWriter {
+    /** Columns read by write(Cursor, List), in order. */
+    static final String[] PROJECTION = new String[] {
+        Events._ID,
+        Events.UID_2445,
+        Events.TITLE,
+        Events.DESCRIPTION,
+        Events.EVENT_LOCATION,
+        Events.DTSTART,
+        Events.DTEND,
+        Events.DURATION,
+        Events.ALL_DAY,
+        Events.EVENT_TIMEZONE,
+        Events.RRULE,
+        Events.EXDATE,
+        Events.AVAILABILITY,
+        Events.STATUS,
+        Events.CUSTOM_APP_URI
+    };
+
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer out;
+    private final String stamp = Iso8601.formatBasic(System.currentTimeMillis());
+
+    IcsWriter(Writer out) {
+        this.out = out;
+    }
+
+    void begin() throws IOException {
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//react-native-calendar-events-native//EN");
+        line("CALSCALE:GREGORIAN");
+    }
+
+    void end() throws IOException {
+        line("END:VCALENDAR");
+    }
+
+    /** Writes the cursor's current row, read with PROJECTION, and its reminders. */
+    void write(Cursor row, @Nullable List<Integer> alarmMinutes) throws IOException {
+        long id = row.getLong(0);
+        String uid = row.getString(1);
+        boolean allDay = row.getInt(8) == 1;
+        String zone = row.getString(9);
+        String rrule = row.getString(10);
+
+        line("BEGIN:VEVENT");
+        line("UID:" + escape(!TextUtils.isEmpty(uid) ? uid : "android-event-" + id));
+        line("DTSTAMP:" + stamp);
+        line("DTSTART" + dateTime(row.getLong(5), allDay, rrule != null ? zone : null));
+        if (rrule != null) {
+            String duration = row.getString(7);
+            if (!TextUtils.isEmpty(duration)) {
+                line("DURATION:" + duration);
+            }
+            line("RRULE:" + rrule);
+            String exdate = row.getString(11);
+            if (!TextUtils.isEmpty(exdate)) {
+                line("EXDATE:" + exdate);
+            }
+        } else if (!row.isNull(6)) {
+            line("DTEND" + dateTime(row.getLong(6), allDay, null));
+        }
+        text("SUMMARY", row.getString(2));
+        text("DESCRIPTION", row.getString(3));
+        text("LOCATION", row.getString(4));
+        text("URL", row.getString(14));
+        line("TRANSP:" + (row.getInt(12) == Events.AVAILABILITY_FREE ? "TRANSPARENT" : "OPAQUE"));
+        if (!row.isNull(13)) {
+            int status = row.getInt(13);
+            line("STATUS:" + (status == Events.STATUS_CANCELED ? "CANCELLED"
+                : status == Events.STATUS_TENTATIVE ? "TENTATIVE" : "CONFIRMED"));
+        }
+        if (alarmMinutes != null) {
+            for (int minutes : alarmMinutes) {
+                line("BEGIN:VALARM");
+                line("ACTION:DISPLAY");
+                line("DESCRIPTION:Reminder");
+                line("TRIGGER:-PT" + minutes + "M");
+                line("END:VALARM");
+            }
+        }
+        line("END:VEVENT");
+    }
+
+    /**
+     * ":value" or ";params:value" for a DTSTART/DTEND. All-day dates are the UTC
+     * midnights the provider stores; a zone writes local time with its TZID.
+     */
+    private static String dateTime(long millis, boolean allDay, @Nullable String zone) {
+        String utc = Iso8601.formatBasic(millis);
+        if (allDay) {
+            return ";VALUE=DATE:" + utc.substring(0, 8);
+        }
+        if (zone == null || zone.equals("UTC")) {
+            return ":" + utc;
+        }
+        TimeZone timeZone = TimeZone.getTimeZone(zone);
+        String local = Iso8601.formatBasic(millis + timeZone.getOffset(millis));
+        return ";TZID=" + zone + ":" + local.substring(0, local.length() - 1);
+    }
+
+    private void text(String name, @Nullable String value) throws IOException {
+        if (!TextUtils.isEmpty(value)) {
+            line(name + ":" + escape(value));
+        }
+    }
+
+    static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                case ';':
+                case ',':
+                    escaped.append('\\').append(c);
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /** Writes a content line with CRLF, folding it so no line exceeds 75 UTF-8 octets. */
+    private void line(String content) throws IOException {
+        int octets = 0;
+        int start = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            int size;
+            if (c < 0x80) {
+                size = 1;
+            } else if (c < 0x800) {
+                size = 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // Keep surrogate pairs together
+                size = 4;
+            } else if (Character.isLowSurrogate(c)) {
+                continue;
+            } else {
+                size = 3;
+            }
+            if (octets + size > MAX_LINE_OCTETS) {
+                out.write(content, start, i - start);
+                out.write("\r\n ");
+                start = i;
+                // The leading space counts towards the continuation line
+                octets = 1;
+            }
+            octets += size;
+        }
+        out.write(content, start, content.length() - start);
+        out.write("\r\n");
+    }
+}
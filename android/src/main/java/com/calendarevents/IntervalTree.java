@@ -0,0 +1,86 @@
+package com.calendarevents;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Static interval tree over half-open [start, end) intervals. Intervals are sorted by
+ * start and laid out as an implicit balanced tree (each range's middle element is its
+ * root), with every node holding the largest end in its subtree. An overlap query
+ * visits O(log n + k) nodes for k results.
+ */
+final class IntervalTree<T> {
+    interface Bounds<T> {
+        long start(T item);
+        long end(T item);
+    }
+
+    private final List<T> items;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    IntervalTree(List<T> source, final Bounds<T> bounds) {
+        items = new ArrayList<>(source);
+        Collections.sort(items, new Comparator<T>() {
+            @Override
+            public int compare(T a, T b) {
+                long x = bounds.start(a);
+                long y = bounds.start(b);
+                return x < y ? -1 : (x == y ? 0 : 1);
+            }
+        });
+
+        int size = items.size();
+        starts = new long[size];
+        ends = new long[size];
+        maxEnds = new long[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = bounds.start(items.get(i));
+            ends[i] = bounds.end(items.get(i));
+        }
+        buildMaxEnds(0, size);
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    /**
+     * Adds every item overlapping [from, to) to out, in start order.
+     */
+    void query(long from, long to, List<T> out) {
+        query(0, items.size(), from, to, out);
+    }
+
+    private void query(int lo, int hi, long from, long to, List<T> out) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (maxEnds[mid] <= from) {
+                // Nothing in this subtree ends after the query starts
+                return;
+            }
+            query(lo, mid, from, to, out);
+            if (starts[mid] >= to) {
+                // Neither this node nor anything to its right starts before the query ends
+                return;
+            }
+            if (ends[mid] > from) {
+                out.add(items.get(mid));
+            }
+            lo = mid + 1;
+        }
+    }
+
+    private long buildMaxEnds(int lo, int hi) {
+        if (lo >= hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid), buildMaxEnds(mid + 1, hi)));
+        maxEnds[mid] = max;
+        return max;
+    }
+}
@@ -0,0 +1,286 @@
+package com.calendarevents;
+
+/**
+ * Thread-safe ISO-8601 codec working directly on epoch milliseconds, replacing the
+ * shared SimpleDateFormat. No Date, Calendar or formatter objects are created.
+ *
+ * parse accepts a calendar date (YYYY-MM-DD), optionally followed by 'T' or ' ' and
+ * HH:mm, HH:mm:ss or HH:mm:ss with a 1-9 digit fraction, then an optional zone:
+ * 'Z', +HH, +HHmm or +HH:mm (or '-'). Input without a zone is read as UTC.
+ * Malformed input throws IllegalArgumentException.
+ */
+final class Iso8601 {
+    private static final long MILLIS_PER_DAY = 86400000L;
+    private static final long DAYS_PER_400_YEARS = 146097L;
+    private static final long FIRST_DAY_OF_YEAR_0 = daysFromCivil(0, 1, 1);
+    private static final long FIRST_DAY_OF_YEAR_10000 = daysFromCivil(10000, 1, 1);
+
+    private Iso8601() {
+    }
+
+    static long parse(String value) {
+        if (value == null) {
+            throw invalid(null);
+        }
+
+        int length = value.length();
+        if (length < 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            throw invalid(value);
+        }
+
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            throw invalid(value);
+        }
+
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int millis = 0;
+        int pos = 10;
+
+        if (pos < length && (value.charAt(pos) == 'T' || value.charAt(pos) == ' ')) {
+            if (pos + 6 > length || value.charAt(pos + 3) != ':') {
+                throw invalid(value);
+            }
+            hour = digits(value, pos + 1, 2);
+            minute = digits(value, pos + 4, 2);
+            pos += 6;
+
+            if (pos < length && value.charAt(pos) == ':') {
+                second = digits(value, pos + 1, 2);
+                pos += 3;
+
+                if (pos < length && (value.charAt(pos) == '.' || value.charAt(pos) == ',')) {
+                    int start = ++pos;
+                    while (pos < length && isDigit(value.charAt(pos))) {
+                        if (pos - start < 3) {
+                            millis = millis * 10 + (value.charAt(pos) - '0');
+                        }
+                        pos++;
+                    }
+                    int fractionDigits = pos - start;
+                    if (fractionDigits == 0 || fractionDigits > 9) {
+                        throw invalid(value);
+                    }
+                    for (int i = fractionDigits; i < 3; i++) {
+                        millis *= 10;
+                    }
+                }
+            }
+
+            // 24:00 is only allowed as the end of a day
+            if (hour > 24 || minute > 59 || second > 59
+                || (hour == 24 && (minute != 0 || second != 0 || millis != 0))) {
+                throw invalid(value);
+            }
+        }
+
+        int offsetMinutes = 0;
+        if (pos < length) {
+            char sign = value.charAt(pos);
+            if (sign == 'Z' || sign == 'z') {
+                pos++;
+            } else if (sign == '+' || sign == '-') {
+                int offsetHours = digits(value, pos + 1, 2);
+                pos += 3;
+                int offsetMins = 0;
+                if (pos < length) {
+                    if (value.charAt(pos) == ':') {
+                        pos++;
+                    }
+                    offsetMins = digits(value, pos, 2);
+                    pos += 2;
+                }
+                if (offsetHours > 18 || offsetMins > 59) {
+                    throw invalid(value);
+                }
+                offsetMinutes = (offsetHours * 60 + offsetMins) * (sign == '-' ? -1 : 1);
+            } else {
+                throw invalid(value);
+            }
+        }
+
+        if (pos != length) {
+            throw invalid(value);
+        }
+
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY
+            + ((hour * 60L + minute - offsetMinutes) * 60L + second) * 1000L
+            + millis;
+    }
+
+    /**
+     * Formats as yyyy-MM-dd'T'HH:mm:ss.SSS'Z' in UTC. Years outside 0000-9999 use the
+     * expanded form +YYYYYY or -YYYYYY, as JavaScript's toISOString does, so provider
+     * rows with such dates still format. parse doesn't accept the expanded form.
+     */
+    static String format(long epochMillis) {
+        long days = floorDiv(epochMillis, MILLIS_PER_DAY);
+        long millisOfDay = epochMillis - days * MILLIS_PER_DAY;
+        if (days >= FIRST_DAY_OF_YEAR_0 && days < FIRST_DAY_OF_YEAR_10000) {
+            return format(days, millisOfDay);
+        }
+
+        // The Gregorian calendar repeats every 400 years, so format the same date in
+        // 1970-2369 and swap in the real year
+        long cycles = floorDiv(days, DAYS_PER_400_YEARS);
+        long shiftedDays = days - cycles * DAYS_PER_400_YEARS;
+        long year = civilFromDays(shiftedDays) / 10000 + cycles * 400;
+        String digits = String.valueOf(Math.abs(year));
+        StringBuilder out = new StringBuilder(30).append(year < 0 ? '-' : '+');
+        for (int i = digits.length(); i < 6; i++) {
+            out.append('0');
+        }
+        return out.append(digits).append(format(shiftedDays, millisOfDay), 4, 24).toString();
+    }
+
+    private static String format(long days, long millisOfDay) {
+        char[] out = new char[24];
+        int pos = writeDate(out, days, true);
+        out[pos++] = 'T';
+        pos = writeTime(out, pos, millisOfDay, true);
+        out[pos++] = '.';
+        write3(out, pos, (int) (millisOfDay % 1000));
+        out[pos + 3] = 'Z';
+        return new String(out);
+    }
+
+    /**
+     * Formats as yyyyMMdd'T'HHmmss'Z' in UTC, the RFC 5545 form used for RRULE UNTIL
+     * and .ics dates. RFC 5545 has no expanded years, so instants outside 0000-9999
+     * are clamped to 00000101T000000Z or 99991231T235959Z; one such provider row
+     * doesn't fail a whole export.
+     */
+    static String formatBasic(long epochMillis) {
+        long millis = Math.max(FIRST_DAY_OF_YEAR_0 * MILLIS_PER_DAY,
+            Math.min(epochMillis, FIRST_DAY_OF_YEAR_10000 * MILLIS_PER_DAY - 1));
+        char[] out = new char[16];
+        int pos = writeDate(out, floorDiv(millis, MILLIS_PER_DAY), false);
+        out[pos++] = 'T';
+        pos = writeTime(out, pos, floorMod(millis, MILLIS_PER_DAY), false);
+        out[pos] = 'Z';
+        return new String(out);
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date (Howard Hinnant's algorithm).
+     */
+    static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * Inverse of daysFromCivil; returns year * 10000 + month * 100 + day.
+     */
+    static long civilFromDays(long days) {
+        long z = days + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int writeDate(char[] out, long days, boolean extended) {
+        long civil = civilFromDays(days);
+        int year = (int) (civil / 10000);
+        if (year < 0 || year > 9999) {
+            throw new IllegalArgumentException("Year out of range for ISO-8601: " + year);
+        }
+        int pos = 0;
+        write2(out, pos, year / 100);
+        write2(out, pos + 2, year % 100);
+        pos += 4;
+        if (extended) out[pos++] = '-';
+        write2(out, pos, (int) (civil / 100 % 100));
+        pos += 2;
+        if (extended) out[pos++] = '-';
+        write2(out, pos, (int) (civil % 100));
+        return pos + 2;
+    }
+
+    private static int writeTime(char[] out, int pos, long millisOfDay, boolean extended) {
+        int secondOfDay = (int) (millisOfDay / 1000);
+        write2(out, pos, secondOfDay / 3600);
+        pos += 2;
+        if (extended) out[pos++] = ':';
+        write2(out, pos, secondOfDay / 60 % 60);
+        pos += 2;
+        if (extended) out[pos++] = ':';
+        write2(out, pos, secondOfDay % 60);
+        return pos + 2;
+    }
+
+    // Math.floorDiv/floorMod need API 24; shared by the other date code in this package
+    static long floorDiv(long x, long y) {
+        long q = x / y;
+        return (x % y != 0 && (x < 0) != (y < 0)) ? q - 1 : q;
+    }
+
+    static long floorMod(long x, long y) {
+        return x - floorDiv(x, y) * y;
+    }
+
+    private static void write2(char[] out, int pos, int value) {
+        out[pos] = (char) ('0' + value / 10);
+        out[pos + 1] = (char) ('0' + value % 10);
+    }
+
+    private static void write3(char[] out, int pos, int value) {
+        out[pos] = (char) ('0' + value / 100);
+        write2(out, pos + 1, value % 100);
+    }
+
+    private static int digits(String value, int start, int count) {
+        if (start + count > value.length()) {
+            throw invalid(value);
+        }
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                throw invalid(value);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static IllegalArgumentException invalid(String value) {
+        return new IllegalArgumentException("Invalid ISO-8601 date: " + value);
+    }
+}
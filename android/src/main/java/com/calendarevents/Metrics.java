@@ -0,0 +1,376 @@
+package com.calendarevents;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.SystemClock;
+import android.os.Trace;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-method call metrics, collected only while enabled.
+ *
+ * track wraps a method's promise in a Call that records wall time from the call to
+ * its resolve or reject, plus the approximate JSON size of the resolved value. While
+ * a ProviderExecutor task runs for a Call, the Call is bound to the worker thread:
+ * provider queries made through query (with their cursor row counts) and writes
+ * reported through countWrites are attributed to it, and the task runs inside an
+ * android.os.Trace section named after the method.
+ *
+ * Each measure is kept as a log2-bucketed histogram per method.
+ */
+final class Metrics {
+    private static final String TRACE_PREFIX = "CalendarEventsNative.";
+    private static final ThreadLocal<Call> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, MethodStats> methods = new TreeMap<>();
+    private volatile boolean enabled;
+    private long since = System.currentTimeMillis();
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns a promise recording the call under method, or promise itself while
+     * metrics are disabled.
+     */
+    Promise track(String method, Promise promise) {
+        return enabled ? new Call(this, method, promise) : promise;
+    }
+
+    synchronized void reset() {
+        methods.clear();
+        since = System.currentTimeMillis();
+    }
+
+    synchronized WritableMap toMap() {
+        WritableMap result = Arguments.createMap();
+        result.putBoolean("enabled", enabled);
+        result.putString("since", Iso8601.format(since));
+        WritableMap byMethod = Arguments.createMap();
+        for (Map.Entry<String, MethodStats> entry : methods.entrySet()) {
+            MethodStats stats = entry.getValue();
+            WritableMap map = Arguments.createMap();
+            map.putDouble("calls", stats.latencyMicros.count);
+            map.putDouble("errors", stats.errors);
+            map.putMap("latencyMicros", stats.latencyMicros.toMap());
+            map.putMap("queries", stats.queries.toMap());
+            map.putMap("rows", stats.rows.toMap());
+            map.putMap("writes", stats.writes.toMap());
+            map.putMap("payloadBytes", stats.payloadBytes.toMap());
+            byMethod.putMap(entry.getKey(), map);
+        }
+        result.putMap("methods", byMethod);
+        return result;
+    }
+
+    /**
+     * ContentResolver.query that counts the query and its rows against the call
+     * bound to this thread, if any.
+     */
+    @Nullable
+    static Cursor query(ContentResolver cr, Uri uri, @Nullable String[] projection, @Nullable String selection,
+                        @Nullable String[] selectionArgs, @Nullable String sortOrder,
+                        @Nullable CancellationSignal signal) {
+        Cursor cursor = cr.query(uri, projection, selection, selectionArgs, sortOrder, signal);
+        Call call = CURRENT.get();
+        if (call != null) {
+            call.queries++;
+            if (cursor != null) {
+                // Provider cursors arrive with their row count already known
+                call.rows += cursor.getCount();
+            }
+        }
+        return cursor;
+    }
+
+    /**
+     * Counts provider writes (inserts, updates, deletes or batch operations) against
+     * the call bound to this thread, if any.
+     */
+    static void countWrites(int count) {
+        Call call = CURRENT.get();
+        if (call != null) {
+            call.writes += count;
+        }
+    }
+
+    private synchronized void record(Call call, long latencyMicros, boolean failed, long payloadBytes) {
+        MethodStats stats = methods.get(call.method);
+        if (stats == null) {
+            stats = new MethodStats();
+            methods.put(call.method, stats);
+        }
+        stats.latencyMicros.add(latencyMicros);
+        stats.queries.add(call.queries);
+        stats.rows.add(call.rows);
+        stats.writes.add(call.writes);
+        if (failed) {
+            stats.errors++;
+        } else {
+            stats.payloadBytes.add(payloadBytes);
+        }
+    }
+
+    private static final class MethodStats {
+        final Histogram latencyMicros = new Histogram();
+        final Histogram queries = new Histogram();
+        final Histogram rows = new Histogram();
+        final Histogram writes = new Histogram();
+        final Histogram payloadBytes = new Histogram();
+        long errors;
+    }
+
+    /**
+     * Histogram of non-negative values in power-of-two buckets: bucket 0 holds 0 and
+     * bucket k holds [2^(k-1), 2^k). Percentiles report their bucket's upper bound,
+     * so they overstate by less than a factor of two.
+     */
+    static final class Histogram {
+        private final long[] buckets = new long[65];
+        long count;
+        long sum;
+        long min = Long.MAX_VALUE;
+        long max;
+
+        void add(long value) {
+            value = Math.max(value, 0);
+            buckets[64 - Long.numberOfLeadingZeros(value)]++;
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        long percentile(double fraction) {
+            long rank = (long) Math.ceil(fraction * count);
+            long seen = 0;
+            for (int k = 0; k < buckets.length; k++) {
+                seen += buckets[k];
+                if (seen >= rank && seen > 0) {
+                    long upper = k == 0 ? 0 : (k == 64 ? Long.MAX_VALUE : (1L << k) - 1);
+                    return Math.max(min, Math.min(upper, max));
+                }
+            }
+            return max;
+        }
+
+        WritableMap toMap() {
+            WritableMap map = Arguments.createMap();
+            map.putDouble("count", count);
+            map.putDouble("sum", sum);
+            map.putDouble("min", count > 0 ? min : 0);
+            map.putDouble("max", max);
+            map.putDouble("mean", count > 0 ? (double) sum / count : 0);
+            map.putDouble("p50", percentile(0.5));
+            map.putDouble("p90", percentile(0.9));
+            map.putDouble("p99", percentile(0.99));
+            WritableArray nonEmpty = Arguments.createArray();
+            for (int k = 0; k < buckets.length; k++) {
+                if (buckets[k] > 0) {
+                    WritableMap bucket = Arguments.createMap();
+                    bucket.putDouble("upperBound", k == 0 ? 0 : Math.pow(2, k) - 1);
+                    bucket.putDouble("count", buckets[k]);
+                    nonEmpty.pushMap(bucket);
+                }
+            }
+            map.putArray("buckets", nonEmpty);
+            return map;
+        }
+    }
+
+    /**
+     * Promise wrapper for one tracked call. Counters are only touched by the thread the
+     * call is bound to; the call is recorded once, on its first resolve or reject.
+     */
+    static final class Call implements Promise {
+        private final Metrics metrics;
+        private final String method;
+        private final Promise delegate;
+        private final long startNanos = SystemClock.elapsedRealtimeNanos();
+        private boolean settled;
+        long queries;
+        long rows;
+        long writes;
+
+        Call(Metrics metrics, String method, Promise delegate) {
+            this.metrics = metrics;
+            this.method = method;
+            this.delegate = delegate;
+        }
+
+        /** Binds the call to the current thread and opens its trace section. */
+        void attach() {
+            CURRENT.set(this);
+            Trace.beginSection(TRACE_PREFIX + method);
+        }
+
+        void detach() {
+            Trace.endSection();
+            CURRENT.remove();
+        }
+
+        private synchronized boolean settle(boolean failed, @Nullable Object value) {
+            if (settled) {
+                return false;
+            }
+            settled = true;
+            long latencyMicros = (SystemClock.elapsedRealtimeNanos() - startNanos) / 1000;
+            metrics.record(this, latencyMicros, failed, failed ? 0 : jsonSize(value));
+            return true;
+        }
+
+        @Override
+        public void resolve(@Nullable Object value) {
+            settle(false, value);
+            delegate.resolve(value);
+        }
+
+        @Override
+        public void reject(String code, String message) {
+            settle(true, null);
+            delegate.reject(code, message);
+        }
+
+        @Override
+        public void reject(String code, Throwable throwable) {
+            settle(true, null);
+            delegate.reject(code, throwable);
+        }
+
+        @Override
+        public void reject(String code, String message, Throwable throwable) {
+            settle(true, null);
+            delegate.reject(code, message, throwable);
+        }
+
+        @Override
+        public void reject(Throwable throwable) {
+            settle(true, null);
+            delegate.reject(throwable);
+        }
+
+        @Override
+        public void reject(Throwable throwable, WritableMap userInfo) {
+            settle(true, null);
+            delegate.reject(throwable, userInfo);
+        }
+
+        @Override
+        public void reject(String code, @Nullable WritableMap userInfo) {
+            settle(true, null);
+            delegate.reject(code, userInfo);
+        }
+
+        @Override
+        public void reject(String code, Throwable throwable, WritableMap userInfo) {
+            settle(true, null);
+            delegate.reject(code, throwable, userInfo);
+        }
+
+        @Override
+        public void reject(String code, String message, @Nullable WritableMap userInfo) {
+            settle(true, null);
+            delegate.reject(code, message, userInfo);
+        }
+
+        @Override
+        public void reject(String code, String message, Throwable throwable, WritableMap userInfo) {
+            settle(true, null);
+            delegate.reject(code, message, throwable, userInfo);
+        }
+
+        /** @deprecated Kept for the Promise interface of older React Native versions. */
+        @Deprecated
+        public void reject(String message) {
+            settle(true, null);
+            delegate.reject((String) null, message, (Throwable) null);
+        }
+    }
+
+    /**
+     * Approximate size in bytes of value serialized as JSON, counting one byte per
+     * character and 8 per number.
+     */
+    static long jsonSize(@Nullable Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof String) {
+            return ((String) value).length() + 2;
+        }
+        if (value instanceof Boolean) {
+            return 5;
+        }
+        if (value instanceof Number) {
+            return 8;
+        }
+        if (value instanceof ReadableMap) {
+            ReadableMap map = (ReadableMap) value;
+            long size = 2;
+            ReadableMapKeySetIterator keys = map.keySetIterator();
+            while (keys.hasNextKey()) {
+                String key = keys.nextKey();
+                size += key.length() + 4 + jsonSize(map, key);
+            }
+            return size;
+        }
+        if (value instanceof ReadableArray) {
+            ReadableArray array = (ReadableArray) value;
+            long size = 2;
+            for (int i = 0; i < array.size(); i++) {
+                size += 1 + jsonSize(array, i);
+            }
+            return size;
+        }
+        return 0;
+    }
+
+    private static long jsonSize(ReadableMap map, String key) {
+        switch (map.getType(key)) {
+            case String:
+                return jsonSize(map.getString(key));
+            case Map:
+                return jsonSize(map.getMap(key));
+            case Array:
+                return jsonSize(map.getArray(key));
+            case Boolean:
+                return 5;
+            case Number:
+                return 8;
+            default:
+                return 4;
+        }
+    }
+
+    private static long jsonSize(ReadableArray array, int index) {
+        switch (array.getType(index)) {
+            case String:
+                return jsonSize(array.getString(index));
+            case Map:
+                return jsonSize(array.getMap(index));
+            case Array:
+                return jsonSize(array.getArray(index));
+            case Boolean:
+                return 5;
+            case Number:
+                return 8;
+            default:
+                return 4;
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.calendarevents;
+
+import android.os.CancellationSignal;
+import android.os.Process;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event windows cached as calendar-month buckets (by DTSTART, in the device zone),
+ * for scrolling month views. A range is served from the buckets it covers; missing
+ * months are loaded with one query per contiguous run and split into buckets. A
+ * month already being loaded by another request is waited for instead of queried
+ * again, so overlapping requests share provider work.
+ *
+ * After serving a range, prefetch loads the same number of months before and after
+ * it on a single lowest-priority thread. Its queue only keeps the newest requests,
+ * so fast scrolling doesn't queue up months the user has already passed. A request
+ * that has to wait for a month the prefetch thread is loading raises that thread to
+ * the read lane's priority until the load finishes, so a foreground read never waits
+ * on lowest-priority work.
+ *
+ * Like EventCache, buckets are dropped on any provider change, guarded by a
+ * generation counter, and bypassed while one of the module's writes is in flight.
+ * Buckets are evicted least recently used first once their estimated size exceeds
+ * the budget.
+ */
+final class MonthBuckets implements ProviderObserver.Listener {
+    static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+    // Larger ranges are queried directly rather than bucketed
+    private static final int MAX_MONTHS = 24;
+    private static final int PREFETCH_QUEUE_CAPACITY = 4;
+    private static final long WAIT_POLL_MILLIS = 50;
+
+    interface Loader {
+        /** Events with DTSTART in [startMillis, endMillis]. */
+        List<EventRecord> load(long startMillis, long endMillis, @Nullable CancellationSignal signal);
+    }
+
+    /** A month load in progress, and the thread running it. */
+    private static final class Loading {
+        final CountDownLatch done = new CountDownLatch(1);
+        final int tid = Process.myTid();
+        final boolean prefetch;
+        boolean boosted;
+
+        Loading(boolean prefetch) {
+            this.prefetch = prefetch;
+        }
+    }
+
+    private static final class Bucket {
+        final List<EventRecord> events;
+        final long sizeBytes;
+
+        Bucket(List<EventRecord> events, long sizeBytes) {
+            this.events = events;
+            this.sizeBytes = sizeBytes;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Loading> loading = new HashMap<>();
+    private final ThreadPoolExecutor prefetcher;
+    private long sizeBytes;
+    private long generation;
+    private int writesInFlight;
+
+    MonthBuckets(long maxBytes) {
+        this.maxBytes = maxBytes;
+        prefetcher = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(PREFETCH_QUEUE_CAPACITY),
+            ProviderExecutor.threadFactory("prefetch", Process.THREAD_PRIORITY_LOWEST),
+            new ThreadPoolExecutor.DiscardOldestPolicy());
+        prefetcher.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Events with DTSTART in [startMillis, endMillis], from the buckets of scope
+     * (which must identify the calendars and columns the loader reads).
+     */
+    List<EventRecord> get(long startMillis, long endMillis, String scope, Loader loader,
+                          @Nullable CancellationSignal signal) throws InterruptedException {
+        TimeZone zone = TimeZone.getDefault();
+        int first = monthIndex(startMillis, zone);
+        int last = monthIndex(endMillis, zone);
+        if (last < first || last - first >= MAX_MONTHS) {
+            return loader.load(startMillis, endMillis, signal);
+        }
+
+        List<List<EventRecord>> months = load(first, last, scope + "|" + zone.getID(), zone, loader, false, signal);
+        if (months == null) {
+            return loader.load(startMillis, endMillis, signal);
+        }
+
+        return collect(months, startMillis, endMillis);
+    }
+
+    /**
+     * Like get, but only from buckets already loaded: null when any month of the range
+     * is missing or a write is in flight. Never queries the provider.
+     */
+    @Nullable
+    synchronized List<EventRecord> peek(long startMillis, long endMillis, String scope) {
+        TimeZone zone = TimeZone.getDefault();
+        int first = monthIndex(startMillis, zone);
+        int last = monthIndex(endMillis, zone);
+        if (writesInFlight > 0 || last < first || last - first >= MAX_MONTHS) {
+            return null;
+        }
+
+        List<List<EventRecord>> months = new ArrayList<>(last - first + 1);
+        for (int month = first; month <= last; month++) {
+            Bucket bucket = buckets.get(key(scope + "|" + zone.getID(), month));
+            if (bucket == null) {
+                return null;
+            }
+            months.add(bucket.events);
+        }
+        return collect(months, startMillis, endMillis);
+    }
+
+    /**
+     * Loads the months adjacent to [startMillis, endMillis] in the background, as many
+     * on each side as the range spans.
+     */
+    void prefetch(long startMillis, long endMillis, final String scope, final Loader loader) {
+        final TimeZone zone = TimeZone.getDefault();
+        int first = monthIndex(startMillis, zone);
+        int last = monthIndex(endMillis, zone);
+        int span = last - first + 1;
+        if (span < 1 || span > MAX_MONTHS) {
+            return;
+        }
+        schedule(last + 1, last + span, scope + "|" + zone.getID(), zone, loader);
+        schedule(first - span, first - 1, scope + "|" + zone.getID(), zone, loader);
+    }
+
+    void shutdown() {
+        prefetcher.shutdownNow();
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        buckets.clear();
+        sizeBytes = 0;
+    }
+
+    synchronized void beginWrite() {
+        writesInFlight++;
+        invalidate();
+    }
+
+    synchronized void endWrite() {
+        writesInFlight--;
+        invalidate();
+    }
+
+    @Override
+    public void onProviderChange() {
+        invalidate();
+    }
+
+    private void schedule(final int first, final int last, final String scope, final TimeZone zone,
+                          final Loader loader) {
+        prefetcher.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    load(first, last, scope, zone, loader, true, null);
+                } catch (Exception e) {
+                    // Prefetching is best effort; the next request loads what is missing
+                }
+            }
+        });
+    }
+
+    /**
+     * The events of each month in [first, last], or null while writes are in flight.
+     */
+    @Nullable
+    private List<List<EventRecord>> load(int first, int last, String scope, TimeZone zone, Loader loader,
+                                         boolean prefetch, @Nullable CancellationSignal signal)
+        throws InterruptedException {
+        int count = last - first + 1;
+        List<List<EventRecord>> months = new ArrayList<>(Collections.<List<EventRecord>>nCopies(count, null));
+        int missing = count;
+
+        while (missing > 0) {
+            List<Integer> claimed = new ArrayList<>();
+            List<CountDownLatch> pending = new ArrayList<>();
+            long loadGeneration;
+            synchronized (this) {
+                if (writesInFlight > 0) {
+                    return null;
+                }
+                loadGeneration = generation;
+                for (int i = 0; i < count; i++) {
+                    if (months.get(i) != null) {
+                        continue;
+                    }
+                    String key = key(scope, first + i);
+                    Bucket bucket = buckets.get(key);
+                    Loading inProgress = loading.get(key);
+                    if (bucket != null) {
+                        months.set(i, bucket.events);
+                        missing--;
+                    } else if (inProgress != null) {
+                        if (!prefetch && inProgress.prefetch && !inProgress.boosted) {
+                            // Reset by the prefetch thread once it releases its claims
+                            Process.setThreadPriority(inProgress.tid, Process.THREAD_PRIORITY_BACKGROUND);
+                            inProgress.boosted = true;
+                        }
+                        pending.add(inProgress.done);
+                    } else {
+                        loading.put(key, new Loading(prefetch));
+                        claimed.add(i);
+                    }
+                }
+            }
+
+            try {
+                // One query per contiguous run of claimed months
+                for (int run = 0; run < claimed.size(); ) {
+                    int end = run;
+                    while (end + 1 < claimed.size() && claimed.get(end + 1) == claimed.get(end) + 1) {
+                        end++;
+                    }
+                    int runFirst = first + claimed.get(run);
+                    int runLast = first + claimed.get(end);
+                    List<EventRecord> events = loader.load(monthStart(runFirst, zone),
+                        monthStart(runLast + 1, zone) - 1, signal);
+
+                    List<List<EventRecord>> split = new ArrayList<>(runLast - runFirst + 1);
+                    for (int month = runFirst; month <= runLast; month++) {
+                        split.add(new ArrayList<EventRecord>());
+                    }
+                    for (EventRecord event : events) {
+                        int month = monthIndex(event.startMillis, zone);
+                        if (month >= runFirst && month <= runLast) {
+                            split.get(month - runFirst).add(event);
+                        }
+                    }
+                    for (int month = runFirst; month <= runLast; month++) {
+                        List<EventRecord> monthEvents = Collections.unmodifiableList(split.get(month - runFirst));
+                        store(key(scope, month), monthEvents, loadGeneration);
+                        months.set(month - first, monthEvents);
+                        missing--;
+                    }
+                    run = end + 1;
+                }
+            } finally {
+                synchronized (this) {
+                    boolean boosted = false;
+                    for (int i : claimed) {
+                        Loading released = loading.remove(key(scope, first + i));
+                        if (released != null) {
+                            boosted |= released.boosted;
+                            released.done.countDown();
+                        }
+                    }
+                    // Boosts only happen while a claim is held, so none can outlive this
+                    if (boosted) {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_LOWEST);
+                    }
+                }
+            }
+
+            for (CountDownLatch latch : pending) {
+                while (!latch.await(WAIT_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (signal != null) {
+                        signal.throwIfCanceled();
+                    }
+                }
+            }
+        }
+        return months;
+    }
+
+    private synchronized void store(String key, List<EventRecord> events, long loadGeneration) {
+        if (loadGeneration != generation || writesInFlight > 0) {
+            return;
+        }
+
+        long size = 64 + 2L * key.length();
+        for (EventRecord event : events) {
+            size += event.estimateSize();
+        }
+        if (size > maxBytes) {
+            return;
+        }
+
+        Bucket previous = buckets.put(key, new Bucket(events, size));
+        if (previous != null) {
+            sizeBytes -= previous.sizeBytes;
+        }
+        sizeBytes += size;
+
+        Iterator<Map.Entry<String, Bucket>> eldest = buckets.entrySet().iterator();
+        while (sizeBytes > maxBytes && eldest.hasNext()) {
+            sizeBytes -= eldest.next().getValue().sizeBytes;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Bucket scope for a fetch of the given calendars and fields; the loader must read
+     * fields.withColumns(EventFields.START_DATE).
+     */
+    static String scope(@Nullable String[] calendarIds, EventFields fields) {
+        return EventCache.calendarKey(calendarIds) + "|" + fields.withColumns(EventFields.START_DATE).key();
+    }
+
+    private static List<EventRecord> collect(List<List<EventRecord>> months, long startMillis, long endMillis) {
+        List<EventRecord> events = new ArrayList<>();
+        for (List<EventRecord> month : months) {
+            for (EventRecord event : month) {
+                if (event.startMillis >= startMillis && event.startMillis <= endMillis) {
+                    events.add(event);
+                }
+            }
+        }
+        return events;
+    }
+
+    private static String key(String scope, int month) {
+        return scope + "|" + month;
+    }
+
+    /** Months since January 1970 of the local date of millis. */
+    static int monthIndex(long millis, TimeZone zone) {
+        long local = millis + zone.getOffset(millis);
+        long civil = Iso8601.civilFromDays(Iso8601.floorDiv(local, MILLIS_PER_DAY));
+        long year = civil / 10000;
+        long month = civil / 100 % 100;
+        return (int) ((year - 1970) * 12 + month - 1);
+    }
+
+    /** UTC millis of local midnight on the first day of the month. */
+    static long monthStart(int monthIndex, TimeZone zone) {
+        int year = 1970 + (int) Iso8601.floorDiv(monthIndex, 12);
+        int month = monthIndex - (year - 1970) * 12 + 1;
+        return RRule.toUtc(Iso8601.daysFromCivil(year, month, 1) * MILLIS_PER_DAY, zone);
+    }
+}
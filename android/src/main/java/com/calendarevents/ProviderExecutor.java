@@ -0,0 +1,150 @@
+package com.calendarevents;
+
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.os.Process;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Promise;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs calendar provider work off the shared native-modules thread. Reads go to a
+ * small pool so a slow range query doesn't hold up other calls; writes go to a single
+ * thread so they apply in the order they were issued. Both queues are bounded and
+ * reject new work with EXECUTOR_BUSY once full.
+ *
+ * Reads may carry a caller-chosen request id; cancel(requestId) then trips the
+ * CancellationSignal handed to the task, which aborts provider queries in flight
+ * and makes queued tasks reject with REQUEST_CANCELLED instead of running. An id
+ * names one request at a time: a read issued under an id that is still queued or
+ * running rejects with DUPLICATE_REQUEST_ID, and the pending one keeps its handle.
+ */
+final class ProviderExecutor {
+    private static final int READ_THREADS = 2;
+    private static final int READ_QUEUE_CAPACITY = 64;
+    private static final int WRITE_QUEUE_CAPACITY = 256;
+
+    interface Task {
+        void run(CancellationSignal signal) throws Exception;
+    }
+
+    private final ThreadPoolExecutor readExecutor;
+    private final ThreadPoolExecutor writeExecutor;
+    private final Map<String, CancellationSignal> pendingRequests = new ConcurrentHashMap<>();
+
+    ProviderExecutor() {
+        readExecutor = new ThreadPoolExecutor(READ_THREADS, READ_THREADS, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(READ_QUEUE_CAPACITY), threadFactory("read"));
+        readExecutor.allowCoreThreadTimeOut(true);
+        writeExecutor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(WRITE_QUEUE_CAPACITY), threadFactory("write"));
+        writeExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    void read(@Nullable String requestId, Promise promise, Task task) {
+        submit(readExecutor, requestId, promise, task);
+    }
+
+    void write(Promise promise, Task task) {
+        submit(writeExecutor, null, promise, task);
+    }
+
+    /**
+     * Cancels the read registered under requestId. Returns false when no such
+     * request is queued or running.
+     */
+    boolean cancel(String requestId) {
+        CancellationSignal signal = pendingRequests.remove(requestId);
+        if (signal == null) {
+            return false;
+        }
+        signal.cancel();
+        return true;
+    }
+
+    void shutdown() {
+        for (CancellationSignal signal : pendingRequests.values()) {
+            signal.cancel();
+        }
+        pendingRequests.clear();
+        readExecutor.shutdownNow();
+        writeExecutor.shutdownNow();
+    }
+
+    private void submit(ThreadPoolExecutor executor, @Nullable final String requestId,
+                        final Promise promise, final Task task) {
+        final CancellationSignal signal = new CancellationSignal();
+        if (requestId != null && pendingRequests.putIfAbsent(requestId, signal) != null) {
+            promise.reject("DUPLICATE_REQUEST_ID", "Request " + requestId + " is already pending");
+            return;
+        }
+
+        // Tracked calls attribute the task's provider work to themselves
+        final Metrics.Call call = promise instanceof Metrics.Call ? (Metrics.Call) promise : null;
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (call != null) {
+                        call.attach();
+                    }
+                    try {
+                        signal.throwIfCanceled();
+                        task.run(signal);
+                    } catch (OperationCanceledException e) {
+                        promise.reject("REQUEST_CANCELLED", "Request " + requestId + " was cancelled");
+                    } catch (IllegalArgumentException e) {
+                        // Malformed dates, ids or options
+                        promise.reject("INVALID_ARGUMENT", e.getMessage(), e);
+                    } catch (Exception e) {
+                        promise.reject("PROVIDER_ERROR", e.getMessage(), e);
+                    } finally {
+                        if (requestId != null) {
+                            pendingRequests.remove(requestId, signal);
+                        }
+                        if (call != null) {
+                            call.detach();
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (requestId != null) {
+                pendingRequests.remove(requestId, signal);
+            }
+            promise.reject("EXECUTOR_BUSY", "Too many pending calendar requests", e);
+        }
+    }
+
+    static ThreadFactory threadFactory(String lane) {
+        return threadFactory(lane, Process.THREAD_PRIORITY_BACKGROUND);
+    }
+
+    static ThreadFactory threadFactory(final String lane, final int priority) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(priority);
+                        runnable.run();
+                    }
+                }, "CalendarEventsNative-" + lane + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
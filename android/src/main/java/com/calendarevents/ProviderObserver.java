@@ -0,0 +1,72 @@
+package com.calendarevents;
+
+import android.content.ContentResolver;
+import android.database.ContentObserver;
+import android.net.Uri;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A ContentObserver over a fixed set of calendar provider URIs that fans change
+ * notifications out to listeners. It registers with the ContentResolver only while
+ * it has listeners. Callbacks arrive on a binder thread.
+ *
+ * A change notified on a table's URI only reaches observers watching that table.
+ * A change notified on the provider's root URI reaches every ProviderObserver,
+ * whatever URIs it watches.
+ */
+final class ProviderObserver extends ContentObserver {
+    interface Listener {
+        void onProviderChange();
+    }
+
+    private final ContentResolver cr;
+    private final Uri[] uris;
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private boolean registered;
+
+    ProviderObserver(ContentResolver cr, Uri... uris) {
+        super(null);
+        this.cr = cr;
+        this.uris = uris;
+    }
+
+    synchronized void addListener(Listener listener) {
+        if (listeners.addIfAbsent(listener) && !registered) {
+            for (Uri uri : uris) {
+                cr.registerContentObserver(uri, true, this);
+            }
+            registered = true;
+        }
+    }
+
+    synchronized void removeListener(Listener listener) {
+        if (listeners.remove(listener) && listeners.isEmpty()) {
+            unregister();
+        }
+    }
+
+    synchronized void close() {
+        listeners.clear();
+        unregister();
+    }
+
+    @Override
+    public boolean deliverSelfNotifications() {
+        return true;
+    }
+
+    @Override
+    public void onChange(boolean selfChange) {
+        for (Listener listener : listeners) {
+            listener.onProviderChange();
+        }
+    }
+
+    private void unregister() {
+        if (registered) {
+            cr.unregisterContentObserver(this);
+            registered = false;
+        }
+    }
+}
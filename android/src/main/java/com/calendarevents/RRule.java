@@ -0,0 +1,646 @@
+package com.calendarevents;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * An RFC 5545 recurrence rule compiled once from its RRULE string. Compiled rules are
+ * immutable and cached by rule string, so serializing many rows that share a rule, or
+ * expanding it repeatedly, parses it only once.
+ *
+ * Supports FREQ=DAILY, WEEKLY, MONTHLY and YEARLY with INTERVAL, COUNT, UNTIL, BYDAY
+ * (with ordinals), BYMONTHDAY, BYMONTH, BYYEARDAY, BYWEEKNO, BYSETPOS, BYHOUR,
+ * BYMINUTE, BYSECOND and WKST. Sub-daily frequencies and unknown parts are rejected
+ * with IllegalArgumentException.
+ *
+ * Weekdays are numbered 0 (Monday) to 6 (Sunday), as in RFC 5545's MO..SU order.
+ */
+final class RRule {
+    static final int DAILY = 0;
+    static final int WEEKLY = 1;
+    static final int MONTHLY = 2;
+    static final int YEARLY = 3;
+
+    private static final String[] FREQUENCIES = new String[] { "DAILY", "WEEKLY", "MONTHLY", "YEARLY" };
+    private static final String[] WEEKDAYS = new String[] { "MO", "TU", "WE", "TH", "FR", "SA", "SU" };
+    private static final long MILLIS_PER_DAY = 86400000L;
+    // Stop expanding after 400 years (one Gregorian cycle) without a match
+    private static final long MAX_GAP_DAYS = 146097;
+    private static final int CACHE_SIZE = 128;
+    private static final int[] NONE = new int[0];
+
+    private static final Map<String, RRule> CACHE = new LinkedHashMap<String, RRule>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RRule> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    final int frequency;
+    final int interval;
+    final boolean hasInterval;
+    /** 0 when unbounded. */
+    final int count;
+    /** UNTIL in UTC when untilIsUtc, else as local wall-clock millis; Long.MAX_VALUE when absent. */
+    final long until;
+    final boolean untilIsUtc;
+    /** Weekday (0-6) and ordinal (0 for every week) of each BYDAY entry. */
+    final int[] byDayWeekday;
+    final int[] byDayOrdinal;
+    final int[] byMonthDay;
+    final int[] byMonth;
+    final int[] byYearDay;
+    final int[] byWeekNo;
+    final int[] bySetPos;
+    final int[] byHour;
+    final int[] byMinute;
+    final int[] bySecond;
+    final int weekStart;
+
+    private RRule(String rule) {
+        int frequency = -1;
+        int interval = 1;
+        boolean hasInterval = false;
+        int count = 0;
+        long until = Long.MAX_VALUE;
+        boolean untilIsUtc = false;
+        int[] byDayWeekday = NONE;
+        int[] byDayOrdinal = NONE;
+        int[] byMonthDay = NONE;
+        int[] byMonth = NONE;
+        int[] byYearDay = NONE;
+        int[] byWeekNo = NONE;
+        int[] bySetPos = NONE;
+        int[] byHour = NONE;
+        int[] byMinute = NONE;
+        int[] bySecond = NONE;
+        int weekStart = 0;
+
+        String body = rule.startsWith("RRULE:") ? rule.substring(6) : rule;
+        for (String part : body.split(";")) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            int equals = part.indexOf('=');
+            if (equals <= 0) {
+                throw invalid(rule);
+            }
+            String key = part.substring(0, equals).toUpperCase(Locale.ROOT);
+            String value = part.substring(equals + 1).toUpperCase(Locale.ROOT);
+
+            switch (key) {
+                case "FREQ":
+                    frequency = Arrays.asList(FREQUENCIES).indexOf(value);
+                    if (frequency < 0) {
+                        throw new IllegalArgumentException("Unsupported FREQ in RRULE: " + rule);
+                    }
+                    break;
+                case "INTERVAL":
+                    interval = number(rule, value, 1, Integer.MAX_VALUE);
+                    hasInterval = true;
+                    break;
+                case "COUNT":
+                    count = number(rule, value, 1, Integer.MAX_VALUE);
+                    break;
+                case "UNTIL":
+                    untilIsUtc = value.endsWith("Z");
+                    until = parseUntil(rule, untilIsUtc ? value.substring(0, value.length() - 1) : value);
+                    break;
+                case "BYDAY": {
+                    String[] days = value.split(",");
+                    byDayWeekday = new int[days.length];
+                    byDayOrdinal = new int[days.length];
+                    for (int i = 0; i < days.length; i++) {
+                        String day = days[i];
+                        if (day.length() < 2) {
+                            throw invalid(rule);
+                        }
+                        byDayWeekday[i] = weekday(rule, day.substring(day.length() - 2));
+                        String ordinal = day.substring(0, day.length() - 2);
+                        byDayOrdinal[i] = ordinal.isEmpty() ? 0 : nonZero(rule, ordinal, 53);
+                    }
+                    break;
+                }
+                case "BYMONTHDAY":
+                    byMonthDay = list(rule, value, true, 31);
+                    break;
+                case "BYMONTH":
+                    byMonth = list(rule, value, false, 12);
+                    break;
+                case "BYYEARDAY":
+                    byYearDay = list(rule, value, true, 366);
+                    break;
+                case "BYWEEKNO":
+                    byWeekNo = list(rule, value, true, 53);
+                    break;
+                case "BYSETPOS":
+                    bySetPos = list(rule, value, true, 366);
+                    break;
+                case "BYHOUR":
+                    byHour = sortedRange(rule, value, 23);
+                    break;
+                case "BYMINUTE":
+                    byMinute = sortedRange(rule, value, 59);
+                    break;
+                case "BYSECOND":
+                    bySecond = sortedRange(rule, value, 59);
+                    break;
+                case "WKST":
+                    weekStart = weekday(rule, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported RRULE part " + key + ": " + rule);
+            }
+        }
+
+        if (frequency < 0) {
+            throw new IllegalArgumentException("RRULE without FREQ: " + rule);
+        }
+        if (count > 0 && until != Long.MAX_VALUE) {
+            throw new IllegalArgumentException("RRULE with both COUNT and UNTIL: " + rule);
+        }
+
+        this.frequency = frequency;
+        this.interval = interval;
+        this.hasInterval = hasInterval;
+        this.count = count;
+        this.until = until;
+        this.untilIsUtc = untilIsUtc;
+        this.byDayWeekday = byDayWeekday;
+        this.byDayOrdinal = byDayOrdinal;
+        this.byMonthDay = byMonthDay;
+        this.byMonth = byMonth;
+        this.byYearDay = byYearDay;
+        this.byWeekNo = byWeekNo;
+        this.bySetPos = bySetPos;
+        this.byHour = byHour;
+        this.byMinute = byMinute;
+        this.bySecond = bySecond;
+        this.weekStart = weekStart;
+    }
+
+    /**
+     * Returns the compiled rule for an RRULE string (with or without the "RRULE:"
+     * prefix), compiling and caching it on first use.
+     */
+    static RRule compile(String rule) {
+        synchronized (CACHE) {
+            RRule compiled = CACHE.get(rule);
+            if (compiled != null) {
+                return compiled;
+            }
+        }
+        RRule compiled = new RRule(rule);
+        synchronized (CACHE) {
+            CACHE.put(rule, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Lazily expands the rule from dtstart in the given zone. Occurrences keep
+     * dtstart's wall-clock time unless BYHOUR/BYMINUTE/BYSECOND say otherwise.
+     */
+    Occurrences expand(long dtstartMillis, TimeZone zone) {
+        return new Occurrences(this, dtstartMillis, zone);
+    }
+
+    /** UNTIL as UTC millis, reading a floating or date-only UNTIL in the given zone. */
+    long untilMillis(TimeZone zone) {
+        if (until == Long.MAX_VALUE || untilIsUtc) {
+            return until;
+        }
+        return toUtc(until, zone);
+    }
+
+    /**
+     * Iterates occurrences in order. Each period (day, week, month or year, stepped by
+     * INTERVAL) is expanded only when the previous one has been consumed.
+     */
+    static final class Occurrences {
+        private final RRule rule;
+        private final TimeZone zone;
+        private final long startLocal;
+        private final long startDay;
+        private final int startYear;
+        private final int startMonth;
+
+        // BY* lists with the implicit values RFC 5545 takes from DTSTART
+        private final int[] byDayWeekday;
+        private final int[] byDayOrdinal;
+        private final int[] byMonthDay;
+        private final int[] byMonth;
+        private final int[] secondsOfDay;
+
+        private long period;
+        private long[] buffer = new long[0];
+        private int bufferPos;
+        private int bufferSize;
+        private int emitted;
+        private long lastMatchDay;
+        private boolean done;
+
+        private Occurrences(RRule rule, long dtstartMillis, TimeZone zone) {
+            this.rule = rule;
+            this.zone = zone;
+            this.startLocal = dtstartMillis + zone.getOffset(dtstartMillis);
+            this.startDay = Iso8601.floorDiv(startLocal, MILLIS_PER_DAY);
+            this.lastMatchDay = startDay;
+
+            long civil = Iso8601.civilFromDays(startDay);
+            this.startYear = (int) (civil / 10000);
+            this.startMonth = (int) (civil / 100 % 100);
+            int startMonthDay = (int) (civil % 100);
+            int startWeekday = weekdayOf(startDay);
+
+            boolean hasDayRule = rule.byDayWeekday.length > 0 || rule.byMonthDay.length > 0
+                || rule.byYearDay.length > 0;
+            int[] weekdays = rule.byDayWeekday;
+            int[] ordinals = rule.byDayOrdinal;
+            int[] monthDays = rule.byMonthDay;
+            int[] months = rule.byMonth;
+            if (!hasDayRule) {
+                if (rule.frequency == WEEKLY || (rule.frequency == YEARLY && rule.byWeekNo.length > 0)) {
+                    weekdays = new int[] { startWeekday };
+                    ordinals = new int[] { 0 };
+                } else if (rule.frequency == MONTHLY) {
+                    monthDays = new int[] { startMonthDay };
+                } else if (rule.frequency == YEARLY) {
+                    monthDays = new int[] { startMonthDay };
+                    if (months.length == 0) {
+                        months = new int[] { startMonth };
+                    }
+                }
+            }
+            this.byDayWeekday = weekdays;
+            this.byDayOrdinal = ordinals;
+            this.byMonthDay = monthDays;
+            this.byMonth = months;
+
+            int millisOfDay = (int) (startLocal - startDay * MILLIS_PER_DAY);
+            int secondOfDay = millisOfDay / 1000;
+            int[] hours = rule.byHour.length > 0 ? rule.byHour : new int[] { secondOfDay / 3600 };
+            int[] minutes = rule.byMinute.length > 0 ? rule.byMinute : new int[] { secondOfDay / 60 % 60 };
+            int[] seconds = rule.bySecond.length > 0 ? rule.bySecond : new int[] { secondOfDay % 60 };
+            this.secondsOfDay = new int[hours.length * minutes.length * seconds.length];
+            int i = 0;
+            for (int hour : hours) {
+                for (int minute : minutes) {
+                    for (int second : seconds) {
+                        secondsOfDay[i++] = hour * 3600 + minute * 60 + second;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Skips whole periods that end before fromMillis. Only rules without COUNT can
+         * skip, since COUNT has to see every earlier occurrence.
+         */
+        void skipTo(long fromMillis) {
+            if (rule.count > 0 || bufferPos < bufferSize || period > 0) {
+                return;
+            }
+            long fromDay = Iso8601.floorDiv(fromMillis + zone.getOffset(fromMillis), MILLIS_PER_DAY);
+            long periods;
+            switch (rule.frequency) {
+                case DAILY:
+                    periods = (fromDay - startDay) / rule.interval;
+                    break;
+                case WEEKLY:
+                    periods = (fromDay - startDay) / (7L * rule.interval);
+                    break;
+                case MONTHLY: {
+                    long civil = Iso8601.civilFromDays(fromDay);
+                    long months = (civil / 10000 - startYear) * 12 + (civil / 100 % 100 - startMonth);
+                    periods = months / rule.interval;
+                    break;
+                }
+                default:
+                    periods = (Iso8601.civilFromDays(fromDay) / 10000 - startYear) / rule.interval;
+                    break;
+            }
+            // Stay one period early so nothing in the window is skipped
+            if (periods > 1) {
+                period = periods - 1;
+                lastMatchDay = fromDay;
+            }
+        }
+
+        boolean hasNext() {
+            while (bufferPos >= bufferSize && !done) {
+                fill();
+            }
+            return bufferPos < bufferSize;
+        }
+
+        /** Next occurrence start in UTC millis; call hasNext first. */
+        long next() {
+            if (!hasNext()) {
+                throw new IllegalStateException("No more occurrences");
+            }
+            emitted++;
+            long next = buffer[bufferPos++];
+            if (rule.count > 0 && emitted >= rule.count) {
+                done = true;
+                bufferSize = bufferPos;
+            }
+            return next;
+        }
+
+        private void fill() {
+            bufferPos = 0;
+            bufferSize = 0;
+
+            long first;
+            long last;
+            switch (rule.frequency) {
+                case DAILY:
+                    first = startDay + period * rule.interval;
+                    last = first;
+                    break;
+                case WEEKLY:
+                    first = startDay - Iso8601.floorMod(weekdayOf(startDay) - rule.weekStart, 7) + 7 * period * rule.interval;
+                    last = first + 6;
+                    break;
+                case MONTHLY: {
+                    long monthIndex = startYear * 12L + (startMonth - 1) + period * rule.interval;
+                    int year = (int) Iso8601.floorDiv(monthIndex, 12);
+                    int month = (int) Iso8601.floorMod(monthIndex, 12) + 1;
+                    first = Iso8601.daysFromCivil(year, month, 1);
+                    last = first + Iso8601.daysInMonth(year, month) - 1;
+                    break;
+                }
+                default: {
+                    long year = startYear + period * rule.interval;
+                    first = Iso8601.daysFromCivil((int) year, 1, 1);
+                    last = Iso8601.daysFromCivil((int) year, 12, 31);
+                    break;
+                }
+            }
+            period++;
+
+            if (Iso8601.civilFromDays(first) / 10000 > 9999 || first - lastMatchDay > MAX_GAP_DAYS) {
+                done = true;
+                return;
+            }
+
+            List<Long> days = new ArrayList<>();
+            for (long day = first; day <= last; day++) {
+                if (matches(day)) {
+                    days.add(day);
+                }
+            }
+            if (days.isEmpty()) {
+                return;
+            }
+
+            long[] candidates = new long[days.size() * secondsOfDay.length];
+            int n = 0;
+            for (long day : days) {
+                for (int second : secondsOfDay) {
+                    candidates[n++] = day * MILLIS_PER_DAY + second * 1000L + Iso8601.floorMod(startLocal, 1000);
+                }
+            }
+            Arrays.sort(candidates);
+            if (rule.bySetPos.length > 0) {
+                candidates = setPositions(candidates);
+            }
+
+            if (buffer.length < candidates.length) {
+                buffer = new long[candidates.length];
+            }
+            for (long local : candidates) {
+                if (local < startLocal) {
+                    continue;
+                }
+                long utc = toUtc(local, zone);
+                if (rule.until != Long.MAX_VALUE && (rule.untilIsUtc ? utc : local) > rule.until) {
+                    done = true;
+                    break;
+                }
+                buffer[bufferSize++] = utc;
+                lastMatchDay = Iso8601.floorDiv(local, MILLIS_PER_DAY);
+            }
+        }
+
+        private long[] setPositions(long[] candidates) {
+            long[] selected = new long[rule.bySetPos.length];
+            int n = 0;
+            for (int position : rule.bySetPos) {
+                int index = position > 0 ? position - 1 : candidates.length + position;
+                if (index >= 0 && index < candidates.length) {
+                    selected[n++] = candidates[index];
+                }
+            }
+            selected = Arrays.copyOf(selected, n);
+            Arrays.sort(selected);
+            // Drop duplicates from overlapping positive and negative positions
+            int unique = 0;
+            for (int i = 0; i < selected.length; i++) {
+                if (i == 0 || selected[i] != selected[i - 1]) {
+                    selected[unique++] = selected[i];
+                }
+            }
+            return Arrays.copyOf(selected, unique);
+        }
+
+        private boolean matches(long day) {
+            long civil = Iso8601.civilFromDays(day);
+            int year = (int) (civil / 10000);
+            int month = (int) (civil / 100 % 100);
+            int monthDay = (int) (civil % 100);
+
+            if (byMonth.length > 0 && !contains(byMonth, month)) {
+                return false;
+            }
+            if (rule.byWeekNo.length > 0 && !matchesWeekNo(day, year)) {
+                return false;
+            }
+            if (rule.byYearDay.length > 0) {
+                long jan1 = Iso8601.daysFromCivil(year, 1, 1);
+                int yearDay = (int) (day - jan1) + 1;
+                int daysInYear = Iso8601.isLeapYear(year) ? 366 : 365;
+                if (!contains(rule.byYearDay, yearDay) && !contains(rule.byYearDay, yearDay - daysInYear - 1)) {
+                    return false;
+                }
+            }
+            if (byMonthDay.length > 0) {
+                int daysInMonth = Iso8601.daysInMonth(year, month);
+                if (!contains(byMonthDay, monthDay) && !contains(byMonthDay, monthDay - daysInMonth - 1)) {
+                    return false;
+                }
+            }
+            if (byDayWeekday.length > 0) {
+                return matchesWeekday(day, year, month);
+            }
+            return true;
+        }
+
+        private boolean matchesWeekday(long day, int year, int month) {
+            int weekday = weekdayOf(day);
+            for (int i = 0; i < byDayWeekday.length; i++) {
+                if (byDayWeekday[i] != weekday) {
+                    continue;
+                }
+                int ordinal = byDayOrdinal[i];
+                // Ordinals only mean something for MONTHLY and YEARLY rules
+                if (ordinal == 0 || rule.frequency == DAILY || rule.frequency == WEEKLY) {
+                    return true;
+                }
+                long first;
+                long last;
+                if (rule.frequency == MONTHLY || rule.byMonth.length > 0) {
+                    first = Iso8601.daysFromCivil(year, month, 1);
+                    last = first + Iso8601.daysInMonth(year, month) - 1;
+                } else {
+                    first = Iso8601.daysFromCivil(year, 1, 1);
+                    last = Iso8601.daysFromCivil(year, 12, 31);
+                }
+                if (ordinal > 0 ? (day - first) / 7 + 1 == ordinal : -((last - day) / 7 + 1) == ordinal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesWeekNo(long day, int year) {
+            // Week 1 is the first week (starting on WKST) with at least four days in the year
+            long weekStart = day - Iso8601.floorMod(weekdayOf(day) - rule.weekStart, 7);
+            long week1 = firstWeekStart(year);
+            int weekYear = year;
+            if (weekStart < week1) {
+                weekYear = year - 1;
+                week1 = firstWeekStart(weekYear);
+            } else if (weekStart >= firstWeekStart(year + 1)) {
+                weekYear = year + 1;
+                week1 = firstWeekStart(weekYear);
+            }
+            int weekNo = (int) ((weekStart - week1) / 7) + 1;
+            int weeksInYear = (int) ((firstWeekStart(weekYear + 1) - week1) / 7);
+            return contains(rule.byWeekNo, weekNo) || contains(rule.byWeekNo, weekNo - weeksInYear - 1);
+        }
+
+        private long firstWeekStart(int year) {
+            long jan1 = Iso8601.daysFromCivil(year, 1, 1);
+            int offset = (int) Iso8601.floorMod(weekdayOf(jan1) - rule.weekStart, 7);
+            return offset <= 3 ? jan1 - offset : jan1 + 7 - offset;
+        }
+    }
+
+    /**
+     * An UNTIL value as UTC millis, reading a floating or date-only one in the given
+     * zone. Throws IllegalArgumentException when it isn't a DATE or DATE-TIME.
+     */
+    static long parseUntilMillis(String value, TimeZone zone) {
+        boolean utc = value.endsWith("Z");
+        long until = parseUntil(value, utc ? value.substring(0, value.length() - 1) : value);
+        return utc ? until : toUtc(until, zone);
+    }
+
+    /** RFC 5545 weekday code (MO..SU) for a weekday number. */
+    static String weekdayCode(int weekday) {
+        return WEEKDAYS[weekday];
+    }
+
+    static String frequencyName(int frequency) {
+        return FREQUENCIES[frequency];
+    }
+
+    private static int weekdayOf(long epochDay) {
+        // 1970-01-01 was a Thursday
+        return (int) Iso8601.floorMod(epochDay + 3, 7);
+    }
+
+    static long toUtc(long local, TimeZone zone) {
+        long utc = local - zone.getOffset(local);
+        // Correct for a DST transition between the two offsets
+        return local - zone.getOffset(utc);
+    }
+
+    private static long parseUntil(String rule, String value) {
+        if (value.length() != 8 && !(value.length() == 15 && value.charAt(8) == 'T')) {
+            throw invalid(rule);
+        }
+        int year = number(rule, value.substring(0, 4), 0, 9999);
+        int month = number(rule, value.substring(4, 6), 1, 12);
+        int day = number(rule, value.substring(6, 8), 1, Iso8601.daysInMonth(year, month));
+        long millis = Iso8601.daysFromCivil(year, month, day) * MILLIS_PER_DAY;
+        if (value.length() == 8) {
+            // A date-only UNTIL includes the whole day
+            return millis + MILLIS_PER_DAY - 1;
+        }
+        int hour = number(rule, value.substring(9, 11), 0, 23);
+        int minute = number(rule, value.substring(11, 13), 0, 59);
+        int second = number(rule, value.substring(13, 15), 0, 60);
+        return millis + ((hour * 60L + minute) * 60L + second) * 1000L;
+    }
+
+    private static int weekday(String rule, String code) {
+        int weekday = Arrays.asList(WEEKDAYS).indexOf(code);
+        if (weekday < 0) {
+            throw invalid(rule);
+        }
+        return weekday;
+    }
+
+    private static int[] list(String rule, String value, boolean signed, int max) {
+        String[] parts = value.split(",");
+        int[] numbers = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            numbers[i] = signed ? nonZero(rule, parts[i], max) : number(rule, parts[i], 1, max);
+        }
+        return numbers;
+    }
+
+    private static int[] sortedRange(String rule, String value, int max) {
+        String[] parts = value.split(",");
+        int[] numbers = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            numbers[i] = number(rule, parts[i], 0, max);
+        }
+        Arrays.sort(numbers);
+        return numbers;
+    }
+
+    private static int nonZero(String rule, String value, int max) {
+        int number = number(rule, value.startsWith("+") ? value.substring(1) : value, -max, max);
+        if (number == 0) {
+            throw invalid(rule);
+        }
+        return number;
+    }
+
+    private static int number(String rule, String value, int min, int max) {
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw invalid(rule);
+        }
+        if (number < min || number > max) {
+            throw invalid(rule);
+        }
+        return number;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static IllegalArgumentException invalid(@Nullable String rule) {
+        return new IllegalArgumentException("Invalid RRULE: " + rule);
+    }
+}
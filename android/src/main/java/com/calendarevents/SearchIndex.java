@@ -0,0 +1,388 @@
+package com.calendarevents;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import android.provider.CalendarContract.Events;
+
+import androidx.annotation.Nullable;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index over event titles, locations and notes.
+ *
+ * Text is lower-cased, stripped of accents and split into words; every word is
+ * indexed by its trigrams, with a leading space so that word starts have trigrams
+ * of their own. A query term of three or more characters matches anywhere inside a
+ * word, a shorter term only at the start of a word. Candidates come from intersecting
+ * posting lists and are then verified against the stored text, so trigram collisions
+ * never reach the results.
+ *
+ * The index is synced lazily: a provider change only marks it stale, and the next
+ * search re-reads the indexed columns and re-tokenizes just the events whose content
+ * hash changed. Removed or replaced documents leave tombstones in the posting lists
+ * until they outnumber live documents, at which point the postings are rebuilt.
+ */
+final class SearchIndex implements ProviderObserver.Listener {
+    private static final String[] PROJECTION = new String[] {
+        Events._ID,
+        Events.TITLE,
+        Events.EVENT_LOCATION,
+        Events.DESCRIPTION,
+        Events.DTSTART,
+        Events.DTEND,
+        Events.LAST_DATE,
+        Events.CALENDAR_ID
+    };
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int TITLE_WEIGHT = 4;
+    private static final int LOCATION_WEIGHT = 2;
+    private static final int NOTES_WEIGHT = 1;
+
+    private static final class Doc {
+        final long id;
+        final long hash;
+        final String title;
+        final String location;
+        final String notes;
+        final long start;
+        /** End of the last occurrence for recurring events. */
+        final long end;
+        final long calendarId;
+
+        Doc(long id, long hash, String title, String location, String notes, long start, long end, long calendarId) {
+            this.id = id;
+            this.hash = hash;
+            this.title = title;
+            this.location = location;
+            this.notes = notes;
+            this.start = start;
+            this.end = end;
+            this.calendarId = calendarId;
+        }
+    }
+
+    /** Growable int array used for posting lists. */
+    private static final class Postings {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+
+    static final class Match {
+        final long eventId;
+        final int score;
+        final long start;
+
+        Match(long eventId, int score, long start) {
+            this.eventId = eventId;
+            this.score = score;
+            this.start = start;
+        }
+    }
+
+    private static final Comparator<Match> BY_RANK = new Comparator<Match>() {
+        @Override
+        public int compare(Match a, Match b) {
+            if (a.score != b.score) {
+                return a.score > b.score ? -1 : 1;
+            }
+            return a.start < b.start ? -1 : (a.start == b.start ? 0 : 1);
+        }
+    };
+
+    private final List<Doc> docs = new ArrayList<>();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private int tombstones;
+    private long generation;
+    private long syncedGeneration = -1;
+
+    @Override
+    public synchronized void onProviderChange() {
+        generation++;
+    }
+
+    /**
+     * Brings the index up to date if the provider changed since the last sync, then
+     * returns up to limit events matching every query term whose time span overlaps
+     * [startMillis, endMillis], best first.
+     */
+    synchronized List<Match> search(ContentResolver cr, String query, long startMillis, long endMillis,
+                                    @Nullable Set<Long> calendarIds, int limit,
+                                    @Nullable CancellationSignal signal) {
+        if (syncedGeneration != generation) {
+            long syncGeneration = generation;
+            sync(cr, signal);
+            syncedGeneration = syncGeneration;
+        }
+
+        String[] terms = normalize(query).trim().split(" +");
+        if (terms.length == 0 || terms[0].isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (int slot : candidates(terms)) {
+            Doc doc = docs.get(slot);
+            if (doc == null || doc.start > endMillis || doc.end < startMillis
+                || (calendarIds != null && !calendarIds.contains(doc.calendarId))) {
+                continue;
+            }
+            int score = score(doc, terms);
+            if (score > 0) {
+                matches.add(new Match(doc.id, score, doc.start));
+            }
+        }
+
+        Collections.sort(matches, BY_RANK);
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Slots whose posting lists contain every trigram of every term. One-character
+     * terms don't narrow the candidates; verification in score handles them.
+     */
+    private Iterable<Integer> candidates(String[] terms) {
+        Set<Integer> result = null;
+        for (String term : terms) {
+            if (term.length() < 2) {
+                continue;
+            }
+            // Short terms only match word starts, via their space-prefixed trigram
+            String padded = term.length() < 3 ? " " + term : term;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                Postings list = postings.get(trigram(padded, i));
+                if (list == null) {
+                    return Collections.emptyList();
+                }
+                Set<Integer> slots = new HashSet<>(list.size * 2);
+                for (int j = 0; j < list.size; j++) {
+                    int slot = list.slots[j];
+                    if (result == null || result.contains(slot)) {
+                        slots.add(slot);
+                    }
+                }
+                result = slots;
+                if (result.isEmpty()) {
+                    return result;
+                }
+            }
+        }
+        if (result != null) {
+            return result;
+        }
+        List<Integer> all = new ArrayList<>(docs.size());
+        for (int slot = 0; slot < docs.size(); slot++) {
+            all.add(slot);
+        }
+        return all;
+    }
+
+    /**
+     * Sum over terms of the best field match, weighted by field, with a bonus when the
+     * term starts a word; 0 when any term is missing.
+     */
+    private static int score(Doc doc, String[] terms) {
+        int total = 0;
+        for (String term : terms) {
+            int best = Math.max(fieldScore(doc.title, term, TITLE_WEIGHT),
+                Math.max(fieldScore(doc.location, term, LOCATION_WEIGHT), fieldScore(doc.notes, term, NOTES_WEIGHT)));
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int fieldScore(String text, String term, int weight) {
+        int score = 0;
+        for (int at = text.indexOf(term); at >= 0; at = text.indexOf(term, at + 1)) {
+            boolean wordStart = at == 0 || text.charAt(at - 1) == ' ';
+            if (term.length() < 3 && !wordStart) {
+                continue;
+            }
+            int candidate = weight * (wordStart ? 2 : 1);
+            int end = at + term.length();
+            if (wordStart && (end == text.length() || text.charAt(end) == ' ')) {
+                // Whole-word match
+                candidate += weight;
+            }
+            score = Math.max(score, candidate);
+        }
+        return score;
+    }
+
+    private void sync(ContentResolver cr, @Nullable CancellationSignal signal) {
+        Cursor cursor = Metrics.query(cr, Events.CONTENT_URI, PROJECTION, Events.DELETED + " = 0", null, null, signal);
+        if (cursor == null) {
+            return;
+        }
+
+        Set<Long> seen = new HashSet<>();
+        try {
+            while (cursor.moveToNext()) {
+                long id = cursor.getLong(0);
+                String title = cursor.getString(1);
+                String location = cursor.getString(2);
+                String notes = cursor.getString(3);
+                long start = cursor.getLong(4);
+                long end;
+                if (!cursor.isNull(6)) {
+                    end = cursor.getLong(6);
+                } else if (!cursor.isNull(5)) {
+                    end = cursor.getLong(5);
+                } else {
+                    // A recurring event without LAST_DATE repeats forever
+                    end = Long.MAX_VALUE;
+                }
+                end = Math.max(end, start);
+                long calendarId = cursor.getLong(7);
+                seen.add(id);
+
+                long hash = hash(title, location, notes, start, end, calendarId);
+                Integer slot = slotsById.get(id);
+                if (slot != null) {
+                    if (docs.get(slot).hash == hash) {
+                        continue;
+                    }
+                    remove(slot);
+                }
+                add(new Doc(id, hash, normalize(title), normalize(location), normalize(notes), start, end, calendarId));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        for (Long id : new ArrayList<>(slotsById.keySet())) {
+            if (!seen.contains(id)) {
+                remove(slotsById.get(id));
+            }
+        }
+        if (tombstones > slotsById.size()) {
+            compact();
+        }
+    }
+
+    private void add(Doc doc) {
+        int slot = docs.size();
+        docs.add(doc);
+        slotsById.put(doc.id, slot);
+        indexText(slot, doc.title);
+        indexText(slot, doc.location);
+        indexText(slot, doc.notes);
+    }
+
+    private void remove(int slot) {
+        Doc doc = docs.get(slot);
+        slotsById.remove(doc.id);
+        docs.set(slot, null);
+        tombstones++;
+    }
+
+    /** Drops tombstones by renumbering live documents and rebuilding all postings. */
+    private void compact() {
+        List<Doc> live = new ArrayList<>(slotsById.size());
+        for (Doc doc : docs) {
+            if (doc != null) {
+                live.add(doc);
+            }
+        }
+        docs.clear();
+        slotsById.clear();
+        postings.clear();
+        tombstones = 0;
+        for (Doc doc : live) {
+            add(doc);
+        }
+    }
+
+    private void indexText(int slot, String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        Set<Long> added = new HashSet<>();
+        for (String word : text.split(" ")) {
+            String padded = " " + word;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                long trigram = trigram(padded, i);
+                if (added.add(trigram)) {
+                    Postings list = postings.get(trigram);
+                    if (list == null) {
+                        list = new Postings();
+                        postings.put(trigram, list);
+                    }
+                    // The same trigram can come from several fields of one document
+                    if (list.size == 0 || list.slots[list.size - 1] != slot) {
+                        list.add(slot);
+                    }
+                }
+            }
+        }
+    }
+
+    private static long trigram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    /**
+     * Lower-cases, strips accents and collapses everything but letters and digits into
+     * single spaces.
+     */
+    static String normalize(@Nullable String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        StringBuilder out = new StringBuilder(folded.length());
+        boolean space = true;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                out.append(c);
+                space = false;
+            } else if (!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+        int length = out.length();
+        if (length > 0 && out.charAt(length - 1) == ' ') {
+            out.setLength(length - 1);
+        }
+        return out.toString();
+    }
+
+    private static long hash(@Nullable String title, @Nullable String location, @Nullable String notes,
+                             long start, long end, long calendarId) {
+        long hash = 17;
+        hash = hash * 31 + (title != null ? title.hashCode() : 0);
+        hash = hash * 31 + (location != null ? location.hashCode() : 0);
+        hash = hash * 31 + (notes != null ? notes.hashCode() : 0);
+        hash = hash * 31 + start;
+        hash = hash * 31 + end;
+        hash = hash * 31 + calendarId;
+        return hash;
+    }
+}
@@ -0,0 +1,91 @@
+package com.calendarevents;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/** Promise a test thread can wait on; rejections become AssertionErrors. */
+final class BlockingPromise implements Promise {
+    private final CountDownLatch settled = new CountDownLatch(1);
+    private final long timeoutSeconds;
+    private volatile Object value;
+    private volatile String error;
+
+    BlockingPromise(long timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    Object await() throws InterruptedException {
+        if (!settled.await(timeoutSeconds, TimeUnit.SECONDS)) {
+            throw new AssertionError("Call did not settle within " + timeoutSeconds + "s");
+        }
+        if (error != null) {
+            throw new AssertionError("Call rejected: " + error);
+        }
+        return value;
+    }
+
+    private void fail(String code, String message, Throwable throwable) {
+        error = code + ": " + (message != null ? message : throwable);
+        settled.countDown();
+    }
+
+    @Override
+    public void resolve(Object value) {
+        this.value = value;
+        settled.countDown();
+    }
+
+    @Override
+    public void reject(String code, String message) {
+        fail(code, message, null);
+    }
+
+    @Override
+    public void reject(String code, Throwable throwable) {
+        fail(code, null, throwable);
+    }
+
+    @Override
+    public void reject(String code, String message, Throwable throwable) {
+        fail(code, message, throwable);
+    }
+
+    @Override
+    public void reject(Throwable throwable) {
+        fail(null, null, throwable);
+    }
+
+    @Override
+    public void reject(Throwable throwable, WritableMap userInfo) {
+        fail(null, null, throwable);
+    }
+
+    @Override
+    public void reject(String code, WritableMap userInfo) {
+        fail(code, null, null);
+    }
+
+    @Override
+    public void reject(String code, Throwable throwable, WritableMap userInfo) {
+        fail(code, null, throwable);
+    }
+
+    @Override
+    public void reject(String code, String message, WritableMap userInfo) {
+        fail(code, message, null);
+    }
+
+    @Override
+    public void reject(String code, String message, Throwable throwable, WritableMap userInfo) {
+        fail(code, message, throwable);
+    }
+
+    /** @deprecated Kept for the Promise interface of older React Native versions. */
+    @Deprecated
+    public void reject(String message) {
+        fail(null, message, null);
+    }
+}
@@ -0,0 +1,102 @@
+package com.calendarevents;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.ContentProvider;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.provider.CalendarContract;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * Registry invalidation by root-URI change notifications, which the platform provider
+ * sends for event writes as well as calendar ones.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class CalendarRegistryTest {
+    /** Serves one primary calendar and counts Calendars queries. */
+    public static final class CalendarsProvider extends ContentProvider {
+        int queries;
+
+        @Override
+        public boolean onCreate() {
+            return true;
+        }
+
+        @Override
+        public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                            String sortOrder) {
+            queries++;
+            MatrixCursor cursor = new MatrixCursor(projection);
+            cursor.addRow(new Object[] { 7L, "Work", "me@example.com", "com.google", 1, 0xFF0000, 700 });
+            return cursor;
+        }
+
+        @Override
+        public String getType(Uri uri) {
+            return null;
+        }
+
+        @Override
+        public Uri insert(Uri uri, ContentValues values) {
+            return null;
+        }
+
+        @Override
+        public int delete(Uri uri, String selection, String[] selectionArgs) {
+            return 0;
+        }
+
+        @Override
+        public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+            return 0;
+        }
+    }
+
+    private CalendarsProvider provider;
+    private ContentResolver cr;
+    private CalendarRegistry registry;
+
+    @Before
+    public void setUp() {
+        provider = Robolectric.setupContentProvider(CalendarsProvider.class, CalendarContract.AUTHORITY);
+        cr = RuntimeEnvironment.getApplication().getContentResolver();
+        registry = new CalendarRegistry();
+        assertEquals(7, registry.defaultCalendarId(cr));
+    }
+
+    @Test
+    public void ownWriteNotificationsKeepTheRegistry() {
+        registry.beginWrite();
+        registry.onProviderChange();
+        registry.endWrite();
+        // Delivered after the write returned
+        registry.onProviderChange();
+
+        assertEquals(7, registry.defaultCalendarId(cr));
+        assertEquals(1, provider.queries);
+    }
+
+    @Test
+    public void otherNotificationsDropTheRegistry() {
+        registry.beginWrite();
+        registry.endWrite();
+        SystemClock.sleep(CalendarRegistry.OWN_WRITE_QUIET_MS);
+        registry.onProviderChange();
+
+        assertEquals(7, registry.defaultCalendarId(cr));
+        assertEquals(2, provider.queries);
+    }
+}
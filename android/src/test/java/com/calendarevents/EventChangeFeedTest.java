@@ -0,0 +1,94 @@
+package com.calendarevents;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.database.MatrixCursor;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscriptions whose initial load overlaps a provider change: the change must still
+ * be reported once the load has taken its snapshot.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class EventChangeFeedTest {
+    private final CountDownLatch loadStarted = new CountDownLatch(1);
+    private final CountDownLatch finishLoad = new CountDownLatch(1);
+    private final CountDownLatch reported = new CountDownLatch(1);
+    private volatile String title = "draft";
+    private volatile List<EventRecord> changed;
+    private EventChangeFeed feed;
+
+    @After
+    public void tearDown() {
+        if (feed != null) {
+            feed.close();
+        }
+    }
+
+    @Test
+    public void changeDuringInitialLoadIsReported() throws Exception {
+        feed = new EventChangeFeed(
+            (startMillis, endMillis, calendarIds) -> {
+                // The initial load reads the row before the change and returns after it
+                List<EventRecord> events = Collections.singletonList(event(1, title));
+                if (loadStarted.getCount() > 0) {
+                    loadStarted.countDown();
+                    await(finishLoad);
+                }
+                return events;
+            },
+            (subscriptionId, added, changedEvents, removed) -> {
+                changed = changedEvents;
+                reported.countDown();
+            });
+
+        final EventChangeFeed.Subscription subscription = feed.add("screen", 0, 86400000L, null);
+        assertFalse(feed.isEmpty());
+        Thread subscriber = new Thread(() -> feed.load(subscription));
+        subscriber.start();
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+        title = "final";
+        feed.onProviderChange();
+        // Let the debounced diff run while the load is still in progress
+        Thread.sleep(EventChangeFeed.DEBOUNCE_MS * 3);
+        assertEquals(1, reported.getCount());
+
+        finishLoad.countDown();
+        subscriber.join(5000);
+        assertTrue(reported.await(5, TimeUnit.SECONDS));
+        assertEquals(1, changed.size());
+        assertEquals("final", changed.get(0).title);
+    }
+
+    private static EventRecord event(long id, String title) {
+        MatrixCursor cursor = new MatrixCursor(EventFields.DEFAULT.projection);
+        Object[] row = new Object[EventFields.DEFAULT.projection.length];
+        row[0] = id;
+        row[EventFields.DEFAULT.column(EventFields.TITLE)] = title;
+        cursor.addRow(row);
+        cursor.moveToFirst();
+        return EventRecord.from(cursor, EventFields.DEFAULT, Collections.emptyMap());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
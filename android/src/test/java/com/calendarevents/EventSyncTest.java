@@ -0,0 +1,338 @@
+package com.calendarevents;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ContentProvider;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.provider.CalendarContract;
+import android.provider.CalendarContract.Events;
+import android.provider.CalendarContract.Reminders;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * syncEvents run through the module against a fake calendar provider that stores
+ * rows and rewrites all-day events on insert and update the way the platform
+ * provider does: DTSTART and DTEND move back to UTC midnight and P<n>S durations are
+ * rounded up to P<n>D.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, shadows = ShadowArguments.class, instrumentedPackages = "com.facebook.react.bridge")
+public class EventSyncTest {
+    private static final String CALENDAR_ID = "1";
+    private static final long DAY = 86400000L;
+
+    /** Keeps Events and Reminders rows in memory, rewriting all-day events like the platform provider. */
+    public static final class StoringCalendarProvider extends ContentProvider {
+        final Map<Long, ContentValues> events = new TreeMap<>();
+        final List<ContentValues> reminders = new ArrayList<>();
+        int eventWrites;
+        private long nextId = 1;
+
+        @Override
+        public boolean onCreate() {
+            return true;
+        }
+
+        /** Adds a row directly, as another app or an earlier sync would have. */
+        long store(long calendarId, String uid) {
+            ContentValues row = new ContentValues();
+            row.put(Events.CALENDAR_ID, calendarId);
+            row.put(Events.UID_2445, uid);
+            row.put(Events.TITLE, uid);
+            row.put(Events.DTSTART, 0L);
+            events.put(nextId, row);
+            return nextId++;
+        }
+
+        int[] minutes(long eventId) {
+            List<Integer> minutes = new ArrayList<>();
+            for (ContentValues reminder : reminders) {
+                if (reminder.getAsLong(Reminders.EVENT_ID) == eventId) {
+                    minutes.add(reminder.getAsInteger(Reminders.MINUTES));
+                }
+            }
+            return EventSync.sortedMinutes(minutes);
+        }
+
+        @Override
+        public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                            String sortOrder) {
+            MatrixCursor cursor = new MatrixCursor(projection);
+            if (Reminders.CONTENT_URI.equals(uri)) {
+                // event_id IN (...)
+                List<String> eventIds = Arrays.asList(selectionArgs);
+                for (ContentValues reminder : reminders) {
+                    if (eventIds.contains(reminder.getAsString(Reminders.EVENT_ID))) {
+                        cursor.addRow(row(projection, reminder, 0));
+                    }
+                }
+                return cursor;
+            }
+            if (!selection.contains(Events.UID_2445 + " >= ? AND " + Events.UID_2445 + " < ?")) {
+                throw new UnsupportedOperationException("Unsupported selection: " + selection);
+            }
+            // EventSync.queryStored: calendar, then the [KEY_PREFIX, KEY_END) range
+            for (Map.Entry<Long, ContentValues> entry : events.entrySet()) {
+                ContentValues row = entry.getValue();
+                String uid = row.getAsString(Events.UID_2445);
+                if (row.getAsString(Events.CALENDAR_ID).equals(selectionArgs[0]) && uid != null
+                        && uid.compareTo(selectionArgs[1]) >= 0 && uid.compareTo(selectionArgs[2]) < 0) {
+                    cursor.addRow(row(projection, row, entry.getKey()));
+                }
+            }
+            return cursor;
+        }
+
+        @Override
+        public String getType(Uri uri) {
+            return null;
+        }
+
+        @Override
+        public Uri insert(Uri uri, ContentValues values) {
+            if (Reminders.CONTENT_URI.equals(uri)) {
+                reminders.add(new ContentValues(values));
+                return ContentUris.withAppendedId(Reminders.CONTENT_URI, reminders.size());
+            }
+            events.put(nextId, fixAllDay(new ContentValues(values)));
+            eventWrites++;
+            return ContentUris.withAppendedId(Events.CONTENT_URI, nextId++);
+        }
+
+        @Override
+        public int delete(Uri uri, String selection, String[] selectionArgs) {
+            if (Reminders.CONTENT_URI.equals(uri)) {
+                // event_id = ?
+                return removeReminders(Long.parseLong(selectionArgs[0]));
+            }
+            long id = ContentUris.parseId(uri);
+            removeReminders(id);
+            return events.remove(id) != null ? 1 : 0;
+        }
+
+        @Override
+        public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+            ContentValues row = events.get(ContentUris.parseId(uri));
+            if (row == null) {
+                return 0;
+            }
+            row.putAll(values);
+            fixAllDay(row);
+            eventWrites++;
+            return 1;
+        }
+
+        private int removeReminders(long eventId) {
+            int removed = 0;
+            for (Iterator<ContentValues> i = reminders.iterator(); i.hasNext(); ) {
+                if (i.next().getAsLong(Reminders.EVENT_ID) == eventId) {
+                    i.remove();
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        private static Object[] row(String[] projection, ContentValues values, long id) {
+            Object[] row = new Object[projection.length];
+            for (int i = 0; i < projection.length; i++) {
+                row[i] = Events._ID.equals(projection[i]) && id > 0 ? id : values.get(projection[i]);
+            }
+            return row;
+        }
+
+        private static ContentValues fixAllDay(ContentValues row) {
+            Integer allDay = row.getAsInteger(Events.ALL_DAY);
+            if (allDay == null || allDay == 0) {
+                return row;
+            }
+            for (String column : new String[] { Events.DTSTART, Events.DTEND }) {
+                Long millis = row.getAsLong(column);
+                if (millis != null) {
+                    row.put(column, Math.floorDiv(millis, DAY) * DAY);
+                }
+            }
+            String duration = row.getAsString(Events.DURATION);
+            if (duration != null && duration.endsWith("S")) {
+                long seconds = Long.parseLong(duration.substring(1, duration.length() - 1));
+                row.put(Events.DURATION, "P" + (seconds + 86399) / 86400 + "D");
+            }
+            return row;
+        }
+    }
+
+    private StoringCalendarProvider provider;
+    private CalendarEventsNativeModule module;
+
+    @Before
+    public void setUp() {
+        provider = Robolectric.setupContentProvider(StoringCalendarProvider.class, CalendarContract.AUTHORITY);
+        module = new CalendarEventsNativeModule(new ReactApplicationContext(RuntimeEnvironment.getApplication()));
+    }
+
+    @After
+    public void tearDown() {
+        module.invalidate();
+    }
+
+    @Test
+    public void allDayRecurringEventIsUnchangedOnSecondSync() throws Exception {
+        // Midnight to midnight in Europe/Berlin, as a JS client would send it
+        JavaOnlyMap holiday = event("holiday", "2024-04-30T22:00:00.000Z", "2024-05-01T22:00:00.000Z", true);
+        holiday.putMap("recurrence", JavaOnlyMap.of("frequency", "yearly"));
+
+        assertEquals("inserted", action(sync(null, holiday), 0));
+        ContentValues stored = provider.events.get(1L);
+        assertEquals(Iso8601.parse("2024-04-30T00:00:00Z"), (long) stored.getAsLong(Events.DTSTART));
+        assertEquals("P1D", stored.getAsString(Events.DURATION));
+        assertNull(stored.getAsLong(Events.DTEND));
+
+        assertEquals("unchanged", action(sync(null, holiday), 0));
+        assertEquals(1, provider.eventWrites);
+    }
+
+    @Test
+    public void allDayEventIsUnchangedOnSecondSync() throws Exception {
+        JavaOnlyMap offsite = event("offsite", "2024-05-06T09:30:00.000Z", "2024-05-08T17:00:00.000Z", true);
+
+        assertEquals("inserted", action(sync(null, offsite), 0));
+        assertEquals("unchanged", action(sync(null, offsite), 0));
+        assertEquals(1, provider.eventWrites);
+    }
+
+    @Test
+    public void timedEventsKeepTheirTimes() throws Exception {
+        JavaOnlyMap standup = event("standup", "2024-05-06T09:30:00.000Z", "2024-05-06T09:45:00.000Z", false);
+        standup.putMap("recurrence", JavaOnlyMap.of("frequency", "daily"));
+
+        assertEquals("inserted", action(sync(null, standup), 0));
+        assertEquals(Iso8601.parse("2024-05-06T09:30:00Z"), (long) provider.events.get(1L).getAsLong(Events.DTSTART));
+        assertEquals("P900S", provider.events.get(1L).getAsString(Events.DURATION));
+        assertEquals("unchanged", action(sync(null, standup), 0));
+    }
+
+    @Test
+    public void changedAllDayEventIsUpdatedOnce() throws Exception {
+        JavaOnlyMap holiday = event("holiday", "2024-04-30T22:00:00.000Z", "2024-05-01T22:00:00.000Z", true);
+        holiday.putMap("recurrence", JavaOnlyMap.of("frequency", "yearly"));
+        assertEquals("inserted", action(sync(null, holiday), 0));
+
+        holiday.putString("title", "bank holiday");
+        assertEquals("updated", action(sync(null, holiday), 0));
+        assertEquals("unchanged", action(sync(null, holiday), 0));
+        assertEquals(2, provider.eventWrites);
+    }
+
+    @Test
+    public void alarmsAreComparedInAnyOrder() throws Exception {
+        JavaOnlyMap standup = event("standup", "2024-05-06T09:30:00.000Z", "2024-05-06T09:45:00.000Z", false);
+        standup.putArray("alarms", alarms(60, 10));
+        assertEquals("inserted", action(sync(null, standup), 0));
+        assertArrayEquals(new int[] { 10, 60 }, provider.minutes(1));
+
+        standup.putArray("alarms", alarms(10, 60));
+        assertEquals("unchanged", action(sync(null, standup), 0));
+
+        standup.putArray("alarms", alarms(15));
+        assertEquals("updated", action(sync(null, standup), 0));
+        assertArrayEquals(new int[] { 15 }, provider.minutes(1));
+        // Only the reminders were rewritten
+        assertEquals(1, provider.eventWrites);
+    }
+
+    @Test
+    public void deleteMissingOnlyTouchesPrefixedKeysInTheCalendar() throws Exception {
+        long foreign = provider.store(1, "holiday@example.com");
+        long unkeyed = provider.store(1, null);
+        // Sorts after every prefixed key, so outside the KEY_PREFIX/KEY_END range
+        long lookalike = provider.store(1, "calendarevents-syncx");
+        long otherCalendar = provider.store(2, EventSync.storedKey("old"));
+        long missing = provider.store(1, EventSync.storedKey("old"));
+        long kept = provider.store(1, EventSync.storedKey("kept"));
+
+        ReadableMap result = sync(JavaOnlyMap.of("deleteMissing", true),
+            event("kept", "2024-05-06T09:30:00.000Z", "2024-05-06T09:45:00.000Z", false));
+
+        assertEquals("updated", action(result, 0));
+        assertEquals(String.valueOf(kept), result.getArray("results").getMap(0).getString("id"));
+        ReadableArray deleted = result.getArray("deleted");
+        assertEquals(1, deleted.size());
+        assertEquals(String.valueOf(missing), deleted.getMap(0).getString("id"));
+        assertEquals("old", deleted.getMap(0).getString("externalId"));
+        for (long id : new long[] { foreign, unkeyed, lookalike, otherCalendar, kept }) {
+            assertTrue(provider.events.containsKey(id));
+        }
+    }
+
+    @Test
+    public void duplicateStoredKeysAreRemovedOnlyWithDeleteMissing() throws Exception {
+        long first = provider.store(1, EventSync.storedKey("standup"));
+        long copy = provider.store(1, EventSync.storedKey("standup"));
+        JavaOnlyMap standup = event("standup", "2024-05-06T09:30:00.000Z", "2024-05-06T09:45:00.000Z", false);
+
+        ReadableMap result = sync(null, standup);
+        assertEquals(String.valueOf(first), result.getArray("results").getMap(0).getString("id"));
+        assertEquals(0, result.getArray("deleted").size());
+        assertTrue(provider.events.containsKey(copy));
+
+        result = sync(JavaOnlyMap.of("deleteMissing", true), standup);
+        assertEquals("unchanged", action(result, 0));
+        assertEquals(1, result.getArray("deleted").size());
+        assertEquals(String.valueOf(copy), result.getArray("deleted").getMap(0).getString("id"));
+        assertTrue(provider.events.containsKey(first));
+    }
+
+    /** An event as a JS client passes it to syncEvents. */
+    private static JavaOnlyMap event(String externalId, String start, String end, boolean allDay) {
+        return JavaOnlyMap.of("externalId", externalId, "title", externalId, "startDate", start, "endDate", end,
+            "allDay", allDay);
+    }
+
+    private static JavaOnlyArray alarms(int... minutes) {
+        JavaOnlyArray alarms = new JavaOnlyArray();
+        for (int m : minutes) {
+            alarms.pushMap(JavaOnlyMap.of("minutes", m));
+        }
+        return alarms;
+    }
+
+    private ReadableMap sync(ReadableMap options, ReadableMap... events) throws InterruptedException {
+        BlockingPromise promise = new BlockingPromise(10);
+        module.syncEvents(CALENDAR_ID, JavaOnlyArray.of((Object[]) events), options, promise);
+        return (ReadableMap) promise.await();
+    }
+
+    private static String action(ReadableMap result, int index) {
+        ReadableMap entry = result.getArray("results").getMap(index);
+        assertNull(entry.getString("error"));
+        return entry.getString("action");
+    }
+}
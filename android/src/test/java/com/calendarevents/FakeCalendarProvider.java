@@ -0,0 +1,196 @@
+package com.calendarevents;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.provider.CalendarContract.Events;
+import android.provider.CalendarContract.Instances;
+import android.provider.CalendarContract.Reminders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves eventCount generated events in one calendar, each with a 10 and a 60 minute
+ * reminder, and counts the queries each table receives. Event n starts at
+ * FIRST_START + n * spacingMillis and lasts 30 minutes; every recurringEvery-th event
+ * carries RRULE. Rows are built per query, so 100k events cost no memory up front.
+ *
+ * Only the selections the module sends are understood: none, "_id IN (...)", the
+ * DTSTART window with an optional page position, and "event_id IN (...)" on
+ * Reminders. Calendar filters are ignored, and Instances returns each event once at
+ * its own start, without expanding recurrences.
+ */
+public final class FakeCalendarProvider extends ContentProvider {
+    static final String RRULE = "FREQ=WEEKLY;BYDAY=MO";
+    static final long FIRST_START = 1704099600000L;
+
+    int eventCount;
+    long spacingMillis = 3600000L;
+    int recurringEvery = 1;
+
+    int eventQueries;
+    int reminderQueries;
+    int instanceQueries;
+    long rows;
+
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    long start(long id) {
+        return FIRST_START + id * spacingMillis;
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                        String sortOrder) {
+        MatrixCursor cursor = new MatrixCursor(projection);
+        List<String> path = uri.getPathSegments();
+        if (path.get(0).equals(Events.CONTENT_URI.getLastPathSegment())) {
+            eventQueries++;
+            for (long id : eventIds(path, selection, selectionArgs, limit(sortOrder))) {
+                cursor.addRow(row(projection, id));
+            }
+        } else if (Reminders.CONTENT_URI.equals(uri)) {
+            reminderQueries++;
+            for (String eventId : selectionArgs) {
+                cursor.addRow(reminderRow(projection, Long.parseLong(eventId), 10));
+                cursor.addRow(reminderRow(projection, Long.parseLong(eventId), 60));
+            }
+        } else if (path.get(0).equals(Instances.CONTENT_URI.getPathSegments().get(0))) {
+            instanceQueries++;
+            // instances/when/<begin>/<end>: events overlapping the window
+            long begin = Long.parseLong(path.get(path.size() - 2));
+            long end = Long.parseLong(path.get(path.size() - 1));
+            for (long id = firstStartingAtOrAfter(begin - 1800000L + 1); id <= eventCount && start(id) <= end; id++) {
+                cursor.addRow(row(projection, id));
+            }
+        } else {
+            throw new UnsupportedOperationException("Unsupported uri: " + uri);
+        }
+        rows += cursor.getCount();
+        return cursor;
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        return null;
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        return null;
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        return 0;
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        return 0;
+    }
+
+    /** Matching event ids in (DTSTART, _ID) order, which is id order here. */
+    private List<Long> eventIds(List<String> path, String selection, String[] args, int limit) {
+        List<Long> ids = new ArrayList<>();
+        if (path.size() > 1) {
+            long id = Long.parseLong(path.get(1));
+            if (id >= 1 && id <= eventCount) {
+                ids.add(id);
+            }
+        } else if (selection == null) {
+            for (long id = 1; id <= eventCount && ids.size() < limit; id++) {
+                ids.add(id);
+            }
+        } else if (selection.startsWith(Events._ID + " IN (")) {
+            for (String arg : args) {
+                long id = Long.parseLong(arg);
+                if (id >= 1 && id <= eventCount) {
+                    ids.add(id);
+                }
+            }
+        } else if (selection.startsWith(Events.DTSTART + " >= ? AND " + Events.DTSTART + " <= ?")) {
+            long from = Long.parseLong(args[0]);
+            long to = Long.parseLong(args[1]);
+            boolean paged = selection.contains(" OR (");
+            for (long id = firstStartingAtOrAfter(from); id <= eventCount && start(id) <= to && ids.size() < limit; id++) {
+                if (paged) {
+                    long lastStart = Long.parseLong(args[2]);
+                    long lastId = Long.parseLong(args[4]);
+                    if (start(id) < lastStart || (start(id) == lastStart && id <= lastId)) {
+                        continue;
+                    }
+                }
+                ids.add(id);
+            }
+        } else {
+            throw new UnsupportedOperationException("Unsupported selection: " + selection);
+        }
+        return ids;
+    }
+
+    private long firstStartingAtOrAfter(long millis) {
+        long id = Math.floorDiv(millis - FIRST_START + spacingMillis - 1, spacingMillis);
+        return Math.max(id, 1);
+    }
+
+    private static int limit(String sortOrder) {
+        int index = sortOrder != null ? sortOrder.indexOf(" LIMIT ") : -1;
+        return index < 0 ? Integer.MAX_VALUE : Integer.parseInt(sortOrder.substring(index + 7).trim());
+    }
+
+    private Object[] row(String[] projection, long id) {
+        Object[] row = new Object[projection.length];
+        for (int i = 0; i < projection.length; i++) {
+            row[i] = column(projection[i], id);
+        }
+        return row;
+    }
+
+    private Object column(String column, long id) {
+        switch (column) {
+            case Events._ID:
+            case Instances.EVENT_ID:
+                return id;
+            case Events.TITLE:
+                return "Event " + id;
+            case Events.DESCRIPTION:
+                return "Agenda for event " + id;
+            case Events.EVENT_LOCATION:
+                return "Room " + id % 20;
+            case Events.DTSTART:
+            case Instances.BEGIN:
+                return start(id);
+            case Events.DTEND:
+            case Instances.END:
+                return start(id) + 1800000L;
+            case Events.ALL_DAY:
+            case Events.AVAILABILITY:
+                return 0;
+            case Events.CALENDAR_ID:
+                return 1L;
+            case Events.RRULE:
+                return id % recurringEvery == 0 ? RRULE : null;
+            default:
+                return null;
+        }
+    }
+
+    private static Object[] reminderRow(String[] projection, long eventId, int minutes) {
+        Object[] row = new Object[projection.length];
+        for (int i = 0; i < projection.length; i++) {
+            if (Reminders.EVENT_ID.equals(projection[i])) {
+                row[i] = eventId;
+            } else if (Reminders.MINUTES.equals(projection[i])) {
+                row[i] = minutes;
+            }
+        }
+        return row;
+    }
+}
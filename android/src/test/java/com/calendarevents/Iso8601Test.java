@@ -0,0 +1,74 @@
+package com.calendarevents;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Iso8601 formatting of provider values, including years outside 0000-9999 that
+ * sync adapters can write, and parsing of the forms callers send.
+ */
+public class Iso8601Test {
+    @Test
+    public void formatsFourDigitYears() {
+        assertEquals("1970-01-01T00:00:00.000Z", Iso8601.format(0));
+        assertEquals("1969-12-31T23:59:59.999Z", Iso8601.format(-1));
+        assertEquals("0000-01-01T00:00:00.000Z", Iso8601.format(-62167219200000L));
+        assertEquals("9999-12-31T23:59:59.999Z", Iso8601.format(253402300799999L));
+    }
+
+    @Test
+    public void formatsOtherYearsInExpandedForm() {
+        // The same strings as JavaScript's Date.prototype.toISOString
+        assertEquals("-000001-12-31T23:59:59.999Z", Iso8601.format(-62167219200001L));
+        assertEquals("+010000-01-01T00:00:00.000Z", Iso8601.format(253402300800000L));
+        assertEquals("+275760-09-13T00:00:00.000Z", Iso8601.format(8640000000000000L));
+        assertEquals("-271821-04-20T00:00:00.000Z", Iso8601.format(-8640000000000000L));
+    }
+
+    @Test
+    public void formatsWholeLongRange() {
+        assertEquals("+292278994-08-17T07:12:55.807Z", Iso8601.format(Long.MAX_VALUE));
+        assertEquals("-292275055-05-16T16:47:04.192Z", Iso8601.format(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void clampsBasicFormToFourDigitYears() {
+        assertEquals("99991231T235959Z", Iso8601.formatBasic(253402300799999L));
+        assertEquals("99991231T235959Z", Iso8601.formatBasic(253402300800000L));
+        assertEquals("99991231T235959Z", Iso8601.formatBasic(Long.MAX_VALUE));
+        assertEquals("00000101T000000Z", Iso8601.formatBasic(-62167219200000L));
+        assertEquals("00000101T000000Z", Iso8601.formatBasic(-62167219200001L));
+        assertEquals("00000101T000000Z", Iso8601.formatBasic(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void parsesWhatItFormats() {
+        long millis = Iso8601.parse("2024-02-29T12:34:56.789Z");
+        assertEquals("2024-02-29T12:34:56.789Z", Iso8601.format(millis));
+        assertEquals("20240229T123456Z", Iso8601.formatBasic(millis));
+        assertEquals(millis, Iso8601.parse("2024-02-29T14:34:56.789+02:00"));
+        assertEquals(millis - 789, Iso8601.parse("2024-02-29 12:34:56"));
+    }
+
+    @Test
+    public void rejectsMalformedInput() {
+        String[] invalid = new String[] {
+            "+010000-01-01T00:00:00.000Z",
+            "2023-02-29",
+            "2024-01-01T24:01",
+            "2024-01-01T10:00:00.Z",
+            "2024-01-01T10:00:00+19:00",
+            "2024/01/01"
+        };
+        for (String value : invalid) {
+            try {
+                Iso8601.parse(value);
+                fail("Parsed " + value);
+            } catch (IllegalArgumentException expected) {
+                // Rejected as it should be
+            }
+        }
+    }
+}
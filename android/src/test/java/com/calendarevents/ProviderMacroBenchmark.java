@@ -0,0 +1,241 @@
+package com.calendarevents;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.provider.CalendarContract;
+import android.provider.CalendarContract.Events;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Macrobenchmarks for the provider-bound read paths, run through the module's
+ * ReactMethods against FakeCalendarProvider filled with 10k and 100k events spread
+ * over 2024. Each call goes through ProviderExecutor and resolves React Native maps
+ * (JavaOnlyMap, see ShadowArguments), so the numbers include cursor reading, reminder
+ * batching and serialization, but not the bridge or SQLite.
+ *
+ * Every benchmark is warmed up, then each measured call reports its latency (mean,
+ * p50, p90), the bytes allocated by all threads during it on HotSpot, and the
+ * provider queries per table and cursor rows it cost.
+ *
+ * Skipped unless the calendarevents.macroBenchmarks system property is set; run with
+ * ./gradlew :react-native-calendar-events-native:testDebugUnitTest --tests '*MacroBenchmark' -PmacroBenchmarks
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, shadows = ShadowArguments.class, instrumentedPackages = "com.facebook.react.bridge")
+public class ProviderMacroBenchmark {
+    private static final int[] EVENT_COUNTS = new int[] { 10_000, 100_000 };
+    private static final long YEAR = 365 * 86400000L;
+    private static final int WARMUP_CALLS = 3;
+    private static final int MEASURED_CALLS = 10;
+    private static final long TIMEOUT_SECONDS = 120;
+
+    private static final ReadableArray ALL_CALENDARS = new JavaOnlyArray();
+
+    /** One API call, settling promise when done. */
+    private interface Call {
+        void start(Promise promise) throws Exception;
+    }
+
+    private FakeCalendarProvider provider;
+    private CalendarEventsNativeModule module;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue("Set -PmacroBenchmarks to run", Boolean.getBoolean("calendarevents.macroBenchmarks"));
+        provider = Robolectric.setupContentProvider(FakeCalendarProvider.class, CalendarContract.AUTHORITY);
+        // One event in ten recurs, as in a typical work calendar
+        provider.recurringEvery = 10;
+        module = new CalendarEventsNativeModule(new ReactApplicationContext(RuntimeEnvironment.getApplication()));
+    }
+
+    @After
+    public void tearDown() {
+        if (module != null) {
+            module.invalidate();
+        }
+    }
+
+    @Test
+    public void fetchAllEvents() throws Exception {
+        for (int count : EVENT_COUNTS) {
+            fill(count);
+            Object month = measure("fetchAllEvents.month", count, promise -> module.fetchAllEvents(
+                "2024-01-01T00:00:00.000Z", "2024-01-31T23:59:59.999Z", ALL_CALENDARS, null, promise));
+            assertTrue(((ReadableArray) month).size() > 0);
+
+            Object year = measure("fetchAllEvents.year", count, promise -> module.fetchAllEvents(
+                "2024-01-01T00:00:00.000Z", "2024-12-31T23:59:59.999Z", ALL_CALENDARS, null, promise));
+            assertEquals(count, ((ReadableArray) year).size());
+        }
+    }
+
+    @Test
+    public void fetchEventsPage() throws Exception {
+        for (int count : EVENT_COUNTS) {
+            fill(count);
+            ReadableMap first = (ReadableMap) measure("fetchEventsPage.first", count, promise ->
+                module.fetchEventsPage("2024-01-01T00:00:00.000Z", "2024-12-31T23:59:59.999Z", ALL_CALENDARS,
+                    100, null, null, promise));
+            assertEquals(100, first.getArray("events").size());
+
+            final String token = first.getString("nextPageToken");
+            ReadableMap next = (ReadableMap) measure("fetchEventsPage.next", count, promise ->
+                module.fetchEventsPage("2024-01-01T00:00:00.000Z", "2024-12-31T23:59:59.999Z", ALL_CALENDARS,
+                    100, token, null, promise));
+            assertEquals(100, next.getArray("events").size());
+        }
+    }
+
+    @Test
+    public void findEventsByIds() throws Exception {
+        for (int count : EVENT_COUNTS) {
+            fill(count);
+            final JavaOnlyArray ids = new JavaOnlyArray();
+            Random random = new Random(42);
+            for (int i = 0; i < 1000; i++) {
+                ids.pushString(String.valueOf(1 + random.nextInt(count)));
+            }
+            Object events = measure("findEventsByIds.1000", count, promise ->
+                module.findEventsByIds(ids, null, promise));
+            assertEquals(1000, ((ReadableArray) events).size());
+        }
+    }
+
+    @Test
+    public void countEventsByDay() throws Exception {
+        for (int count : EVENT_COUNTS) {
+            fill(count);
+            // A six-week month grid, then the whole year
+            Object grid = measure("countEventsByDay.grid", count, promise -> module.countEventsByDay(
+                "2024-01-01T00:00:00.000Z", "2024-02-12T00:00:00.000Z", ALL_CALENDARS, "UTC", null, promise));
+            assertEquals(42, ((ReadableArray) grid).size());
+
+            Object year = measure("countEventsByDay.year", count, promise -> module.countEventsByDay(
+                "2024-01-01T00:00:00.000Z", "2025-01-01T00:00:00.000Z", ALL_CALENDARS, "UTC", null, promise));
+            assertEquals(366, ((ReadableArray) year).size());
+        }
+    }
+
+    @Test
+    public void serializeEvent() throws Exception {
+        for (int count : EVENT_COUNTS) {
+            fill(count);
+            ContentResolver cr = RuntimeEnvironment.getApplication().getContentResolver();
+            Cursor cursor = cr.query(Events.CONTENT_URI, EventFields.DEFAULT.projection, null, null, null);
+            final List<EventRecord> records;
+            try {
+                records = CalendarEventsNativeModule.readRows(cr, cursor, EventFields.DEFAULT, 1000, null);
+            } finally {
+                cursor.close();
+            }
+
+            // Serialization alone, on already-read records
+            Object events = measure("serializeEvent.1000", count, promise -> {
+                WritableArray array = new JavaOnlyArray();
+                for (EventRecord record : records) {
+                    WritableMap event = module.serializeEvent(record, EventFields.DEFAULT);
+                    array.pushMap(event);
+                }
+                promise.resolve(array);
+            });
+            assertEquals(1000, ((ReadableArray) events).size());
+        }
+    }
+
+    private void fill(int count) {
+        provider.eventCount = count;
+        provider.spacingMillis = YEAR / count;
+    }
+
+    /** Warms up, measures and reports call; returns the last resolved value. */
+    private Object measure(String name, int count, Call call) throws Exception {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            invoke(call);
+        }
+
+        int eventQueries = provider.eventQueries;
+        int reminderQueries = provider.reminderQueries;
+        int instanceQueries = provider.instanceQueries;
+        long rows = provider.rows;
+        long[] nanos = new long[MEASURED_CALLS];
+        long allocated = 0;
+        Object value = null;
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            value = invoke(call);
+            nanos[i] = System.nanoTime() - start;
+            allocated = allocatedBefore < 0 ? -1 : allocated + allocatedBytes() - allocatedBefore;
+        }
+
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+        Arrays.sort(nanos);
+        System.out.println(String.format("%-24s %7d events %9.2f ms mean %9.2f ms p50 %9.2f ms p90 %12s"
+                + "   queries/call events %.1f reminders %.1f instances %.1f   rows/call %.0f",
+            name, count, total / 1e6 / MEASURED_CALLS, nanos[MEASURED_CALLS / 2] / 1e6,
+            nanos[MEASURED_CALLS * 9 / 10] / 1e6,
+            allocated < 0 ? "n/a" : String.format("%.1f KB/call", allocated / 1024.0 / MEASURED_CALLS),
+            (double) (provider.eventQueries - eventQueries) / MEASURED_CALLS,
+            (double) (provider.reminderQueries - reminderQueries) / MEASURED_CALLS,
+            (double) (provider.instanceQueries - instanceQueries) / MEASURED_CALLS,
+            (double) (provider.rows - rows) / MEASURED_CALLS));
+        return value;
+    }
+
+    /** Starts call and waits for it to settle, failing on a rejection. */
+    private static Object invoke(Call call) throws Exception {
+        BlockingPromise promise = new BlockingPromise(TIMEOUT_SECONDS);
+        call.start(promise);
+        return promise.await();
+    }
+
+    /**
+     * Bytes allocated so far by all live threads, the executor's workers included, or
+     * -1 when the JVM can't tell.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        try {
+            // Extension interface present on HotSpot-based JVMs
+            Method method = Class.forName("com.sun.management.ThreadMXBean")
+                .getMethod("getThreadAllocatedBytes", long[].class);
+            long total = 0;
+            for (long bytes : (long[]) method.invoke(threads, (Object) threads.getAllThreadIds())) {
+                total += Math.max(bytes, 0);
+            }
+            return total;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.calendarevents;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * RRule expansion against the examples of RFC 5545 section 3.8.5.3, all starting at
+ * 09:00 in America/New_York, plus BYSETPOS, UNTIL/COUNT bounds, DST transitions and
+ * rules that must be rejected.
+ */
+public class RRuleTest {
+    private static final TimeZone NEW_YORK = TimeZone.getTimeZone("America/New_York");
+
+    @Test
+    public void dailyForTenOccurrences() {
+        assertEquals(Arrays.asList("19970902", "19970903", "19970904", "19970905", "19970906",
+                "19970907", "19970908", "19970909", "19970910", "19970911"),
+            days("FREQ=DAILY;COUNT=10", "19970902T090000", 100));
+    }
+
+    @Test
+    public void dailyUntilDecember24() {
+        List<String> days = days("FREQ=DAILY;UNTIL=19971224T000000Z", "19970902T090000", 1000);
+        assertEquals(113, days.size());
+        assertEquals("19971223", days.get(days.size() - 1));
+    }
+
+    @Test
+    public void everyOtherDay() {
+        assertEquals(Arrays.asList("19970902", "19970904", "19970906", "19970908", "19970910"),
+            days("FREQ=DAILY;INTERVAL=2", "19970902T090000", 5));
+    }
+
+    @Test
+    public void weeklyKeepsLocalTimeAcrossDstEnd() {
+        assertEquals(Arrays.asList("19970902T090000", "19970909T090000", "19970916T090000",
+                "19970923T090000", "19970930T090000", "19971007T090000", "19971014T090000",
+                "19971021T090000", "19971028T090000", "19971104T090000"),
+            expand("FREQ=WEEKLY;COUNT=10", "19970902T090000", NEW_YORK, 100));
+    }
+
+    @Test
+    public void weeklyOnTuesdayAndThursdayForFiveWeeks() {
+        assertEquals(Arrays.asList("19970902", "19970904", "19970909", "19970911", "19970916",
+                "19970918", "19970923", "19970925", "19970930", "19971002"),
+            days("FREQ=WEEKLY;UNTIL=19971007T000000Z;WKST=SU;BYDAY=TU,TH", "19970902T090000", 100));
+    }
+
+    @Test
+    public void monthlyOnTheFirstFriday() {
+        assertEquals(Arrays.asList("19970905", "19971003", "19971107", "19971205", "19980102",
+                "19980206", "19980306", "19980403", "19980501", "19980605"),
+            days("FREQ=MONTHLY;COUNT=10;BYDAY=1FR", "19970905T090000", 100));
+    }
+
+    @Test
+    public void everyOtherMonthOnTheFirstAndLastSunday() {
+        assertEquals(Arrays.asList("19970907", "19970928", "19971102", "19971130", "19980104",
+                "19980125", "19980301", "19980329", "19980503", "19980531"),
+            days("FREQ=MONTHLY;INTERVAL=2;COUNT=10;BYDAY=1SU,-1SU", "19970907T090000", 100));
+    }
+
+    @Test
+    public void monthlyOnTheThirdToLastDay() {
+        assertEquals(Arrays.asList("19970928", "19971029", "19971128", "19971229", "19980129", "19980226"),
+            days("FREQ=MONTHLY;BYMONTHDAY=-3", "19970928T090000", 6));
+    }
+
+    @Test
+    public void yearlyInJuneAndJuly() {
+        assertEquals(Arrays.asList("19970610", "19970710", "19980610", "19980710", "19990610",
+                "19990710", "20000610", "20000710", "20010610", "20010710"),
+            days("FREQ=YEARLY;COUNT=10;BYMONTH=6,7", "19970610T090000", 100));
+    }
+
+    @Test
+    public void everyThursdayInMarch() {
+        assertEquals(Arrays.asList("19970313", "19970320", "19970327", "19980305", "19980312",
+                "19980319", "19980326", "19990304", "19990311", "19990318", "19990325"),
+            days("FREQ=YEARLY;BYMONTH=3;BYDAY=TH", "19970313T090000", 11));
+    }
+
+    @Test
+    public void mondayOfWeekNumberTwenty() {
+        assertEquals(Arrays.asList("19970512", "19980511", "19990517"),
+            days("FREQ=YEARLY;BYWEEKNO=20;BYDAY=MO", "19970512T090000", 3));
+    }
+
+    @Test
+    public void bySetPosThirdOfTuesdayToThursday() {
+        assertEquals(Arrays.asList("19970904", "19971007", "19971106"),
+            days("FREQ=MONTHLY;COUNT=3;BYDAY=TU,WE,TH;BYSETPOS=3", "19970904T090000", 100));
+    }
+
+    @Test
+    public void bySetPosSecondToLastWeekday() {
+        assertEquals(Arrays.asList("19970929", "19971030", "19971127", "19971230", "19980129",
+                "19980226", "19980330"),
+            days("FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-2", "19970929T090000", 7));
+    }
+
+    @Test
+    public void bySetPosLastWeekdaySkipsPositionsBeforeStart() {
+        assertEquals(Arrays.asList("19970930", "19971031", "19971128", "19971231"),
+            days("FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1", "19970929T090000", 4));
+    }
+
+    @Test
+    public void untilIsInclusive() {
+        // 13:00Z is 09:00 EDT
+        assertEquals(3, days("FREQ=DAILY;UNTIL=19970904T130000Z", "19970902T090000", 100).size());
+        assertEquals(2, days("FREQ=DAILY;UNTIL=19970904T125959Z", "19970902T090000", 100).size());
+    }
+
+    @Test
+    public void floatingAndDateOnlyUntilAreLocal() {
+        assertEquals(3, days("FREQ=DAILY;UNTIL=19970904T090000", "19970902T090000", 100).size());
+        // A date-only UNTIL includes the whole day
+        assertEquals(4, days("FREQ=DAILY;UNTIL=19970905", "19970902T090000", 100).size());
+    }
+
+    @Test
+    public void untilMillisReadsFloatingValuesInTheZone() {
+        RRule rule = RRule.compile("FREQ=DAILY;UNTIL=19970904T090000");
+        assertEquals(local("19970904T090000", NEW_YORK), rule.untilMillis(NEW_YORK));
+        assertEquals(local("19970904T130000", TimeZone.getTimeZone("UTC")),
+            RRule.parseUntilMillis("19970904T130000Z", NEW_YORK));
+    }
+
+    @Test
+    public void countStopsExpansion() {
+        RRule.Occurrences occurrences = RRule.compile("FREQ=YEARLY;COUNT=2").expand(
+            local("20200229T090000", NEW_YORK), NEW_YORK);
+        occurrences.next();
+        occurrences.next();
+        assertEquals(false, occurrences.hasNext());
+    }
+
+    @Test
+    public void dailyAcrossDstStartAndEnd() {
+        List<Long> march = starts("FREQ=DAILY;COUNT=3", "20210313T090000");
+        assertEquals(23 * 3600000L, march.get(1) - march.get(0));
+        assertEquals(24 * 3600000L, march.get(2) - march.get(1));
+
+        List<Long> november = starts("FREQ=DAILY;COUNT=2", "20211106T090000");
+        assertEquals(25 * 3600000L, november.get(1) - november.get(0));
+        assertEquals(Arrays.asList("20211106T090000", "20211107T090000"),
+            expand("FREQ=DAILY;COUNT=2", "20211106T090000", NEW_YORK, 100));
+    }
+
+    @Test
+    public void prefixAndCaseAreAccepted() {
+        assertEquals(Arrays.asList("19970902", "19970909"),
+            days("RRULE:freq=weekly;count=2", "19970902T090000", 100));
+    }
+
+    @Test
+    public void invalidRulesAreRejected() {
+        String[] invalid = {
+            "",
+            "INTERVAL=2",
+            "FREQ=HOURLY",
+            "FREQ=SOMETIMES",
+            "FREQ=DAILY;INTERVAL=0",
+            "FREQ=DAILY;COUNT=x",
+            "FREQ=DAILY;COUNT=2;UNTIL=19971224T000000Z",
+            "FREQ=DAILY;UNTIL=1997",
+            "FREQ=DAILY;UNTIL=19970231",
+            "FREQ=WEEKLY;BYDAY=XX",
+            "FREQ=MONTHLY;BYMONTHDAY=0",
+            "FREQ=MONTHLY;BYMONTHDAY=32",
+            "FREQ=YEARLY;BYMONTH=13",
+            "FREQ=DAILY;BYHOUR=24",
+            "FREQ=DAILY;X-NAME=1",
+            "FREQ"
+        };
+        for (String rule : invalid) {
+            try {
+                RRule.compile(rule);
+                fail("Compiled " + rule);
+            } catch (IllegalArgumentException expected) {
+                // Rejected as it should be
+            }
+        }
+    }
+
+    private static List<String> days(String rule, String dtstart, int limit) {
+        List<String> days = new ArrayList<>();
+        for (String occurrence : expand(rule, dtstart, NEW_YORK, limit)) {
+            assertEquals(dtstart.substring(8), occurrence.substring(8));
+            days.add(occurrence.substring(0, 8));
+        }
+        return days;
+    }
+
+    private static List<String> expand(String rule, String dtstart, TimeZone zone, int limit) {
+        SimpleDateFormat format = format(zone);
+        List<String> occurrences = new ArrayList<>();
+        for (long start : starts(rule, dtstart, zone, limit)) {
+            occurrences.add(format.format(start));
+        }
+        return occurrences;
+    }
+
+    private static List<Long> starts(String rule, String dtstart) {
+        return starts(rule, dtstart, NEW_YORK, 100);
+    }
+
+    private static List<Long> starts(String rule, String dtstart, TimeZone zone, int limit) {
+        RRule.Occurrences occurrences = RRule.compile(rule).expand(local(dtstart, zone), zone);
+        List<Long> starts = new ArrayList<>();
+        while (starts.size() < limit && occurrences.hasNext()) {
+            starts.add(occurrences.next());
+        }
+        return starts;
+    }
+
+    private static long local(String dateTime, TimeZone zone) {
+        try {
+            return format(zone).parse(dateTime).getTime();
+        } catch (ParseException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static SimpleDateFormat format(TimeZone zone) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd'T'HHmmss", Locale.ROOT);
+        format.setTimeZone(zone);
+        return format;
+    }
+}
@@ -0,0 +1,83 @@
+package com.calendarevents;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.provider.CalendarContract;
+import android.provider.CalendarContract.Events;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+/**
+ * Reminder loading for pages of events read from a cursor, as fetchEventsPage,
+ * streamEvents and the month buckets do, against a fake calendar provider that
+ * counts the queries each table receives.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class ReminderBatchingTest {
+    private FakeCalendarProvider provider;
+    private ContentResolver cr;
+
+    @Before
+    public void setUp() {
+        provider = Robolectric.setupContentProvider(FakeCalendarProvider.class, CalendarContract.AUTHORITY);
+        cr = RuntimeEnvironment.getApplication().getContentResolver();
+    }
+
+    @Test
+    public void pageOfRecurringEventsCostsOneRemindersQuery() {
+        provider.eventCount = 200;
+        Cursor cursor = queryEvents();
+        List<EventRecord> page = CalendarEventsNativeModule.readRows(cr, cursor, EventFields.DEFAULT, 100, null);
+        cursor.close();
+
+        assertEquals(100, page.size());
+        assertEquals(1, provider.reminderQueries);
+        for (EventRecord event : page) {
+            assertEquals(FakeCalendarProvider.RRULE, event.rrule);
+            assertArrayEquals(new int[] { 10, 60 }, event.alarmMinutes);
+        }
+    }
+
+    @Test
+    public void eachPageCostsOneRemindersQuery() {
+        provider.eventCount = 250;
+        Cursor cursor = queryEvents();
+        int[] sizes = new int[3];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = CalendarEventsNativeModule.readRows(cr, cursor, EventFields.DEFAULT, 100, null).size();
+        }
+        cursor.close();
+
+        assertArrayEquals(new int[] { 100, 100, 50 }, sizes);
+        assertEquals(1, provider.eventQueries);
+        assertEquals(3, provider.reminderQueries);
+    }
+
+    @Test
+    public void remindersAreQueriedPerFiveHundredIds() {
+        provider.eventCount = 1200;
+        Cursor cursor = queryEvents();
+        List<EventRecord> page = CalendarEventsNativeModule.readRows(cr, cursor, EventFields.DEFAULT, 1200, null);
+        cursor.close();
+
+        assertEquals(1200, page.size());
+        assertEquals(3, provider.reminderQueries);
+        assertArrayEquals(new int[] { 10, 60 }, page.get(page.size() - 1).alarmMinutes);
+    }
+
+    private Cursor queryEvents() {
+        return cr.query(Events.CONTENT_URI, EventFields.DEFAULT.projection, null, null, Events._ID);
+    }
+}
@@ -0,0 +1,28 @@
+package com.calendarevents;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+
+/**
+ * Builds JavaOnlyMap and JavaOnlyArray instead of React Native's native-backed maps,
+ * which need the JNI libraries, so module methods can resolve on the JVM. Requires
+ * com.facebook.react.bridge in the test's instrumentedPackages.
+ */
+@Implements(Arguments.class)
+public class ShadowArguments {
+    @Implementation
+    protected static WritableMap createMap() {
+        return new JavaOnlyMap();
+    }
+
+    @Implementation
+    protected static WritableArray createArray() {
+        return new JavaOnlyArray();
+    }
+}
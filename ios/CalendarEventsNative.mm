@@ -236,6 +236,7 @@ RCT_EXPORT_METHOD(removeCalendar:(NSString *)calendarId
 RCT_EXPORT_METHOD(fetchAllEvents:(NSString *)startDate
                   endDate:(NSString *)endDate
                   calendarIds:(NSArray<NSString *> *)calendarIds
+                  options:(NSDictionary *)options
                   resolve:(RCTPromiseResolveBlock)resolve
                   reject:(RCTPromiseRejectBlock)reject) {
     dispatch_async(dispatch_get_main_queue(), ^{
@@ -273,6 +274,7 @@ RCT_EXPORT_METHOD(fetchAllEvents:(NSString *)startDate
 }
 
 RCT_EXPORT_METHOD(findEventById:(NSString *)eventId
+                  options:(NSDictionary *)options
                   resolve:(RCTPromiseResolveBlock)resolve
                   reject:(RCTPromiseRejectBlock)reject) {
     dispatch_async(dispatch_get_main_queue(), ^{
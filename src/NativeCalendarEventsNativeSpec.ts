@@ -1,10 +1,58 @@
 import type { TurboModule } from 'react-native';
 import { TurboModuleRegistry } from 'react-native';
 
+type EventPayload = {
+  id?: string;
+  title: string;
+  startDate: string;
+  endDate: string;
+  location?: string;
+  notes?: string;
+  url?: string;
+  alarms?: Array<{
+    minutes?: number;
+  }>;
+  recurrence?: {
+    frequency: string;
+    interval?: number;
+    endDate?: string;
+    occurrence?: number;
+    daysOfWeek?: Array<{
+      dayOfWeek: number;
+      weekNumber?: number;
+    }>;
+    daysOfMonth?: Array<number>;
+    monthsOfYear?: Array<number>;
+    daysOfYear?: Array<number>;
+    weeksOfYear?: Array<number>;
+    setPositions?: Array<number>;
+  };
+  availability?: string;
+  allDay?: boolean;
+  calendar?: string;
+};
+
+type ConflictPayload = {
+  id: string;
+  eventId: string;
+  title?: string;
+  startDate: string;
+  endDate: string;
+  allDay: boolean;
+};
+
 export interface Spec extends TurboModule {
   debugModuleMethods(): Promise<string>;
   requestPermissions(writeOnly: boolean): Promise<string>;
   checkPermissions(writeOnly: boolean): Promise<string>;
+  checkPermissionsSync?(writeOnly: boolean): string;
+  getCachedCalendars?(): Array<Object> | null;
+  getCachedEvents?(
+    startDate: string,
+    endDate: string,
+    calendarIds: Array<string>,
+    options: Object
+  ): Array<Object> | null;
   fetchAllCalendars(): Promise<Array<{
     id: string;
     title: string;
@@ -34,7 +82,8 @@ export interface Spec extends TurboModule {
   fetchAllEvents(
     startDate: string,
     endDate: string,
-    calendarIds: Array<string>
+    calendarIds: Array<string>,
+    options: Object
   ): Promise<Array<{
     id?: string;
     title: string;
@@ -68,12 +117,108 @@ export interface Spec extends TurboModule {
       daysOfMonth?: Array<number>;
       monthsOfYear?: Array<number>;
       daysOfYear?: Array<number>;
+      weeksOfYear?: Array<number>;
+      setPositions?: Array<number>;
     };
     availability?: string;
     allDay?: boolean;
     calendar?: string;
   }>>;
-  findEventById(eventId: string): Promise<{
+  fetchEventOccurrences?(
+    startDate: string,
+    endDate: string,
+    calendarIds: Array<string>,
+    options: Object
+  ): Promise<{
+    occurrences: Array<{
+      id: string;
+      eventId: string;
+      startDate: string;
+      endDate: string;
+      allDay: boolean;
+    }>;
+    events: Object;
+  }>;
+  fetchEventsPage?(
+    startDate: string,
+    endDate: string,
+    calendarIds: Array<string>,
+    pageSize: number,
+    pageToken: string | null,
+    options: Object
+  ): Promise<{
+    events: Array<EventPayload>;
+    nextPageToken: string | null;
+  }>;
+  streamEvents?(
+    streamId: string,
+    startDate: string,
+    endDate: string,
+    calendarIds: Array<string>,
+    chunkSize: number
+  ): Promise<number>;
+  subscribeToChanges?(
+    subscriptionId: string,
+    startDate: string,
+    endDate: string,
+    calendarIds: Array<string>
+  ): Promise<number>;
+  unsubscribeFromChanges?(subscriptionId: string): Promise<boolean>;
+  searchEvents?(
+    query: string,
+    startDate: string,
+    endDate: string,
+    calendarIds: Array<string>,
+    limit: number,
+    options: Object
+  ): Promise<Array<EventPayload>>;
+  findConflicts?(
+    startDate: string,
+    endDate: string,
+    calendarIds: Array<string>,
+    options: Object
+  ): Promise<Array<ConflictPayload>>;
+  findConflictsBatch?(
+    slots: Array<{ startDate: string; endDate: string }>,
+    calendarIds: Array<string>,
+    options: Object
+  ): Promise<Array<Array<ConflictPayload>>>;
+  getFreeBusy?(
+    startDate: string,
+    endDate: string,
+    calendarIds: Array<string>,
+    options: Object
+  ): Promise<{
+    busy: Array<{ startDate: string; endDate: string; tentative: boolean }>;
+    free: Array<{ startDate: string; endDate: string }>;
+  }>;
+  fetchUpcomingEvents?(
+    limit: number,
+    from: string | null,
+    calendarIds: Array<string>,
+    options: Object
+  ): Promise<Array<EventPayload>>;
+  countEventsByDay?(
+    startDate: string,
+    endDate: string,
+    calendarIds: Array<string>,
+    timeZone: string | null,
+    options: Object
+  ): Promise<Array<number>>;
+  previewOccurrences?(
+    rule: string,
+    startDate: string,
+    window: Object
+  ): Promise<Array<string>>;
+  cancelRequest?(requestId: string): Promise<boolean>;
+  setMetricsEnabled?(enabled: boolean): Promise<void>;
+  getMetrics?(): Promise<Object>;
+  resetMetrics?(): Promise<void>;
+  addListener?(eventName: string): void;
+  removeListeners?(count: number): void;
+  findEventsByIds?(eventIds: Array<string>, options: Object): Promise<Array<EventPayload | null>>;
+  findEventDetails?(eventIds: Array<string>, options: Object): Promise<Array<Object | null>>;
+  findEventById(eventId: string, options: Object): Promise<{
     id?: string;
     title: string;
     startDate: string;
@@ -106,6 +251,8 @@ export interface Spec extends TurboModule {
       daysOfMonth?: Array<number>;
       monthsOfYear?: Array<number>;
       daysOfYear?: Array<number>;
+      weeksOfYear?: Array<number>;
+      setPositions?: Array<number>;
     };
     availability?: string;
     allDay?: boolean;
@@ -129,6 +276,33 @@ export interface Spec extends TurboModule {
     calendarId: string
   ): Promise<string>;
   removeEvent(eventId: string): Promise<boolean>;
+  saveEvents?(events: Array<Object>): Promise<Array<{
+    id: string | null;
+    error: string | null;
+  }>>;
+  updateEvents?(events: Array<Object>): Promise<Array<{
+    id: string | null;
+    error: string | null;
+  }>>;
+  removeEvents?(eventIds: Array<string>): Promise<Array<{
+    id: string | null;
+    error: string | null;
+  }>>;
+  syncEvents?(calendarId: string, events: Array<Object>, options: Object): Promise<{
+    results: Array<{ id: string | null; externalId: string | null; action: string | null; error: string | null }>;
+    deleted: Array<{ id: string | null; externalId: string; error: string | null }>;
+  }>;
+  importIcs?(path: string, calendarId: string): Promise<{
+    imported: number;
+    failed: number;
+    errors: Array<{ uid: string | null; error: string }>;
+  }>;
+  exportIcs?(
+    path: string,
+    range: { startDate: string; endDate: string },
+    calendarIds: Array<string>,
+    options: Object
+  ): Promise<number>;
   openEventInCalendar?(eventId: string): Promise<void>;
 }
 
@@ -1,6 +1,34 @@
-import { PermissionsAndroid, Platform } from 'react-native';
+import { NativeEventEmitter, PermissionsAndroid, Platform } from 'react-native';
 import CalendarEventsNative from './NativeCalendarEventsNativeSpec';
 
+const EVENTS_CHUNK_EVENT = 'CalendarEventsNative_eventsChunk';
+const EVENTS_CHANGED_EVENT = 'CalendarEventsNative_eventsChanged';
+const ICS_PROGRESS_EVENT = 'CalendarEventsNative_icsProgress';
+
+const eventEmitter = Platform.OS === 'android'
+  ? new NativeEventEmitter(CalendarEventsNative as any)
+  : null;
+
+let requestCounter = 0;
+
+const createRequestId = (prefix: string): string =>
+  `${prefix}-${Date.now().toString(36)}-${(requestCounter++).toString(36)}`;
+
+const toISOString = (date: string | Date): string =>
+  typeof date === 'string' ? date : date.toISOString();
+
+const toNativeEvent = (event: Partial<CalendarEvent>): Object => ({
+  ...event,
+  ...(event.startDate ? { startDate: toISOString(event.startDate) } : {}),
+  ...(event.endDate ? { endDate: toISOString(event.endDate) } : {}),
+  ...(event.recurrence?.endDate
+    ? { recurrence: { ...event.recurrence, endDate: toISOString(event.recurrence.endDate) } }
+    : {}),
+  ...(event.alarms
+    ? { alarms: event.alarms.map(alarm => alarm.date ? { ...alarm, date: toISOString(alarm.date) } : alarm) }
+    : {}),
+});
+
 export interface CalendarEvent {
   id?: string;
   title: string;
@@ -36,12 +64,288 @@ export interface RecurrenceRule {
   endDate?: string | Date;
   occurrence?: number;
   daysOfWeek?: Array<{
+    /** 1 (Sunday) to 7 (Saturday) */
     dayOfWeek: number;
     weekNumber?: number;
   }>;
   daysOfMonth?: number[];
   monthsOfYear?: number[];
   daysOfYear?: number[];
+  weeksOfYear?: number[];
+  setPositions?: number[];
+}
+
+export interface ConflictOptions {
+  /** Ignore occurrences of this event, e.g. the one being edited */
+  excludeEventId?: string;
+  /** Count events marked free as conflicts (default false) */
+  includeFree?: boolean;
+  /** Count all-day events as conflicts (default false) */
+  includeAllDay?: boolean;
+  requestId?: string;
+}
+
+export interface Conflict {
+  /** Occurrence id */
+  id: string;
+  eventId: string;
+  title?: string;
+  startDate: string;
+  endDate: string;
+  allDay: boolean;
+}
+
+export interface FreeBusyOptions {
+  /** Shortest free slot to report, in minutes (default 0) */
+  minFreeMinutes?: number;
+  /** Count all-day events as busy for their whole local day (default false) */
+  includeAllDay?: boolean;
+  requestId?: string;
+}
+
+export interface BusyInterval {
+  startDate: string;
+  endDate: string;
+  /** True when every event in the interval is tentative */
+  tentative: boolean;
+}
+
+export interface FreeBusy {
+  busy: BusyInterval[];
+  free: Array<{ startDate: string; endDate: string }>;
+}
+
+export interface PreviewWindow {
+  /** Only return occurrences starting at or after this date */
+  startDate?: string | Date;
+  /** Stop at this date */
+  endDate?: string | Date;
+  /** Maximum number of occurrences to return (default 100, at most 10000) */
+  limit?: number;
+  /** IANA zone whose wall-clock time the rule repeats in (default: the device zone) */
+  timeZone?: string;
+}
+
+export interface MetricHistogram {
+  count: number;
+  sum: number;
+  min: number;
+  max: number;
+  mean: number;
+  /** Percentiles are the upper bound of their power-of-two bucket */
+  p50: number;
+  p90: number;
+  p99: number;
+  /** Non-empty buckets; each counts values up to upperBound (and above the previous bound) */
+  buckets: Array<{ upperBound: number; count: number }>;
+}
+
+export interface MethodMetrics {
+  calls: number;
+  errors: number;
+  /** Wall time from the call to its resolve or reject */
+  latencyMicros: MetricHistogram;
+  /** Provider queries per call */
+  queries: MetricHistogram;
+  /** Cursor rows returned by those queries */
+  rows: MetricHistogram;
+  /** Provider inserts, updates, deletes and batch operations per call */
+  writes: MetricHistogram;
+  /** Approximate JSON size of successful results */
+  payloadBytes: MetricHistogram;
+}
+
+export interface CalendarMetrics {
+  enabled: boolean;
+  /** When collection started or was last reset */
+  since: string;
+  methods: { [method: string]: MethodMetrics };
+}
+
+export interface EventOccurrence {
+  id: string;
+  eventId: string;
+  startDate: string;
+  endDate: string;
+  allDay: boolean;
+}
+
+export interface EventOccurrences {
+  occurrences: EventOccurrence[];
+  events: Record<string, CalendarEvent>;
+}
+
+export type EventField = keyof CalendarEvent;
+
+export interface FetchOptions {
+  /**
+   * Identifies the call so it can be aborted with cancelRequest (Android).
+   * Reusing the id of a request still in flight rejects with DUPLICATE_REQUEST_ID.
+   */
+  requestId?: string;
+  /**
+   * Serve repeat fetches of the same window from a native in-memory cache
+   * (Android, fetchAllEvents). Entries are dropped on any calendar change.
+   */
+  cache?: boolean;
+  /**
+   * Serve fetchAllEvents from native month buckets and load the months before
+   * and after the window in the background (Android), for scrolling calendars.
+   */
+  prefetch?: boolean;
+  /**
+   * Only read and return these fields (Android). The id is always included;
+   * leaving out 'alarms' skips the reminder lookups.
+   */
+  fields?: EventField[];
+}
+
+export interface EventsPage {
+  events: CalendarEvent[];
+  nextPageToken: string | null;
+}
+
+export interface EventChanges {
+  added: CalendarEvent[];
+  changed: CalendarEvent[];
+  removed: string[];
+}
+
+export interface EventSubscription {
+  id: string;
+  count: number;
+  remove(): Promise<boolean>;
+}
+
+const AVAILABILITIES: Array<CalendarEvent['availability']> = ['busy', 'free', 'tentative'];
+
+/**
+ * Events in the columnar encoding returned by fetchEventColumns. Columns stay as
+ * sent by native code; get(i) rebuilds (and memoizes) one CalendarEvent on demand.
+ */
+export class EventColumns implements Iterable<CalendarEvent> {
+  readonly length: number;
+  private readonly columns: any;
+  private readonly rows: Array<CalendarEvent | undefined>;
+
+  constructor(columns: any) {
+    this.columns = columns;
+    this.length = columns.length;
+    this.rows = new Array(columns.length);
+  }
+
+  /** Raw start times in epoch milliseconds, for sorting or layout without building objects */
+  get startTimes(): number[] | undefined {
+    return this.columns.startDate;
+  }
+
+  /** Raw end times in epoch milliseconds */
+  get endTimes(): number[] | undefined {
+    return this.columns.endDate;
+  }
+
+  get(index: number): CalendarEvent {
+    let event = this.rows[index];
+    if (!event) {
+      const c = this.columns;
+      event = { id: c.id[index] } as CalendarEvent;
+      if (c.title) event.title = c.title[index];
+      if (c.notes) event.notes = c.notes[index];
+      if (c.startDate) event.startDate = new Date(c.startDate[index]).toISOString();
+      if (c.endDate) event.endDate = new Date(c.endDate[index]).toISOString();
+      if (c.allDay) event.allDay = c.allDay[index];
+      if (c.location) event.location = c.location[index];
+      if (c.calendar) event.calendar = c.calendarIds[c.calendar[index]];
+      if (c.availability) event.availability = AVAILABILITIES[c.availability[index]] || 'busy';
+      if (c.recurrence && c.recurrence[index]) event.recurrence = c.recurrence[index];
+      if (c.url) event.url = c.url[index];
+      if (c.alarms && c.alarms[index]) {
+        event.alarms = c.alarms[index].map((minutes: number) => ({ minutes }));
+      }
+      this.rows[index] = event;
+    }
+    return event;
+  }
+
+  *[Symbol.iterator](): Iterator<CalendarEvent> {
+    for (let i = 0; i < this.length; i++) {
+      yield this.get(i);
+    }
+  }
+
+  toArray(): CalendarEvent[] {
+    return Array.from(this);
+  }
+}
+
+export interface EventAttendee {
+  name?: string;
+  email?: string;
+  type: 'required' | 'optional' | 'resource' | 'none';
+  status: 'accepted' | 'declined' | 'invited' | 'tentative' | 'none';
+  organizer: boolean;
+}
+
+export interface EventDetails extends CalendarEvent {
+  id: string;
+  timeZone?: string;
+  alarms: Array<{
+    minutes: number;
+    method: 'alert' | 'email' | 'sms' | 'alarm' | 'default';
+  }>;
+  attendees: EventAttendee[];
+  extendedProperties: Record<string, string>;
+}
+
+export interface BatchResult {
+  id: string | null;
+  error: string | null;
+}
+
+export interface SyncEvent extends CalendarEvent {
+  /** Your backend's key for the event, stored with a module prefix in the provider's UID_2445 column */
+  externalId: string;
+  /** IANA zone of the event (default: the device zone, which is then not compared) */
+  timeZone?: string;
+}
+
+export interface SyncOptions {
+  /** Delete keyed events of the calendar that are missing from the input (default false) */
+  deleteMissing?: boolean;
+}
+
+export interface SyncResult extends BatchResult {
+  externalId: string | null;
+  /** What the sync did with the event; null when it failed */
+  action: 'inserted' | 'updated' | 'unchanged' | null;
+}
+
+export interface SyncSummary {
+  /** One entry per input event, in input order */
+  results: SyncResult[];
+  /** Keyed events removed because they were missing from the input or duplicated a key */
+  deleted: Array<BatchResult & { externalId: string }>;
+}
+
+export interface IcsProgress {
+  /** Events processed so far */
+  events: number;
+  /** Bytes read so far and the file size (import only) */
+  bytes?: number;
+  totalBytes?: number;
+}
+
+export interface IcsImportResult {
+  imported: number;
+  failed: number;
+  /** The first 100 failures */
+  errors: Array<{ uid: string | null; error: string }>;
+}
+
+export interface IcsExportOptions {
+  /** Identifies the export so it can be aborted with cancelRequest */
+  requestId?: string;
+  onProgress?: (progress: IcsProgress) => void;
 }
 
 export interface Calendar {
@@ -69,6 +373,17 @@ export type PermissionStatus =
 
 export type AllPermissionStatus = AuthorizationStatus | PermissionStatus;
 
+const listenToIcsProgress = (
+  path: string,
+  operation: 'import' | 'export',
+  onProgress: (progress: IcsProgress) => void
+) =>
+  eventEmitter!.addListener(ICS_PROGRESS_EVENT, (event: any) => {
+    if (event.path === path && event.operation === operation) {
+      onProgress({ events: event.events, bytes: event.bytes, totalBytes: event.totalBytes });
+    }
+  });
+
 class CalendarEvents {
   constructor() {
     // Log what's actually available to JavaScript
@@ -76,7 +391,7 @@ class CalendarEvents {
     console.log('🔍 CalendarEventsNative object:', CalendarEventsNative);
     console.log('📋 Actually available methods:');
     
-    const methods = ['requestPermissions', 'checkPermissions', 'fetchAllCalendars', 'findOrCreateCalendar', 'removeCalendar', 'fetchAllEvents', 'findEventById', 'saveEvent', 'updateEvent', 'removeEvent', 'openEventInCalendar', 'debugModuleMethods'];
+    const methods = ['requestPermissions', 'checkPermissions', 'checkPermissionsSync', 'getCachedCalendars', 'getCachedEvents', 'fetchAllCalendars', 'findOrCreateCalendar', 'removeCalendar', 'fetchAllEvents', 'fetchEventOccurrences', 'fetchEventsPage', 'streamEvents', 'subscribeToChanges', 'unsubscribeFromChanges', 'searchEvents', 'findConflicts', 'findConflictsBatch', 'getFreeBusy', 'fetchUpcomingEvents', 'countEventsByDay', 'previewOccurrences', 'cancelRequest', 'setMetricsEnabled', 'getMetrics', 'resetMetrics', 'findEventById', 'findEventsByIds', 'findEventDetails', 'saveEvent', 'updateEvent', 'removeEvent', 'saveEvents', 'updateEvents', 'removeEvents', 'syncEvents', 'importIcs', 'exportIcs', 'openEventInCalendar', 'debugModuleMethods'];
     
     methods.forEach(method => {
       const isAvailable = typeof (CalendarEventsNative as any)[method] === 'function';
@@ -156,6 +471,59 @@ class CalendarEvents {
     return CalendarEventsNative.fetchAllCalendars();
   }
 
+  /**
+   * Synchronous permission check (Android). Returns null where synchronous
+   * native calls are unavailable; use checkPermissions there.
+   */
+  checkPermissionsSync(writeOnly: boolean = false): PermissionStatus | null {
+    if (!CalendarEventsNative.checkPermissionsSync) {
+      return null;
+    }
+    return CalendarEventsNative.checkPermissionsSync(writeOnly) as PermissionStatus;
+  }
+
+  /**
+   * The calendar list from native memory without a promise round trip
+   * (Android), or null when it isn't loaded yet; fall back to fetchAllCalendars.
+   */
+  getCachedCalendars(): Calendar[] | null {
+    if (!CalendarEventsNative.getCachedCalendars) {
+      return null;
+    }
+    return CalendarEventsNative.getCachedCalendars() as Calendar[] | null;
+  }
+
+  /**
+   * The events fetchAllEvents would return with the same arguments, if they
+   * are already cached natively through options.cache or options.prefetch
+   * (Android); null otherwise, in which case fall back to fetchAllEvents.
+   */
+  getCachedEvents(
+    startDate: string | Date,
+    endDate: string | Date,
+    calendarIds?: string[],
+    options?: FetchOptions
+  ): CalendarEvent[] | null {
+    if (!CalendarEventsNative.getCachedEvents) {
+      return null;
+    }
+    let start: string;
+    let end: string;
+    try {
+      start = toISOString(startDate);
+      end = toISOString(endDate);
+    } catch {
+      // An invalid Date, which fetchAllEvents would reject
+      return null;
+    }
+    return CalendarEventsNative.getCachedEvents(
+      start,
+      end,
+      calendarIds || [],
+      options || {}
+    ) as CalendarEvent[] | null;
+  }
+
   /**
    * Find or create a calendar
    */
@@ -175,28 +543,412 @@ class CalendarEvents {
     return CalendarEventsNative.removeCalendar(calendarId);
   }
 
+  /**
+   * Create an id to pass as FetchOptions.requestId
+   */
+  createRequestId(): string {
+    return createRequestId('request');
+  }
+
+  /**
+   * Cancel a pending request started with FetchOptions.requestId. The cancelled
+   * call rejects with REQUEST_CANCELLED. Resolves false if it already finished.
+   */
+  async cancelRequest(requestId: string): Promise<boolean> {
+    if (!CalendarEventsNative.cancelRequest) {
+      return false;
+    }
+    return CalendarEventsNative.cancelRequest(requestId);
+  }
+
+  /**
+   * Start or stop collecting per-method latency, query, row, write and payload
+   * metrics. While enabled, native work also shows up as Trace sections.
+   */
+  async setMetricsEnabled(enabled: boolean): Promise<void> {
+    if (!CalendarEventsNative.setMetricsEnabled) {
+      throw new Error('Metrics are only supported on Android');
+    }
+    return CalendarEventsNative.setMetricsEnabled(enabled);
+  }
+
+  /**
+   * Metrics collected since collection started or was last reset.
+   */
+  async getMetrics(): Promise<CalendarMetrics> {
+    if (!CalendarEventsNative.getMetrics) {
+      throw new Error('Metrics are only supported on Android');
+    }
+    return CalendarEventsNative.getMetrics() as Promise<CalendarMetrics>;
+  }
+
+  /**
+   * Discard collected metrics.
+   */
+  async resetMetrics(): Promise<void> {
+    if (!CalendarEventsNative.resetMetrics) {
+      throw new Error('Metrics are only supported on Android');
+    }
+    return CalendarEventsNative.resetMetrics();
+  }
+
   /**
    * Fetch all events
    */
   async fetchAllEvents(
     startDate: string | Date,
     endDate: string | Date,
-    calendarIds?: string[]
+    calendarIds?: string[],
+    options?: FetchOptions
   ): Promise<CalendarEvent[]> {
     const start = typeof startDate === 'string' ? startDate : startDate.toISOString();
     const end = typeof endDate === 'string' ? endDate : endDate.toISOString();
-    const events = await CalendarEventsNative.fetchAllEvents(start, end, calendarIds || []);
+    const events = await CalendarEventsNative.fetchAllEvents(start, end, calendarIds || [], options || {});
+    return events as CalendarEvent[];
+  }
+
+  /**
+   * Fetch events in a columnar encoding that is cheaper to send over the bridge
+   * for large ranges; objects are rebuilt lazily by EventColumns.get.
+   */
+  async fetchEventColumns(
+    startDate: string | Date,
+    endDate: string | Date,
+    calendarIds?: string[],
+    options?: FetchOptions
+  ): Promise<EventColumns> {
+    if (Platform.OS !== 'android') {
+      throw new Error('Columnar results are only supported on Android');
+    }
+    const columns: any = await CalendarEventsNative.fetchAllEvents(
+      toISOString(startDate),
+      toISOString(endDate),
+      calendarIds || [],
+      { ...options, format: 'columnar' }
+    );
+    return new EventColumns(columns);
+  }
+
+  /**
+   * Fetch every occurrence (including recurring instances) within a date range
+   */
+  async fetchEventOccurrences(
+    startDate: string | Date,
+    endDate: string | Date,
+    calendarIds?: string[],
+    options?: FetchOptions
+  ): Promise<EventOccurrences> {
+    if (!CalendarEventsNative.fetchEventOccurrences) {
+      throw new Error('Fetching event occurrences is only supported on Android');
+    }
+    const start = typeof startDate === 'string' ? startDate : startDate.toISOString();
+    const end = typeof endDate === 'string' ? endDate : endDate.toISOString();
+    const result = await CalendarEventsNative.fetchEventOccurrences(start, end, calendarIds || [], options || {});
+    return result as EventOccurrences;
+  }
+
+  /**
+   * Fetch one page of events ordered by start date. Pass the returned
+   * nextPageToken to get the following page; it is null after the last page.
+   */
+  async fetchEventsPage(
+    startDate: string | Date,
+    endDate: string | Date,
+    pageSize: number,
+    pageToken?: string | null,
+    calendarIds?: string[],
+    options?: FetchOptions
+  ): Promise<EventsPage> {
+    if (!CalendarEventsNative.fetchEventsPage) {
+      throw new Error('Paged event fetching is only supported on Android');
+    }
+    const page = await CalendarEventsNative.fetchEventsPage(
+      toISOString(startDate),
+      toISOString(endDate),
+      calendarIds || [],
+      pageSize,
+      pageToken || null,
+      options || {}
+    );
+    return page as EventsPage;
+  }
+
+  /**
+   * Stream events in chunks while the native cursor is read. onChunk is called
+   * for every chunk; resolves with the total number of events delivered.
+   */
+  async streamEvents(
+    startDate: string | Date,
+    endDate: string | Date,
+    onChunk: (events: CalendarEvent[]) => void,
+    chunkSize: number = 100,
+    calendarIds?: string[],
+    options?: FetchOptions
+  ): Promise<number> {
+    if (!CalendarEventsNative.streamEvents || !eventEmitter) {
+      throw new Error('Streaming events is only supported on Android');
+    }
+    const streamId = options?.requestId || createRequestId('stream');
+    const subscription = eventEmitter.addListener(EVENTS_CHUNK_EVENT, (chunk: any) => {
+      if (chunk.streamId === streamId) {
+        onChunk(chunk.events as CalendarEvent[]);
+      }
+    });
+    try {
+      return await CalendarEventsNative.streamEvents(
+        streamId,
+        toISOString(startDate),
+        toISOString(endDate),
+        calendarIds || [],
+        chunkSize
+      );
+    } finally {
+      subscription.remove();
+    }
+  }
+
+  /**
+   * Watch a window for changes. onChange receives only the events added, changed
+   * or removed since the last notification; call remove() on the returned
+   * subscription to stop watching.
+   */
+  async subscribeToChanges(
+    startDate: string | Date,
+    endDate: string | Date,
+    onChange: (changes: EventChanges) => void,
+    calendarIds?: string[]
+  ): Promise<EventSubscription> {
+    if (!CalendarEventsNative.subscribeToChanges || !eventEmitter) {
+      throw new Error('Change subscriptions are only supported on Android');
+    }
+    const id = createRequestId('changes');
+    const listener = eventEmitter.addListener(EVENTS_CHANGED_EVENT, (event: any) => {
+      if (event.subscriptionId === id) {
+        onChange({
+          added: event.added as CalendarEvent[],
+          changed: event.changed as CalendarEvent[],
+          removed: event.removed,
+        });
+      }
+    });
+    try {
+      const count = await CalendarEventsNative.subscribeToChanges(
+        id,
+        toISOString(startDate),
+        toISOString(endDate),
+        calendarIds || []
+      );
+      return {
+        id,
+        count,
+        remove: () => {
+          listener.remove();
+          return CalendarEventsNative.unsubscribeFromChanges!(id);
+        },
+      };
+    } catch (error) {
+      listener.remove();
+      throw error;
+    }
+  }
+
+  /**
+   * Search event titles, locations and notes with a native full-text index.
+   * Resolves at most limit events, best matches first.
+   */
+  async searchEvents(
+    query: string,
+    startDate: string | Date,
+    endDate: string | Date,
+    limit: number = 50,
+    calendarIds?: string[],
+    options?: FetchOptions
+  ): Promise<CalendarEvent[]> {
+    if (!CalendarEventsNative.searchEvents) {
+      throw new Error('Event search is only supported on Android');
+    }
+    const events = await CalendarEventsNative.searchEvents(
+      query,
+      toISOString(startDate),
+      toISOString(endDate),
+      calendarIds || [],
+      limit,
+      options || {}
+    );
+    return events as CalendarEvent[];
+  }
+
+  /**
+   * Find occurrences overlapping a slot. Checks are answered from a native
+   * interval index that is reused until the calendar changes.
+   */
+  async findConflicts(
+    startDate: string | Date,
+    endDate: string | Date,
+    calendarIds?: string[],
+    options?: ConflictOptions
+  ): Promise<Conflict[]> {
+    if (!CalendarEventsNative.findConflicts) {
+      throw new Error('Conflict detection is only supported on Android');
+    }
+    return CalendarEventsNative.findConflicts(
+      toISOString(startDate),
+      toISOString(endDate),
+      calendarIds || [],
+      options || {}
+    );
+  }
+
+  /**
+   * Find conflicts for many candidate slots at once; resolves one array per slot.
+   */
+  async findConflictsBatch(
+    slots: Array<{ startDate: string | Date; endDate: string | Date }>,
+    calendarIds?: string[],
+    options?: ConflictOptions
+  ): Promise<Conflict[][]> {
+    if (!CalendarEventsNative.findConflictsBatch) {
+      throw new Error('Conflict detection is only supported on Android');
+    }
+    return CalendarEventsNative.findConflictsBatch(
+      slots.map(slot => ({ startDate: toISOString(slot.startDate), endDate: toISOString(slot.endDate) })),
+      calendarIds || [],
+      options || {}
+    );
+  }
+
+  /**
+   * Compute merged busy intervals and free slots for a window natively, without
+   * sending events across the bridge.
+   */
+  async getFreeBusy(
+    startDate: string | Date,
+    endDate: string | Date,
+    calendarIds?: string[],
+    options?: FreeBusyOptions
+  ): Promise<FreeBusy> {
+    if (!CalendarEventsNative.getFreeBusy) {
+      throw new Error('Free/busy computation is only supported on Android');
+    }
+    return CalendarEventsNative.getFreeBusy(
+      toISOString(startDate),
+      toISOString(endDate),
+      calendarIds || [],
+      options || {}
+    );
+  }
+
+  /**
+   * The next `limit` occurrences that haven't ended by `from` (now by default),
+   * ordered by start. The native query stops once enough are found.
+   */
+  async fetchUpcomingEvents(
+    limit: number,
+    from?: string | Date,
+    calendarIds?: string[],
+    options?: Pick<FetchOptions, 'fields' | 'requestId'>
+  ): Promise<CalendarEvent[]> {
+    if (!CalendarEventsNative.fetchUpcomingEvents) {
+      throw new Error('Upcoming events are only supported on Android');
+    }
+    const events = await CalendarEventsNative.fetchUpcomingEvents(
+      limit,
+      from ? toISOString(from) : null,
+      calendarIds || [],
+      options || {}
+    );
     return events as CalendarEvent[];
   }
 
+  /**
+   * Count the events touching each day of the range without loading them.
+   * Entry 0 is the day of startDate in timeZone (the device zone by default).
+   */
+  async countEventsByDay(
+    startDate: string | Date,
+    endDate: string | Date,
+    calendarIds?: string[],
+    timeZone?: string,
+    options?: Pick<FetchOptions, 'requestId'>
+  ): Promise<number[]> {
+    if (!CalendarEventsNative.countEventsByDay) {
+      throw new Error('Per-day event counts are only supported on Android');
+    }
+    return CalendarEventsNative.countEventsByDay(
+      toISOString(startDate),
+      toISOString(endDate),
+      calendarIds || [],
+      timeZone || null,
+      options || {}
+    );
+  }
+
+  /**
+   * Expand an RFC 5545 RRULE natively, returning the start dates of the
+   * occurrences that fall inside the window.
+   */
+  async previewOccurrences(
+    rule: string,
+    startDate: string | Date,
+    window?: PreviewWindow
+  ): Promise<string[]> {
+    if (!CalendarEventsNative.previewOccurrences) {
+      throw new Error('Occurrence preview is only supported on Android');
+    }
+    return CalendarEventsNative.previewOccurrences(rule, toISOString(startDate), {
+      ...window,
+      ...(window?.startDate ? { startDate: toISOString(window.startDate) } : {}),
+      ...(window?.endDate ? { endDate: toISOString(window.endDate) } : {}),
+    });
+  }
+
   /**
    * Find event by ID
    */
-  async findEventById(id: string): Promise<CalendarEvent | null> {
-    const event = await CalendarEventsNative.findEventById(id);
+  async findEventById(id: string, options?: Pick<FetchOptions, 'fields'>): Promise<CalendarEvent | null> {
+    const event = await CalendarEventsNative.findEventById(id, options || {});
     return event as CalendarEvent | null;
   }
 
+  /**
+   * Find many events by ID with batched queries. Results are in input order,
+   * with null for ids that match no event.
+   */
+  async findEventsByIds(
+    ids: string[],
+    options?: Pick<FetchOptions, 'fields' | 'requestId'>
+  ): Promise<Array<CalendarEvent | null>> {
+    if (!CalendarEventsNative.findEventsByIds) {
+      throw new Error('Bulk event lookup is only supported on Android');
+    }
+    const events = await CalendarEventsNative.findEventsByIds(ids, options || {});
+    return events as Array<CalendarEvent | null>;
+  }
+
+  /**
+   * Find an event with its reminders, attendees and extended properties,
+   * read with one query per table.
+   */
+  async findEventDetails(id: string): Promise<EventDetails | null> {
+    const [details] = await this.findEventDetailsByIds([id]);
+    return details ?? null;
+  }
+
+  /**
+   * Find many events with their reminders, attendees and extended properties.
+   * Results are in input order, with null for ids that match no event.
+   */
+  async findEventDetailsByIds(
+    ids: string[],
+    options?: Pick<FetchOptions, 'requestId'>
+  ): Promise<Array<EventDetails | null>> {
+    if (!CalendarEventsNative.findEventDetails) {
+      throw new Error('Event details are only supported on Android');
+    }
+    const events = await CalendarEventsNative.findEventDetails(ids, options || {});
+    return events as Array<EventDetails | null>;
+  }
+
   /**
    * Save an event
    */
@@ -247,6 +999,95 @@ class CalendarEvents {
     return CalendarEventsNative.removeEvent(eventId);
   }
 
+  /**
+   * Save many events in batched provider transactions. Returns one result per
+   * event, in input order, with the new id or an error.
+   */
+  async saveEvents(events: CalendarEvent[]): Promise<BatchResult[]> {
+    if (!CalendarEventsNative.saveEvents) {
+      throw new Error('Batch saving events is only supported on Android');
+    }
+    return CalendarEventsNative.saveEvents(events.map(toNativeEvent));
+  }
+
+  /**
+   * Update many events in batched provider transactions. Every event needs its id.
+   */
+  async updateEvents(events: Array<Partial<CalendarEvent> & { id: string }>): Promise<BatchResult[]> {
+    if (!CalendarEventsNative.updateEvents) {
+      throw new Error('Batch updating events is only supported on Android');
+    }
+    return CalendarEventsNative.updateEvents(events.map(toNativeEvent));
+  }
+
+  /**
+   * Remove many events in batched provider transactions.
+   */
+  async removeEvents(eventIds: string[]): Promise<BatchResult[]> {
+    if (!CalendarEventsNative.removeEvents) {
+      throw new Error('Batch removing events is only supported on Android');
+    }
+    return CalendarEventsNative.removeEvents(eventIds);
+  }
+
+  /**
+   * Import the events of an .ics file into a calendar. The file is streamed and
+   * written in batches, so memory use stays flat for large files.
+   */
+  async importIcs(
+    path: string,
+    calendarId: string,
+    onProgress?: (progress: IcsProgress) => void
+  ): Promise<IcsImportResult> {
+    if (!CalendarEventsNative.importIcs || !eventEmitter) {
+      throw new Error('iCalendar import is only supported on Android');
+    }
+    const subscription = onProgress ? listenToIcsProgress(path, 'import', onProgress) : null;
+    try {
+      return (await CalendarEventsNative.importIcs(path, calendarId)) as IcsImportResult;
+    } finally {
+      subscription?.remove();
+    }
+  }
+
+  /**
+   * Export the events starting in a range to an .ics file, written straight from
+   * the provider cursor. Resolves the number of events written.
+   */
+  async exportIcs(
+    path: string,
+    range: { startDate: string | Date; endDate: string | Date },
+    calendarIds?: string[],
+    options?: IcsExportOptions
+  ): Promise<number> {
+    if (!CalendarEventsNative.exportIcs || !eventEmitter) {
+      throw new Error('iCalendar export is only supported on Android');
+    }
+    const { onProgress, ...nativeOptions } = options || {};
+    const subscription = onProgress ? listenToIcsProgress(path, 'export', onProgress) : null;
+    try {
+      return await CalendarEventsNative.exportIcs(
+        path,
+        { startDate: toISOString(range.startDate), endDate: toISOString(range.endDate) },
+        calendarIds || [],
+        nativeOptions
+      );
+    } finally {
+      subscription?.remove();
+    }
+  }
+
+  /**
+   * Make a calendar's events match a backend's, keyed by externalId. Only new and
+   * changed events are written, in batched provider transactions.
+   */
+  async syncEvents(calendarId: string, events: SyncEvent[], options?: SyncOptions): Promise<SyncSummary> {
+    if (!CalendarEventsNative.syncEvents) {
+      throw new Error('Syncing events is only supported on Android');
+    }
+    return CalendarEventsNative.syncEvents(calendarId, events.map(toNativeEvent), options || {}) as Promise<SyncSummary>;
+  }
+
   /**
    * Open event in calendar app
    */